@@ -0,0 +1,266 @@
+package com.alibaba.middleware.innerlog.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 对比两个版本JMH的JSON结果,不是JMH的benchmark,有性能回退时以非0状态退出
+ *
+ * 按照benchmark,参数和线程数匹配两个文件中的结果,输出分数的变化。thrpt模式分数越高越好,
+ * 其他模式分数越低越好;变差的比例超过阈值并且超过两次结果误差之和时认为是回退。
+ *
+ * 运行: java -cp target/benchmarks.jar com.alibaba.middleware.innerlog.benchmark.BenchmarkCompare
+ * base.json current.json [阈值百分比,默认5]
+ */
+public class BenchmarkCompare {
+
+	private static final String PACKAGE_PREFIX = "com.alibaba.middleware.innerlog.benchmark.";
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 2) {
+			System.out.println("usage: BenchmarkCompare base.json current.json [thresholdPercent]");
+			System.exit(2);
+		}
+		double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 5;
+		Map<String, Score> base = readScores(args[0]);
+		Map<String, Score> current = readScores(args[1]);
+		int regressions = 0;
+		System.out.println(String.format("%-70s %6s %14s %14s %9s", "benchmark", "mode", "base", "current", "change"));
+		for (Map.Entry<String, Score> entry : current.entrySet()) {
+			Score now = entry.getValue();
+			Score before = base.get(entry.getKey());
+			if (null == before) {
+				System.out.println(String.format("%-70s %6s %14s %14.3f %9s", entry.getKey(), now.mode, "-",
+						now.score, "new"));
+				continue;
+			}
+			double change = (now.score - before.score) / before.score * 100;
+			boolean higherIsBetter = "thrpt".equals(now.mode);
+			double worse = higherIsBetter ? -change : change;
+			boolean regression = worse > threshold
+					&& Math.abs(now.score - before.score) > before.error + now.error;
+			if (regression) {
+				regressions++;
+			}
+			System.out.println(String.format("%-70s %6s %14.3f %14.3f %+8.2f%% %s", entry.getKey(), now.mode,
+					before.score, now.score, change, regression ? "REGRESSION" : ""));
+		}
+		if (regressions > 0) {
+			System.out.println("FAILED, regressions: " + regressions);
+			System.exit(1);
+		}
+		System.out.println("OK, threshold: " + threshold + "%");
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Score> readScores(String file) throws IOException {
+		List<Object> results = (List<Object>) new JsonReader(readFile(file)).read();
+		Map<String, Score> scores = new LinkedHashMap<String, Score>();
+		for (Object item : results) {
+			Map<String, Object> result = (Map<String, Object>) item;
+			StringBuilder key = new StringBuilder();
+			String benchmark = (String) result.get("benchmark");
+			key.append(benchmark.startsWith(PACKAGE_PREFIX) ? benchmark.substring(PACKAGE_PREFIX.length())
+					: benchmark);
+			Map<String, Object> params = (Map<String, Object>) result.get("params");
+			if (null != params) {
+				for (Map.Entry<String, Object> param : new TreeMap<String, Object>(params).entrySet()) {
+					key.append(' ').append(param.getKey()).append('=').append(param.getValue());
+				}
+			}
+			key.append(" t=").append(toNumber(result.get("threads")).intValue());
+			Map<String, Object> metric = (Map<String, Object>) result.get("primaryMetric");
+			Score score = new Score();
+			score.mode = (String) result.get("mode");
+			score.score = toNumber(metric.get("score")).doubleValue();
+			Number error = toNumber(metric.get("scoreError"));
+			score.error = null == error || Double.isNaN(error.doubleValue()) ? 0 : error.doubleValue();
+			scores.put(key.toString(), score);
+		}
+		return scores;
+	}
+
+	/*
+	 * JMH把NaN等写成字符串
+	 */
+	private static Number toNumber(Object value) {
+		if (value instanceof Number) {
+			return (Number) value;
+		}
+		return null == value ? null : Double.valueOf(value.toString());
+	}
+
+	private static String readFile(String file) throws IOException {
+		InputStream input = new FileInputStream(file);
+		try {
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int read;
+			while (-1 != (read = input.read(buffer))) {
+				output.write(buffer, 0, read);
+			}
+			return output.toString("UTF-8");
+		} finally {
+			input.close();
+		}
+	}
+
+	private static class Score {
+		String mode;
+		double score;
+		double error;
+	}
+
+	/**
+	 * 只支持JMH结果用到的JSON语法,对象按顺序解析为LinkedHashMap,数字解析为Double
+	 */
+	static class JsonReader {
+		private final String text;
+		private int position;
+
+		JsonReader(String text) {
+			this.text = text;
+		}
+
+		Object read() {
+			skipWhitespace();
+			char c = text.charAt(position);
+			switch (c) {
+			case '{':
+				return readObject();
+			case '[':
+				return readArray();
+			case '"':
+				return readString();
+			case 't':
+				return readLiteral("true", Boolean.TRUE);
+			case 'f':
+				return readLiteral("false", Boolean.FALSE);
+			case 'n':
+				return readLiteral("null", null);
+			default:
+				return readNumber();
+			}
+		}
+
+		private Map<String, Object> readObject() {
+			Map<String, Object> object = new LinkedHashMap<String, Object>();
+			position++;
+			skipWhitespace();
+			if ('}' == text.charAt(position)) {
+				position++;
+				return object;
+			}
+			while (true) {
+				skipWhitespace();
+				String name = readString();
+				skipWhitespace();
+				expect(':');
+				object.put(name, read());
+				skipWhitespace();
+				if ('}' == text.charAt(position)) {
+					position++;
+					return object;
+				}
+				expect(',');
+			}
+		}
+
+		private List<Object> readArray() {
+			List<Object> array = new ArrayList<Object>();
+			position++;
+			skipWhitespace();
+			if (']' == text.charAt(position)) {
+				position++;
+				return array;
+			}
+			while (true) {
+				array.add(read());
+				skipWhitespace();
+				if (']' == text.charAt(position)) {
+					position++;
+					return array;
+				}
+				expect(',');
+			}
+		}
+
+		private String readString() {
+			expect('"');
+			StringBuilder value = new StringBuilder();
+			while (true) {
+				char c = text.charAt(position++);
+				if ('"' == c) {
+					return value.toString();
+				}
+				if ('\\' != c) {
+					value.append(c);
+					continue;
+				}
+				c = text.charAt(position++);
+				switch (c) {
+				case 'n':
+					value.append('\n');
+					break;
+				case 't':
+					value.append('\t');
+					break;
+				case 'r':
+					value.append('\r');
+					break;
+				case 'b':
+					value.append('\b');
+					break;
+				case 'f':
+					value.append('\f');
+					break;
+				case 'u':
+					value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+					position += 4;
+					break;
+				default:
+					value.append(c);
+				}
+			}
+		}
+
+		private Object readLiteral(String literal, Object value) {
+			if (!text.startsWith(literal, position)) {
+				throw new IllegalArgumentException("unexpected json at " + position);
+			}
+			position += literal.length();
+			return value;
+		}
+
+		private Double readNumber() {
+			int start = position;
+			while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+				position++;
+			}
+			if (start == position) {
+				throw new IllegalArgumentException("unexpected json at " + position);
+			}
+			return Double.valueOf(text.substring(start, position));
+		}
+
+		private void expect(char c) {
+			if (c != text.charAt(position)) {
+				throw new IllegalArgumentException("expect '" + c + "' at " + position);
+			}
+			position++;
+		}
+
+		private void skipWhitespace() {
+			while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+				position++;
+			}
+		}
+	}
+}
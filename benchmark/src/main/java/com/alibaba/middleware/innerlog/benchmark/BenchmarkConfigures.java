@@ -0,0 +1,76 @@
+package com.alibaba.middleware.innerlog.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+
+import com.alibaba.middleware.innerlog.LogConfigure;
+import com.alibaba.middleware.innerlog.async.AsyncConfig;
+import com.alibaba.middleware.innerlog.async.OverflowPolicy;
+
+/**
+ * benchmark用到的logback配置
+ */
+public final class BenchmarkConfigures {
+
+	private static final String PATTERN = "%d %p %t %c - %m%n";
+
+	private BenchmarkConfigures() {
+	}
+
+	/**
+	 * root为INFO级别,输出到logback的NOPAppender,只测量inner-logger和logback本身的开销
+	 */
+	public static LogConfigure nopConfigure() {
+		return xmlConfigure("<configuration>"
+				+ "<appender name=\"nop\" class=\"ch.qos.logback.core.helpers.NOPAppender\"/>"
+				+ "<root level=\"INFO\"><appender-ref ref=\"nop\"/></root>"
+				+ "</configuration>");
+	}
+
+	/**
+	 * root为INFO级别,通过logback的FileAppender输出到file
+	 */
+	public static LogConfigure fileConfigure(String file) {
+		return xmlConfigure("<configuration>"
+				+ "<appender name=\"file\" class=\"ch.qos.logback.core.FileAppender\">"
+				+ "<file>" + file + "</file><append>false</append>"
+				+ "<encoder><pattern>" + PATTERN + "</pattern></encoder></appender>"
+				+ "<root level=\"INFO\"><appender-ref ref=\"file\"/></root>"
+				+ "</configuration>");
+	}
+
+	/**
+	 * root为INFO级别,通过MappedFileAppender输出到file
+	 */
+	public static LogConfigure mappedFileConfigure(String file) {
+		return xmlConfigure("<configuration>"
+				+ "<appender name=\"file\" class=\"com.alibaba.middleware.innerlog.appender.MappedFileAppender\">"
+				+ "<file>" + file + "</file><append>false</append><maxFileSize>256MB</maxFileSize>"
+				+ "<maxIndex>1</maxIndex><encoder><pattern>" + PATTERN + "</pattern></encoder></appender>"
+				+ "<root level=\"INFO\"><appender-ref ref=\"file\"/></root>"
+				+ "</configuration>");
+	}
+
+	/**
+	 * 队列满时阻塞的异步输出配置,吞吐量测试中不丢弃日志
+	 */
+	public static AsyncConfig blockingAsyncConfig() {
+		AsyncConfig asyncConfig = new AsyncConfig();
+		asyncConfig.setBufferSize(64 * 1024);
+		asyncConfig.setOverflowPolicy(OverflowPolicy.BLOCK);
+		return asyncConfig;
+	}
+
+	public static LogConfigure xmlConfigure(final String xml) {
+		return new LogConfigure() {
+			public InputStream configure() {
+				try {
+					return new ByteArrayInputStream(xml.getBytes("UTF-8"));
+				} catch (UnsupportedEncodingException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		};
+	}
+}
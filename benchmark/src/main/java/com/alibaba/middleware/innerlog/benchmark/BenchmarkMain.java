@@ -0,0 +1,65 @@
+package com.alibaba.middleware.innerlog.benchmark;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * benchmarks.jar的入口,参数原样交给JMH的Main
+ *
+ * 没有指定-rf和-rff时结果以JSON格式写入jmh-result-inner-logger-{version}.json,
+ * 文件名中带有被测的inner-logger版本,不同版本的结果可以用BenchmarkCompare对比:
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar
+ * java -cp target/benchmarks.jar com.alibaba.middleware.innerlog.benchmark.BenchmarkCompare \
+ *     jmh-result-inner-logger-1.5.4.json jmh-result-inner-logger-1.5.5.json
+ * </pre>
+ */
+public class BenchmarkMain {
+
+	private static final String POM_PROPERTIES = "META-INF/maven/com.alibaba.middleware/inner-logger/pom.properties";
+	private static final String RESULT_FORMAT = "-rf";
+	private static final String RESULT_FILE = "-rff";
+
+	public static void main(String[] args) throws Exception {
+		List<String> options = new ArrayList<String>(Arrays.asList(args));
+		if (!options.contains(RESULT_FORMAT) && !options.contains(RESULT_FILE)) {
+			options.add(RESULT_FORMAT);
+			options.add("json");
+			options.add(RESULT_FILE);
+			options.add("jmh-result-inner-logger-" + getVersion() + ".json");
+		}
+		org.openjdk.jmh.Main.main(options.toArray(new String[options.size()]));
+	}
+
+	/**
+	 * 被测的inner-logger的版本,从打包时maven生成的pom.properties中读取
+	 */
+	static String getVersion() {
+		InputStream input = BenchmarkMain.class.getClassLoader().getResourceAsStream(POM_PROPERTIES);
+		if (null != input) {
+			try {
+				Properties properties = new Properties();
+				properties.load(input);
+				String version = properties.getProperty("version");
+				if (null != version) {
+					return version;
+				}
+			} catch (Exception e) {
+				// 读取不到时使用package中的版本
+			} finally {
+				try {
+					input.close();
+				} catch (Exception e) {
+					// ignore
+				}
+			}
+		}
+		Package innerLogger = com.alibaba.middleware.innerlog.Logger.class.getPackage();
+		String version = null == innerLogger ? null : innerLogger.getImplementationVersion();
+		return null == version ? "unknown" : version;
+	}
+}
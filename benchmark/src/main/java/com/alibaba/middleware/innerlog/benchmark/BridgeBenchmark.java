@@ -0,0 +1,83 @@
+package com.alibaba.middleware.innerlog.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.alibaba.middleware.innerlog.Logger;
+import com.alibaba.middleware.innerlog.LoggerFactory;
+
+/**
+ * 对比Logger调用内置sl4j的三种方式: LoggerClassLoader中define的桥接类直接调用, MethodHandle调用和反射调用
+ *
+ * 运行: java -jar target/benchmarks.jar BridgeBenchmark
+ * 加上 -prof gc 可以看到每次调用的内存分配(gc.alloc.rate.norm)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BridgeBenchmark {
+
+	@Param({ "direct", "methodHandle", "reflect" })
+	public String bridge;
+
+	private Logger logger;
+	private Object arg1 = "arg1";
+	private Object arg2 = Integer.valueOf(2);
+	private Object arg3 = Long.valueOf(3L);
+
+	@Setup
+	public void setup() {
+		String appKey = "bridge-benchmark-" + bridge;
+		System.setProperty("innerlogger.bridge", bridge);
+		try {
+			LoggerFactory.doConfigure(BenchmarkConfigures.nopConfigure(), appKey);
+		} finally {
+			System.clearProperty("innerlogger.bridge");
+		}
+		logger = LoggerFactory.getLogger(BridgeBenchmark.class, appKey);
+	}
+
+	@Benchmark
+	public boolean isInfoEnabled() {
+		return logger.isInfoEnabled();
+	}
+
+	@Benchmark
+	public void debugDisabled() {
+		logger.debug("debug {}", arg1);
+	}
+
+	@Benchmark
+	public void infoMsg() {
+		logger.info("info message");
+	}
+
+	@Benchmark
+	public void infoOneArg() {
+		logger.info("info {}", arg1);
+	}
+
+	@Benchmark
+	public void infoTwoArgs() {
+		logger.info("info {} {}", arg1, arg2);
+	}
+
+	@Benchmark
+	public void infoManyArgs() {
+		logger.info("info {} {} {}", arg1, arg2, arg3);
+	}
+}
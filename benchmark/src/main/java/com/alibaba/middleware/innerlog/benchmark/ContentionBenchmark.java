@@ -0,0 +1,107 @@
+package com.alibaba.middleware.innerlog.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.alibaba.middleware.innerlog.Logger;
+import com.alibaba.middleware.innerlog.LoggerFactory;
+
+/**
+ * 1,4,16,64个线程同时使用同一个Logger时的调用开销,包括打开和关闭的级别
+ *
+ * mode为async时开启异步输出,队列满时阻塞,日志输出到NOPAppender。
+ *
+ * 运行: java -jar target/benchmarks.jar ContentionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentionBenchmark {
+
+	@Param({ "sync", "async" })
+	public String mode;
+
+	private String appKey;
+	private Logger logger;
+	private Object arg1 = "arg1";
+	private Object arg2 = Integer.valueOf(2);
+
+	@Setup
+	public void setup() {
+		appKey = "contention-benchmark-" + mode;
+		LoggerFactory.doConfigure(BenchmarkConfigures.nopConfigure(), appKey);
+		if ("async".equals(mode)) {
+			LoggerFactory.setAsyncConfig(appKey, BenchmarkConfigures.blockingAsyncConfig());
+		}
+		logger = LoggerFactory.getLogger(ContentionBenchmark.class, appKey);
+	}
+
+	@TearDown
+	public void tearDown() {
+		LoggerFactory.unbind(appKey);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public void info1Thread() {
+		logger.info("info {} {}", arg1, arg2);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void info4Threads() {
+		logger.info("info {} {}", arg1, arg2);
+	}
+
+	@Benchmark
+	@Threads(16)
+	public void info16Threads() {
+		logger.info("info {} {}", arg1, arg2);
+	}
+
+	@Benchmark
+	@Threads(64)
+	public void info64Threads() {
+		logger.info("info {} {}", arg1, arg2);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public void debugDisabled1Thread() {
+		logger.debug("debug {} {}", arg1, arg2);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void debugDisabled4Threads() {
+		logger.debug("debug {} {}", arg1, arg2);
+	}
+
+	@Benchmark
+	@Threads(16)
+	public void debugDisabled16Threads() {
+		logger.debug("debug {} {}", arg1, arg2);
+	}
+
+	@Benchmark
+	@Threads(64)
+	public void debugDisabled64Threads() {
+		logger.debug("debug {} {}", arg1, arg2);
+	}
+}
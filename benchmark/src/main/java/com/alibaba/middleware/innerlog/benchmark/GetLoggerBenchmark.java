@@ -0,0 +1,57 @@
+package com.alibaba.middleware.innerlog.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.alibaba.middleware.innerlog.Logger;
+import com.alibaba.middleware.innerlog.LoggerFactory;
+
+/**
+ * appKey已经绑定之后LoggerFactory.getLogger的开销,包括多线程并发获取
+ *
+ * 运行: java -jar target/benchmarks.jar GetLoggerBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GetLoggerBenchmark {
+
+	private static final String APP_KEY = "get-logger-benchmark";
+
+	@Setup
+	public void setup() {
+		LoggerFactory.doConfigure(BenchmarkConfigures.nopConfigure(), APP_KEY);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public Logger getLoggerByClass() {
+		return LoggerFactory.getLogger(GetLoggerBenchmark.class, APP_KEY);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public Logger getLoggerByName() {
+		return LoggerFactory.getLogger("com.alibaba.middleware.innerlog.benchmark.Named", APP_KEY);
+	}
+
+	@Benchmark
+	@Threads(16)
+	public Logger getLoggerContended() {
+		return LoggerFactory.getLogger(GetLoggerBenchmark.class, APP_KEY);
+	}
+}
@@ -0,0 +1,241 @@
+package com.alibaba.middleware.innerlog.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.alibaba.middleware.innerlog.ArgumentSupplier;
+import com.alibaba.middleware.innerlog.Logger;
+import com.alibaba.middleware.innerlog.LoggerFactory;
+
+/**
+ * LoggerMethodEnum中每种参数形式的调用开销,INFO为打开的级别,DEBUG为关闭的级别
+ *
+ * 另外包括sl4j没有对应方法的重载: 3到6个参数(不创建参数数组),基本类型参数(级别打开后才装箱)
+ * 和ArgumentSupplier参数(级别打开后才计算),关闭的级别下这些调用不应该有对象分配。
+ *
+ * 日志输出到NOPAppender,只测量inner-logger和logback本身的开销。
+ *
+ * 运行: java -jar target/benchmarks.jar LoggerCallBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggerCallBenchmark {
+
+	@Param({ "direct", "methodHandle", "reflect" })
+	public String bridge;
+
+	private String appKey;
+	private Logger logger;
+	private Object arg1 = "arg1";
+	private Object arg2 = Integer.valueOf(2);
+	private Object arg3 = Long.valueOf(3L);
+	private Object arg4 = "arg4";
+	private Object arg5 = Integer.valueOf(5);
+	private Object arg6 = Long.valueOf(6L);
+	private int intArg = 42;
+	private long longArg = 4096L;
+	private double doubleArg = 0.5d;
+	private boolean booleanArg = true;
+	private ArgumentSupplier supplier1 = new ConstantSupplier(arg1);
+	private ArgumentSupplier supplier2 = new ConstantSupplier(arg2);
+	private ArgumentSupplier supplier3 = new ConstantSupplier(arg3);
+	private Throwable throwable = new IllegalStateException("benchmark");
+
+	@Setup
+	public void setup() {
+		appKey = "logger-call-benchmark-" + bridge;
+		System.setProperty("innerlogger.bridge", bridge);
+		try {
+			LoggerFactory.doConfigure(BenchmarkConfigures.nopConfigure(), appKey);
+		} finally {
+			System.clearProperty("innerlogger.bridge");
+		}
+		logger = LoggerFactory.getLogger(LoggerCallBenchmark.class, appKey);
+	}
+
+	@TearDown
+	public void tearDown() {
+		LoggerFactory.unbind(appKey);
+	}
+
+	@Benchmark
+	public boolean isInfoEnabled() {
+		return logger.isInfoEnabled();
+	}
+
+	@Benchmark
+	public boolean isDebugEnabled() {
+		return logger.isDebugEnabled();
+	}
+
+	@Benchmark
+	public void infoMsg() {
+		logger.info("info message");
+	}
+
+	@Benchmark
+	public void infoFormatOne() {
+		logger.info("info {}", arg1);
+	}
+
+	@Benchmark
+	public void infoFormatTwo() {
+		logger.info("info {} {}", arg1, arg2);
+	}
+
+	@Benchmark
+	public void infoFormatMany() {
+		logger.info("info {} {} {}", new Object[] { arg1, arg2, arg3 });
+	}
+
+	@Benchmark
+	public void infoThrowable() {
+		logger.info("info throwable", throwable);
+	}
+
+	@Benchmark
+	public void debugMsgDisabled() {
+		logger.debug("debug message");
+	}
+
+	@Benchmark
+	public void debugFormatOneDisabled() {
+		logger.debug("debug {}", arg1);
+	}
+
+	@Benchmark
+	public void debugFormatTwoDisabled() {
+		logger.debug("debug {} {}", arg1, arg2);
+	}
+
+	@Benchmark
+	public void debugFormatManyDisabled() {
+		logger.debug("debug {} {} {}", new Object[] { arg1, arg2, arg3 });
+	}
+
+	@Benchmark
+	public void debugThrowableDisabled() {
+		logger.debug("debug throwable", throwable);
+	}
+
+	@Benchmark
+	public void infoFormatThree() {
+		logger.info("info {} {} {}", arg1, arg2, arg3);
+	}
+
+	@Benchmark
+	public void infoFormatSix() {
+		logger.info("info {} {} {} {} {} {}", arg1, arg2, arg3, arg4, arg5, arg6);
+	}
+
+	@Benchmark
+	public void infoInt() {
+		logger.info("info {}", intArg);
+	}
+
+	@Benchmark
+	public void infoLong() {
+		logger.info("info {}", longArg);
+	}
+
+	@Benchmark
+	public void infoDouble() {
+		logger.info("info {}", doubleArg);
+	}
+
+	@Benchmark
+	public void infoBoolean() {
+		logger.info("info {}", booleanArg);
+	}
+
+	@Benchmark
+	public void infoSupplierOne() {
+		logger.info("info {}", supplier1);
+	}
+
+	@Benchmark
+	public void infoSupplierTwo() {
+		logger.info("info {} {}", supplier1, supplier2);
+	}
+
+	@Benchmark
+	public void infoSupplierMany() {
+		logger.info("info {} {} {}", supplier1, supplier2, supplier3);
+	}
+
+	@Benchmark
+	public void debugFormatThreeDisabled() {
+		logger.debug("debug {} {} {}", arg1, arg2, arg3);
+	}
+
+	@Benchmark
+	public void debugFormatSixDisabled() {
+		logger.debug("debug {} {} {} {} {} {}", arg1, arg2, arg3, arg4, arg5, arg6);
+	}
+
+	@Benchmark
+	public void debugIntDisabled() {
+		logger.debug("debug {}", intArg);
+	}
+
+	@Benchmark
+	public void debugLongDisabled() {
+		logger.debug("debug {}", longArg);
+	}
+
+	@Benchmark
+	public void debugDoubleDisabled() {
+		logger.debug("debug {}", doubleArg);
+	}
+
+	@Benchmark
+	public void debugBooleanDisabled() {
+		logger.debug("debug {}", booleanArg);
+	}
+
+	@Benchmark
+	public void debugSupplierOneDisabled() {
+		logger.debug("debug {}", supplier1);
+	}
+
+	@Benchmark
+	public void debugSupplierTwoDisabled() {
+		logger.debug("debug {} {}", supplier1, supplier2);
+	}
+
+	@Benchmark
+	public void debugSupplierManyDisabled() {
+		logger.debug("debug {} {} {}", supplier1, supplier2, supplier3);
+	}
+
+	/**
+	 * 返回固定值的ArgumentSupplier,只测量调用本身的开销
+	 */
+	private static final class ConstantSupplier implements ArgumentSupplier {
+		private final Object value;
+
+		ConstantSupplier(Object value) {
+			this.value = value;
+		}
+
+		public Object get() {
+			return value;
+		}
+	}
+}
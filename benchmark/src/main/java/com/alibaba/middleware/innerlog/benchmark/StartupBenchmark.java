@@ -0,0 +1,80 @@
+package com.alibaba.middleware.innerlog.benchmark;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.alibaba.middleware.innerlog.Logger;
+import com.alibaba.middleware.innerlog.LoggerFactory;
+
+/**
+ * 冷启动的开销: 创建LoggerClassLoader并加载logback, 没有配置时的bindSl4j, 指定配置的doConfigure
+ *
+ * 每个fork的JVM中只测量一次,不预热,结果是新JVM中第一次绑定的时间;
+ * 同一个JVM中后续的绑定会复用已经读取的lib和class字节,可以用 -wi 5 -i 20 测量。
+ *
+ * 运行: java -jar target/benchmarks.jar StartupBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupBenchmark {
+
+	private static final String LOADER_CLASS = "com.alibaba.middleware.innerlog.LoggerClassLoader";
+	private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+	private String appKey;
+	private ClassLoader loggerClassLoader;
+
+	@Setup(Level.Invocation)
+	public void setup() {
+		appKey = "startup-benchmark-" + SEQUENCE.incrementAndGet();
+	}
+
+	@TearDown(Level.Invocation)
+	public void tearDown() throws Exception {
+		LoggerFactory.unbind(appKey);
+		if (null != loggerClassLoader) {
+			Method close = loggerClassLoader.getClass().getDeclaredMethod("close");
+			close.setAccessible(true);
+			close.invoke(loggerClassLoader);
+			loggerClassLoader = null;
+		}
+	}
+
+	@Benchmark
+	public Class<?> loggerClassLoader() throws Exception {
+		Constructor<?> constructor = Class.forName(LOADER_CLASS).getDeclaredConstructor(Integer.class);
+		constructor.setAccessible(true);
+		loggerClassLoader = (ClassLoader) constructor.newInstance(Integer.valueOf(20000 + SEQUENCE.get()));
+		return Class.forName("ch.qos.logback.classic.LoggerContext", true, loggerClassLoader);
+	}
+
+	@Benchmark
+	public Logger bindSl4j() {
+		return LoggerFactory.getLogger(StartupBenchmark.class, appKey);
+	}
+
+	@Benchmark
+	public Logger doConfigure() {
+		LoggerFactory.doConfigure(BenchmarkConfigures.nopConfigure(), appKey);
+		return LoggerFactory.getLogger(StartupBenchmark.class, appKey);
+	}
+}
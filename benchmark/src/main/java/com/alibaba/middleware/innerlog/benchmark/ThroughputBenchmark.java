@@ -0,0 +1,85 @@
+package com.alibaba.middleware.innerlog.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.alibaba.middleware.innerlog.LogConfigure;
+import com.alibaba.middleware.innerlog.Logger;
+import com.alibaba.middleware.innerlog.LoggerFactory;
+
+/**
+ * 从Logger到appender的端到端吞吐量
+ *
+ * appender: nop为logback的NOPAppender, file为logback的FileAppender, mappedFile为MappedFileAppender;
+ * mode: sync为同步输出, async为队列满时阻塞的异步输出,队列满了之后吞吐量受限于后台线程的输出速度。
+ *
+ * 运行: java -jar target/benchmarks.jar ThroughputBenchmark -t 4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThroughputBenchmark {
+
+	@Param({ "nop", "file", "mappedFile" })
+	public String appender;
+
+	@Param({ "sync", "async" })
+	public String mode;
+
+	private String appKey;
+	private File file;
+	private Logger logger;
+	private Object arg1 = "arg1";
+	private Object arg2 = Integer.valueOf(2);
+
+	@Setup
+	public void setup() throws IOException {
+		appKey = "throughput-benchmark-" + appender + "-" + mode;
+		LogConfigure logConfigure;
+		if ("nop".equals(appender)) {
+			logConfigure = BenchmarkConfigures.nopConfigure();
+		} else {
+			file = File.createTempFile("inner-logger-throughput", ".log");
+			if ("file".equals(appender)) {
+				logConfigure = BenchmarkConfigures.fileConfigure(file.getAbsolutePath());
+			} else {
+				logConfigure = BenchmarkConfigures.mappedFileConfigure(file.getAbsolutePath());
+			}
+		}
+		LoggerFactory.doConfigure(logConfigure, appKey);
+		if ("async".equals(mode)) {
+			LoggerFactory.setAsyncConfig(appKey, BenchmarkConfigures.blockingAsyncConfig());
+		}
+		logger = LoggerFactory.getLogger(ThroughputBenchmark.class, appKey);
+	}
+
+	@TearDown
+	public void tearDown() {
+		LoggerFactory.unbind(appKey);
+		if (null != file) {
+			file.delete();
+		}
+	}
+
+	@Benchmark
+	public void info() {
+		logger.info("throughput benchmark {} {}", arg1, arg2);
+	}
+}
@@ -0,0 +1,29 @@
+package com.alibaba.middleware.innerlog;
+
+/**
+ * 延迟计算的日志参数,用于序列化请求、大集合的toString等开销较大的参数:
+ *
+ * <pre>
+ * logger.debug("request: {}", new ArgumentSupplier() {
+ *     public Object get() {
+ *         return JSON.toJSONString(request);
+ *     }
+ * });
+ * </pre>
+ *
+ * 日志级别没有打开时不会调用get。同步输出时在记录日志的线程中计算,get抛出的异常直接抛给调用方,
+ * 和直接计算参数一致;异步输出时在后台线程中计算(队列已满写入磁盘溢出队列,或者异步输出已经停止时
+ * 在记录日志的线程中计算),get抛出异常时参数输出为[FAILED ArgumentSupplier.get()]。
+ *
+ * 注: 异步输出时get在记录日志之后才被调用,读取的对象需要在此期间保持不变。
+ * 该接口和LoggerBridge一样由LoggerClassLoader委派给业务的classLoader加载。
+ *
+ * version 1.0
+ */
+public interface ArgumentSupplier {
+
+	/**
+	 * @return 日志参数,按照String.valueOf输出
+	 */
+	Object get();
+}
@@ -8,6 +8,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 
+import com.alibaba.middleware.innerlog.async.AsyncConfig;
+
 
 /**
  * 日志系统configure基础类，由具体实现类根据日志系统类型
@@ -28,6 +30,15 @@ public abstract class LogConfigure {
 	 */
 	public abstract InputStream configure();
 
+	/**
+	 * 返回异步输出的配置,configure时开启异步输出,默认返回null在记录日志的线程中同步输出。
+	 *
+	 * @return AsyncConfig 异步输出的配置
+	 */
+	public AsyncConfig getAsyncConfig() {
+		return null;
+	}
+
 	public static InputStream getResourceFromClasPath(String resourceName) {
 		return Thread.currentThread().getContextClassLoader().getResourceAsStream(resourceName);
 	}
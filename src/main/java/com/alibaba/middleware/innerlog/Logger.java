@@ -1,9 +1,7 @@
 package com.alibaba.middleware.innerlog;
 
-import java.util.Arrays;
-
-import com.alibaba.middleware.innerlog.cache.LoggerMethodCache;
-import com.alibaba.middleware.innerlog.cache.LoggerMethodEnum;
+import com.alibaba.middleware.innerlog.bridge.EventDispatcher;
+import com.alibaba.middleware.innerlog.bridge.LoggerBridge;
 import com.alibaba.middleware.innerlog.util.ClassUtils;
 import com.alibaba.middleware.innerlog.util.MethodUtils;
 
@@ -15,8 +13,13 @@ import com.alibaba.middleware.innerlog.util.MethodUtils;
  *
  *  注: 内置的innerLogger 其实就是SL4J的Logger
  *  由于使用者系统的可能没有SL4J的依赖需要通过内置的classLoader加载,
- *  直接显示暴露org.slf4j.Logger 类可能会找不到类,所以该类通过反射方
- *  法进行调用.
+ *  直接显示暴露org.slf4j.Logger 类可能会找不到类,所以该类通过LoggerBridge
+ *  进行调用,LoggerBridge的实现类由LoggerClassLoader在绑定时生成,默认是直
+ *  接调用,兜底使用反射调用.
+ *
+ *  除了SL4J的方法之外还提供3到6个参数和基本类型参数的方法,日志级别没有打开时
+ *  不创建参数数组也不装箱,异步输出时记录日志的线程同样不需要分配.
+ *  开销较大的参数可以通过ArgumentSupplier延迟到日志级别打开后(异步输出时在后台线程中)计算.
  *
  * @author: <a href="mailto:qihao@taobao.com">qihao</a>
  *
@@ -26,10 +29,13 @@ import com.alibaba.middleware.innerlog.util.MethodUtils;
  */
 
 public class Logger {
-	/**
-	 * 加速反射调用的cache
-	 */
-	private final static LoggerMethodCache methodCache = new LoggerMethodCache();
+	private final static int OFF_LEVEL = LogLevel.OFF.ordinal();
+	private final static int ERROR_LEVEL = LogLevel.ERROR.ordinal();
+	private final static int WARN_LEVEL = LogLevel.WARN.ordinal();
+	private final static int INFO_LEVEL = LogLevel.INFO.ordinal();
+	private final static int DEBUG_LEVEL = LogLevel.DEBUG.ordinal();
+	private final static int TRACE_LEVEL = LogLevel.TRACE.ordinal();
+	private final static int ALL_LEVEL = LogLevel.ALL.ordinal();
 	/**
 	 * 加载这个Logger对象对应的classLoader
 	 */
@@ -38,134 +44,716 @@ public class Logger {
 	 * 真实的sl4j的Logger对象
 	 */
 	private final Object innerlogback;
+	/**
+	 * 调用innerlogback的桥接对象
+	 */
+	private volatile LoggerBridge bridge;
+
+	/**
+	 * 缓存的日志级别,版本号和loggerClassLoader的不一致时重新获取
+	 */
+	private LevelCache levelCache = LevelCache.EXPIRED;
 
 	public Logger(Object innerlogback, LoggerClassLoader loggerClassLoader) {
 		this.loggerClassLoader = loggerClassLoader;
 		this.innerlogback = innerlogback;
+		this.bridge = loggerClassLoader.newLoggerBridge(innerlogback);
+	}
+
+	/*
+	 * 开启或者关闭异步输出后重新创建桥接对象
+	 */
+	protected void refreshBridge() {
+		this.bridge = loggerClassLoader.newLoggerBridge(innerlogback);
 	}
 
 	public String getName() {
-		return (String) this.invokeMethod(LoggerMethodEnum.GET_NAME);
+		return bridge.getName();
 	}
 
 	public boolean isTraceEnabled() {
-		return (Boolean) this.invokeMethod(LoggerMethodEnum.IS_TRACE_ENABLED);
+		LevelCache cache = getLevelCache();
+		return cache.exact ? TRACE_LEVEL <= cache.level : bridge.isTraceEnabled();
 	}
 
 	public void trace(String msg) {
-		this.invokeMethod(LoggerMethodEnum.TRACE, msg);
+		if (isLevelEnabled(TRACE_LEVEL)) {
+			bridge.trace(msg);
+		}
 	}
 
 	public void trace(String format, Object arg) {
-		this.invokeMethod(LoggerMethodEnum.TRACE_FORMAT_ONE, format, arg);
+		if (isLevelEnabled(TRACE_LEVEL)) {
+			bridge.trace(format, arg);
+		}
 	}
 
 	public void trace(String format, Object arg1, Object arg2) {
-		this.invokeMethod(LoggerMethodEnum.TRACE_FORMAT_TWO, format, arg1, arg2);
+		if (isLevelEnabled(TRACE_LEVEL)) {
+			bridge.trace(format, arg1, arg2);
+		}
 	}
 
 	public void trace(String format, Object... arguments) {
-		this.invokeMethod(LoggerMethodEnum.TRACE_FORMAT_MANY, format, arguments);
+		if (isLevelEnabled(TRACE_LEVEL)) {
+			bridge.trace(format, arguments);
+		}
 	}
 
 	public void trace(String msg, Throwable t) {
-		this.invokeMethod(LoggerMethodEnum.TRACE_THROWABLE, msg, t);
+		if (isLevelEnabled(TRACE_LEVEL)) {
+			bridge.trace(msg, t);
+		}
+	}
+
+	public void trace(String format, Object arg1, Object arg2, Object arg3) {
+		if (isLevelEnabled(TRACE_LEVEL)) {
+			bridge.log(EventDispatcher.TRACE_INT, format, 3, arg1, arg2, arg3, null, null, null);
+		}
+	}
+
+	public void trace(String format, Object arg1, Object arg2, Object arg3, Object arg4) {
+		if (isLevelEnabled(TRACE_LEVEL)) {
+			bridge.log(EventDispatcher.TRACE_INT, format, 4, arg1, arg2, arg3, arg4, null, null);
+		}
+	}
+
+	public void trace(String format, Object arg1, Object arg2, Object arg3, Object arg4, Object arg5) {
+		if (isLevelEnabled(TRACE_LEVEL)) {
+			bridge.log(EventDispatcher.TRACE_INT, format, 5, arg1, arg2, arg3, arg4, arg5, null);
+		}
+	}
+
+	public void trace(String format, Object arg1, Object arg2, Object arg3, Object arg4, Object arg5, Object arg6) {
+		if (isLevelEnabled(TRACE_LEVEL)) {
+			bridge.log(EventDispatcher.TRACE_INT, format, 6, arg1, arg2, arg3, arg4, arg5, arg6);
+		}
+	}
+
+	public void trace(String format, int arg) {
+		if (isLevelEnabled(TRACE_LEVEL)) {
+			bridge.log(EventDispatcher.TRACE_INT, format, arg);
+		}
+	}
+
+	public void trace(String format, long arg) {
+		if (isLevelEnabled(TRACE_LEVEL)) {
+			bridge.log(EventDispatcher.TRACE_INT, format, arg);
+		}
+	}
+
+	public void trace(String format, float arg) {
+		if (isLevelEnabled(TRACE_LEVEL)) {
+			bridge.log(EventDispatcher.TRACE_INT, format, arg);
+		}
+	}
+
+	public void trace(String format, double arg) {
+		if (isLevelEnabled(TRACE_LEVEL)) {
+			bridge.log(EventDispatcher.TRACE_INT, format, arg);
+		}
+	}
+
+	public void trace(String format, boolean arg) {
+		if (isLevelEnabled(TRACE_LEVEL)) {
+			bridge.log(EventDispatcher.TRACE_INT, format, arg);
+		}
+	}
+
+	public void trace(String format, char arg) {
+		if (isLevelEnabled(TRACE_LEVEL)) {
+			bridge.log(EventDispatcher.TRACE_INT, format, arg);
+		}
+	}
+
+	public void trace(String format, ArgumentSupplier supplier) {
+		if (isLevelEnabled(TRACE_LEVEL)) {
+			bridge.log(EventDispatcher.TRACE_INT, format, supplier);
+		}
+	}
+
+	public void trace(String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2) {
+		if (isLevelEnabled(TRACE_LEVEL)) {
+			bridge.log(EventDispatcher.TRACE_INT, format, supplier1, supplier2);
+		}
+	}
+
+	public void trace(String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2, ArgumentSupplier supplier3) {
+		if (isLevelEnabled(TRACE_LEVEL)) {
+			bridge.log(EventDispatcher.TRACE_INT, format, new ArgumentSupplier[] { supplier1, supplier2, supplier3 });
+		}
+	}
+
+	public void trace(String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2, ArgumentSupplier supplier3, ArgumentSupplier supplier4) {
+		if (isLevelEnabled(TRACE_LEVEL)) {
+			bridge.log(EventDispatcher.TRACE_INT, format, new ArgumentSupplier[] { supplier1, supplier2, supplier3, supplier4 });
+		}
+	}
+
+	public void trace(String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2, ArgumentSupplier supplier3, ArgumentSupplier supplier4, ArgumentSupplier supplier5) {
+		if (isLevelEnabled(TRACE_LEVEL)) {
+			bridge.log(EventDispatcher.TRACE_INT, format, new ArgumentSupplier[] { supplier1, supplier2, supplier3, supplier4, supplier5 });
+		}
+	}
+
+	public void trace(String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2, ArgumentSupplier supplier3, ArgumentSupplier supplier4, ArgumentSupplier supplier5, ArgumentSupplier supplier6) {
+		if (isLevelEnabled(TRACE_LEVEL)) {
+			bridge.log(EventDispatcher.TRACE_INT, format, new ArgumentSupplier[] { supplier1, supplier2, supplier3, supplier4, supplier5, supplier6 });
+		}
+	}
+
+	public void trace(String format, ArgumentSupplier... suppliers) {
+		if (isLevelEnabled(TRACE_LEVEL)) {
+			bridge.log(EventDispatcher.TRACE_INT, format, suppliers);
+		}
 	}
 
 	public boolean isDebugEnabled() {
-		return (Boolean) this.invokeMethod(LoggerMethodEnum.IS_DEBUG_ENABLED);
+		LevelCache cache = getLevelCache();
+		return cache.exact ? DEBUG_LEVEL <= cache.level : bridge.isDebugEnabled();
 	}
 
 	public void debug(String msg) {
-		this.invokeMethod(LoggerMethodEnum.DEBUG, msg);
+		if (isLevelEnabled(DEBUG_LEVEL)) {
+			bridge.debug(msg);
+		}
 	}
 
 	public void debug(String format, Object arg) {
-		this.invokeMethod(LoggerMethodEnum.DEBUG_FORMAT_ONE, format, arg);
+		if (isLevelEnabled(DEBUG_LEVEL)) {
+			bridge.debug(format, arg);
+		}
 	}
 
 	public void debug(String format, Object arg1, Object arg2) {
-		this.invokeMethod(LoggerMethodEnum.DEBUG_FORMAT_TWO, format, arg1, arg2);
+		if (isLevelEnabled(DEBUG_LEVEL)) {
+			bridge.debug(format, arg1, arg2);
+		}
 	}
 
 	public void debug(String format, Object... arguments) {
-		this.invokeMethod(LoggerMethodEnum.DEBUG_FORMAT_MANY, format, arguments);
+		if (isLevelEnabled(DEBUG_LEVEL)) {
+			bridge.debug(format, arguments);
+		}
 	}
 
 	public void debug(String msg, Throwable t) {
-		this.invokeMethod(LoggerMethodEnum.DEBUG_THROWABLE, msg, t);
+		if (isLevelEnabled(DEBUG_LEVEL)) {
+			bridge.debug(msg, t);
+		}
+	}
+
+	public void debug(String format, Object arg1, Object arg2, Object arg3) {
+		if (isLevelEnabled(DEBUG_LEVEL)) {
+			bridge.log(EventDispatcher.DEBUG_INT, format, 3, arg1, arg2, arg3, null, null, null);
+		}
+	}
+
+	public void debug(String format, Object arg1, Object arg2, Object arg3, Object arg4) {
+		if (isLevelEnabled(DEBUG_LEVEL)) {
+			bridge.log(EventDispatcher.DEBUG_INT, format, 4, arg1, arg2, arg3, arg4, null, null);
+		}
+	}
+
+	public void debug(String format, Object arg1, Object arg2, Object arg3, Object arg4, Object arg5) {
+		if (isLevelEnabled(DEBUG_LEVEL)) {
+			bridge.log(EventDispatcher.DEBUG_INT, format, 5, arg1, arg2, arg3, arg4, arg5, null);
+		}
+	}
+
+	public void debug(String format, Object arg1, Object arg2, Object arg3, Object arg4, Object arg5, Object arg6) {
+		if (isLevelEnabled(DEBUG_LEVEL)) {
+			bridge.log(EventDispatcher.DEBUG_INT, format, 6, arg1, arg2, arg3, arg4, arg5, arg6);
+		}
+	}
+
+	public void debug(String format, int arg) {
+		if (isLevelEnabled(DEBUG_LEVEL)) {
+			bridge.log(EventDispatcher.DEBUG_INT, format, arg);
+		}
+	}
+
+	public void debug(String format, long arg) {
+		if (isLevelEnabled(DEBUG_LEVEL)) {
+			bridge.log(EventDispatcher.DEBUG_INT, format, arg);
+		}
+	}
+
+	public void debug(String format, float arg) {
+		if (isLevelEnabled(DEBUG_LEVEL)) {
+			bridge.log(EventDispatcher.DEBUG_INT, format, arg);
+		}
+	}
+
+	public void debug(String format, double arg) {
+		if (isLevelEnabled(DEBUG_LEVEL)) {
+			bridge.log(EventDispatcher.DEBUG_INT, format, arg);
+		}
+	}
+
+	public void debug(String format, boolean arg) {
+		if (isLevelEnabled(DEBUG_LEVEL)) {
+			bridge.log(EventDispatcher.DEBUG_INT, format, arg);
+		}
+	}
+
+	public void debug(String format, char arg) {
+		if (isLevelEnabled(DEBUG_LEVEL)) {
+			bridge.log(EventDispatcher.DEBUG_INT, format, arg);
+		}
+	}
+
+	public void debug(String format, ArgumentSupplier supplier) {
+		if (isLevelEnabled(DEBUG_LEVEL)) {
+			bridge.log(EventDispatcher.DEBUG_INT, format, supplier);
+		}
+	}
+
+	public void debug(String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2) {
+		if (isLevelEnabled(DEBUG_LEVEL)) {
+			bridge.log(EventDispatcher.DEBUG_INT, format, supplier1, supplier2);
+		}
+	}
+
+	public void debug(String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2, ArgumentSupplier supplier3) {
+		if (isLevelEnabled(DEBUG_LEVEL)) {
+			bridge.log(EventDispatcher.DEBUG_INT, format, new ArgumentSupplier[] { supplier1, supplier2, supplier3 });
+		}
+	}
+
+	public void debug(String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2, ArgumentSupplier supplier3, ArgumentSupplier supplier4) {
+		if (isLevelEnabled(DEBUG_LEVEL)) {
+			bridge.log(EventDispatcher.DEBUG_INT, format, new ArgumentSupplier[] { supplier1, supplier2, supplier3, supplier4 });
+		}
+	}
+
+	public void debug(String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2, ArgumentSupplier supplier3, ArgumentSupplier supplier4, ArgumentSupplier supplier5) {
+		if (isLevelEnabled(DEBUG_LEVEL)) {
+			bridge.log(EventDispatcher.DEBUG_INT, format, new ArgumentSupplier[] { supplier1, supplier2, supplier3, supplier4, supplier5 });
+		}
+	}
+
+	public void debug(String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2, ArgumentSupplier supplier3, ArgumentSupplier supplier4, ArgumentSupplier supplier5, ArgumentSupplier supplier6) {
+		if (isLevelEnabled(DEBUG_LEVEL)) {
+			bridge.log(EventDispatcher.DEBUG_INT, format, new ArgumentSupplier[] { supplier1, supplier2, supplier3, supplier4, supplier5, supplier6 });
+		}
+	}
+
+	public void debug(String format, ArgumentSupplier... suppliers) {
+		if (isLevelEnabled(DEBUG_LEVEL)) {
+			bridge.log(EventDispatcher.DEBUG_INT, format, suppliers);
+		}
 	}
 
 	public boolean isInfoEnabled() {
-		return (Boolean) this.invokeMethod(LoggerMethodEnum.IS_INFO_ENABLED);
+		LevelCache cache = getLevelCache();
+		return cache.exact ? INFO_LEVEL <= cache.level : bridge.isInfoEnabled();
 	}
 
 	public void info(String msg) {
-		this.invokeMethod(LoggerMethodEnum.INFO, msg);
+		if (isLevelEnabled(INFO_LEVEL)) {
+			bridge.info(msg);
+		}
 	}
 
 	public void info(String format, Object arg) {
-		this.invokeMethod(LoggerMethodEnum.INFO_FORMAT_ONE, format, arg);
+		if (isLevelEnabled(INFO_LEVEL)) {
+			bridge.info(format, arg);
+		}
 	}
 
 	public void info(String format, Object arg1, Object arg2) {
-		this.invokeMethod(LoggerMethodEnum.INFO_FORMAT_TWO, format, arg1, arg2);
+		if (isLevelEnabled(INFO_LEVEL)) {
+			bridge.info(format, arg1, arg2);
+		}
 	}
 
 	public void info(String format, Object... arguments) {
-		this.invokeMethod(LoggerMethodEnum.INFO_FORMAT_MANY, format, arguments);
+		if (isLevelEnabled(INFO_LEVEL)) {
+			bridge.info(format, arguments);
+		}
 	}
 
 	public void info(String msg, Throwable t) {
-		this.invokeMethod(LoggerMethodEnum.INFO_THROWABLE, msg, t);
+		if (isLevelEnabled(INFO_LEVEL)) {
+			bridge.info(msg, t);
+		}
+	}
+
+	public void info(String format, Object arg1, Object arg2, Object arg3) {
+		if (isLevelEnabled(INFO_LEVEL)) {
+			bridge.log(EventDispatcher.INFO_INT, format, 3, arg1, arg2, arg3, null, null, null);
+		}
+	}
+
+	public void info(String format, Object arg1, Object arg2, Object arg3, Object arg4) {
+		if (isLevelEnabled(INFO_LEVEL)) {
+			bridge.log(EventDispatcher.INFO_INT, format, 4, arg1, arg2, arg3, arg4, null, null);
+		}
+	}
+
+	public void info(String format, Object arg1, Object arg2, Object arg3, Object arg4, Object arg5) {
+		if (isLevelEnabled(INFO_LEVEL)) {
+			bridge.log(EventDispatcher.INFO_INT, format, 5, arg1, arg2, arg3, arg4, arg5, null);
+		}
+	}
+
+	public void info(String format, Object arg1, Object arg2, Object arg3, Object arg4, Object arg5, Object arg6) {
+		if (isLevelEnabled(INFO_LEVEL)) {
+			bridge.log(EventDispatcher.INFO_INT, format, 6, arg1, arg2, arg3, arg4, arg5, arg6);
+		}
+	}
+
+	public void info(String format, int arg) {
+		if (isLevelEnabled(INFO_LEVEL)) {
+			bridge.log(EventDispatcher.INFO_INT, format, arg);
+		}
+	}
+
+	public void info(String format, long arg) {
+		if (isLevelEnabled(INFO_LEVEL)) {
+			bridge.log(EventDispatcher.INFO_INT, format, arg);
+		}
+	}
+
+	public void info(String format, float arg) {
+		if (isLevelEnabled(INFO_LEVEL)) {
+			bridge.log(EventDispatcher.INFO_INT, format, arg);
+		}
+	}
+
+	public void info(String format, double arg) {
+		if (isLevelEnabled(INFO_LEVEL)) {
+			bridge.log(EventDispatcher.INFO_INT, format, arg);
+		}
+	}
+
+	public void info(String format, boolean arg) {
+		if (isLevelEnabled(INFO_LEVEL)) {
+			bridge.log(EventDispatcher.INFO_INT, format, arg);
+		}
+	}
+
+	public void info(String format, char arg) {
+		if (isLevelEnabled(INFO_LEVEL)) {
+			bridge.log(EventDispatcher.INFO_INT, format, arg);
+		}
+	}
+
+	public void info(String format, ArgumentSupplier supplier) {
+		if (isLevelEnabled(INFO_LEVEL)) {
+			bridge.log(EventDispatcher.INFO_INT, format, supplier);
+		}
+	}
+
+	public void info(String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2) {
+		if (isLevelEnabled(INFO_LEVEL)) {
+			bridge.log(EventDispatcher.INFO_INT, format, supplier1, supplier2);
+		}
+	}
+
+	public void info(String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2, ArgumentSupplier supplier3) {
+		if (isLevelEnabled(INFO_LEVEL)) {
+			bridge.log(EventDispatcher.INFO_INT, format, new ArgumentSupplier[] { supplier1, supplier2, supplier3 });
+		}
+	}
+
+	public void info(String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2, ArgumentSupplier supplier3, ArgumentSupplier supplier4) {
+		if (isLevelEnabled(INFO_LEVEL)) {
+			bridge.log(EventDispatcher.INFO_INT, format, new ArgumentSupplier[] { supplier1, supplier2, supplier3, supplier4 });
+		}
+	}
+
+	public void info(String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2, ArgumentSupplier supplier3, ArgumentSupplier supplier4, ArgumentSupplier supplier5) {
+		if (isLevelEnabled(INFO_LEVEL)) {
+			bridge.log(EventDispatcher.INFO_INT, format, new ArgumentSupplier[] { supplier1, supplier2, supplier3, supplier4, supplier5 });
+		}
+	}
+
+	public void info(String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2, ArgumentSupplier supplier3, ArgumentSupplier supplier4, ArgumentSupplier supplier5, ArgumentSupplier supplier6) {
+		if (isLevelEnabled(INFO_LEVEL)) {
+			bridge.log(EventDispatcher.INFO_INT, format, new ArgumentSupplier[] { supplier1, supplier2, supplier3, supplier4, supplier5, supplier6 });
+		}
+	}
+
+	public void info(String format, ArgumentSupplier... suppliers) {
+		if (isLevelEnabled(INFO_LEVEL)) {
+			bridge.log(EventDispatcher.INFO_INT, format, suppliers);
+		}
 	}
 
 	public boolean isWarnEnabled() {
-		return (Boolean) this.invokeMethod(LoggerMethodEnum.IS_WARN_ENABLED);
+		LevelCache cache = getLevelCache();
+		return cache.exact ? WARN_LEVEL <= cache.level : bridge.isWarnEnabled();
 	}
 
 	public void warn(String msg) {
-		this.invokeMethod(LoggerMethodEnum.WARN, msg);
+		if (isLevelEnabled(WARN_LEVEL)) {
+			bridge.warn(msg);
+		}
 	}
 
 	public void warn(String format, Object arg) {
-		this.invokeMethod(LoggerMethodEnum.WARN_FORMAT_ONE, format, arg);
+		if (isLevelEnabled(WARN_LEVEL)) {
+			bridge.warn(format, arg);
+		}
 	}
 
 	public void warn(String format, Object arg1, Object arg2) {
-		this.invokeMethod(LoggerMethodEnum.WARN_FORMAT_TWO, format, arg1, arg2);
+		if (isLevelEnabled(WARN_LEVEL)) {
+			bridge.warn(format, arg1, arg2);
+		}
 	}
 
 	public void warn(String format, Object... arguments) {
-		this.invokeMethod(LoggerMethodEnum.WARN_FORMAT_MANY, format, arguments);
+		if (isLevelEnabled(WARN_LEVEL)) {
+			bridge.warn(format, arguments);
+		}
 	}
 
 	public void warn(String msg, Throwable t) {
-		this.invokeMethod(LoggerMethodEnum.WARN_THROWABLE, msg, t);
+		if (isLevelEnabled(WARN_LEVEL)) {
+			bridge.warn(msg, t);
+		}
+	}
+
+	public void warn(String format, Object arg1, Object arg2, Object arg3) {
+		if (isLevelEnabled(WARN_LEVEL)) {
+			bridge.log(EventDispatcher.WARN_INT, format, 3, arg1, arg2, arg3, null, null, null);
+		}
+	}
+
+	public void warn(String format, Object arg1, Object arg2, Object arg3, Object arg4) {
+		if (isLevelEnabled(WARN_LEVEL)) {
+			bridge.log(EventDispatcher.WARN_INT, format, 4, arg1, arg2, arg3, arg4, null, null);
+		}
+	}
+
+	public void warn(String format, Object arg1, Object arg2, Object arg3, Object arg4, Object arg5) {
+		if (isLevelEnabled(WARN_LEVEL)) {
+			bridge.log(EventDispatcher.WARN_INT, format, 5, arg1, arg2, arg3, arg4, arg5, null);
+		}
+	}
+
+	public void warn(String format, Object arg1, Object arg2, Object arg3, Object arg4, Object arg5, Object arg6) {
+		if (isLevelEnabled(WARN_LEVEL)) {
+			bridge.log(EventDispatcher.WARN_INT, format, 6, arg1, arg2, arg3, arg4, arg5, arg6);
+		}
+	}
+
+	public void warn(String format, int arg) {
+		if (isLevelEnabled(WARN_LEVEL)) {
+			bridge.log(EventDispatcher.WARN_INT, format, arg);
+		}
+	}
+
+	public void warn(String format, long arg) {
+		if (isLevelEnabled(WARN_LEVEL)) {
+			bridge.log(EventDispatcher.WARN_INT, format, arg);
+		}
+	}
+
+	public void warn(String format, float arg) {
+		if (isLevelEnabled(WARN_LEVEL)) {
+			bridge.log(EventDispatcher.WARN_INT, format, arg);
+		}
+	}
+
+	public void warn(String format, double arg) {
+		if (isLevelEnabled(WARN_LEVEL)) {
+			bridge.log(EventDispatcher.WARN_INT, format, arg);
+		}
+	}
+
+	public void warn(String format, boolean arg) {
+		if (isLevelEnabled(WARN_LEVEL)) {
+			bridge.log(EventDispatcher.WARN_INT, format, arg);
+		}
+	}
+
+	public void warn(String format, char arg) {
+		if (isLevelEnabled(WARN_LEVEL)) {
+			bridge.log(EventDispatcher.WARN_INT, format, arg);
+		}
+	}
+
+	public void warn(String format, ArgumentSupplier supplier) {
+		if (isLevelEnabled(WARN_LEVEL)) {
+			bridge.log(EventDispatcher.WARN_INT, format, supplier);
+		}
+	}
+
+	public void warn(String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2) {
+		if (isLevelEnabled(WARN_LEVEL)) {
+			bridge.log(EventDispatcher.WARN_INT, format, supplier1, supplier2);
+		}
+	}
+
+	public void warn(String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2, ArgumentSupplier supplier3) {
+		if (isLevelEnabled(WARN_LEVEL)) {
+			bridge.log(EventDispatcher.WARN_INT, format, new ArgumentSupplier[] { supplier1, supplier2, supplier3 });
+		}
+	}
+
+	public void warn(String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2, ArgumentSupplier supplier3, ArgumentSupplier supplier4) {
+		if (isLevelEnabled(WARN_LEVEL)) {
+			bridge.log(EventDispatcher.WARN_INT, format, new ArgumentSupplier[] { supplier1, supplier2, supplier3, supplier4 });
+		}
+	}
+
+	public void warn(String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2, ArgumentSupplier supplier3, ArgumentSupplier supplier4, ArgumentSupplier supplier5) {
+		if (isLevelEnabled(WARN_LEVEL)) {
+			bridge.log(EventDispatcher.WARN_INT, format, new ArgumentSupplier[] { supplier1, supplier2, supplier3, supplier4, supplier5 });
+		}
+	}
+
+	public void warn(String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2, ArgumentSupplier supplier3, ArgumentSupplier supplier4, ArgumentSupplier supplier5, ArgumentSupplier supplier6) {
+		if (isLevelEnabled(WARN_LEVEL)) {
+			bridge.log(EventDispatcher.WARN_INT, format, new ArgumentSupplier[] { supplier1, supplier2, supplier3, supplier4, supplier5, supplier6 });
+		}
+	}
+
+	public void warn(String format, ArgumentSupplier... suppliers) {
+		if (isLevelEnabled(WARN_LEVEL)) {
+			bridge.log(EventDispatcher.WARN_INT, format, suppliers);
+		}
 	}
 
 	public boolean isErrorEnabled() {
-		return (Boolean) this.invokeMethod(LoggerMethodEnum.IS_ERROR_ENABLED);
+		LevelCache cache = getLevelCache();
+		return cache.exact ? ERROR_LEVEL <= cache.level : bridge.isErrorEnabled();
 	}
 
 	public void error(String msg) {
-		this.invokeMethod(LoggerMethodEnum.ERROR, msg);
+		if (isLevelEnabled(ERROR_LEVEL)) {
+			bridge.error(msg);
+		}
 	}
 
 	public void error(String format, Object arg) {
-		this.invokeMethod(LoggerMethodEnum.ERROR_FORMAT_ONE, format, arg);
+		if (isLevelEnabled(ERROR_LEVEL)) {
+			bridge.error(format, arg);
+		}
 	}
 
 	public void error(String format, Object arg1, Object arg2) {
-		this.invokeMethod(LoggerMethodEnum.ERROR_FORMAT_TWO, format, arg1, arg2);
+		if (isLevelEnabled(ERROR_LEVEL)) {
+			bridge.error(format, arg1, arg2);
+		}
 	}
 
 	public void error(String format, Object... arguments) {
-		this.invokeMethod(LoggerMethodEnum.ERROR_FORMAT_MANY, format, arguments);
+		if (isLevelEnabled(ERROR_LEVEL)) {
+			bridge.error(format, arguments);
+		}
 	}
 
 	public void error(String msg, Throwable t) {
-		this.invokeMethod(LoggerMethodEnum.ERROR_THROWABLE, msg, t);
+		if (isLevelEnabled(ERROR_LEVEL)) {
+			bridge.error(msg, t);
+		}
+	}
+
+	public void error(String format, Object arg1, Object arg2, Object arg3) {
+		if (isLevelEnabled(ERROR_LEVEL)) {
+			bridge.log(EventDispatcher.ERROR_INT, format, 3, arg1, arg2, arg3, null, null, null);
+		}
+	}
+
+	public void error(String format, Object arg1, Object arg2, Object arg3, Object arg4) {
+		if (isLevelEnabled(ERROR_LEVEL)) {
+			bridge.log(EventDispatcher.ERROR_INT, format, 4, arg1, arg2, arg3, arg4, null, null);
+		}
+	}
+
+	public void error(String format, Object arg1, Object arg2, Object arg3, Object arg4, Object arg5) {
+		if (isLevelEnabled(ERROR_LEVEL)) {
+			bridge.log(EventDispatcher.ERROR_INT, format, 5, arg1, arg2, arg3, arg4, arg5, null);
+		}
+	}
+
+	public void error(String format, Object arg1, Object arg2, Object arg3, Object arg4, Object arg5, Object arg6) {
+		if (isLevelEnabled(ERROR_LEVEL)) {
+			bridge.log(EventDispatcher.ERROR_INT, format, 6, arg1, arg2, arg3, arg4, arg5, arg6);
+		}
+	}
+
+	public void error(String format, int arg) {
+		if (isLevelEnabled(ERROR_LEVEL)) {
+			bridge.log(EventDispatcher.ERROR_INT, format, arg);
+		}
+	}
+
+	public void error(String format, long arg) {
+		if (isLevelEnabled(ERROR_LEVEL)) {
+			bridge.log(EventDispatcher.ERROR_INT, format, arg);
+		}
+	}
+
+	public void error(String format, float arg) {
+		if (isLevelEnabled(ERROR_LEVEL)) {
+			bridge.log(EventDispatcher.ERROR_INT, format, arg);
+		}
+	}
+
+	public void error(String format, double arg) {
+		if (isLevelEnabled(ERROR_LEVEL)) {
+			bridge.log(EventDispatcher.ERROR_INT, format, arg);
+		}
+	}
+
+	public void error(String format, boolean arg) {
+		if (isLevelEnabled(ERROR_LEVEL)) {
+			bridge.log(EventDispatcher.ERROR_INT, format, arg);
+		}
+	}
+
+	public void error(String format, char arg) {
+		if (isLevelEnabled(ERROR_LEVEL)) {
+			bridge.log(EventDispatcher.ERROR_INT, format, arg);
+		}
+	}
+
+	public void error(String format, ArgumentSupplier supplier) {
+		if (isLevelEnabled(ERROR_LEVEL)) {
+			bridge.log(EventDispatcher.ERROR_INT, format, supplier);
+		}
+	}
+
+	public void error(String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2) {
+		if (isLevelEnabled(ERROR_LEVEL)) {
+			bridge.log(EventDispatcher.ERROR_INT, format, supplier1, supplier2);
+		}
+	}
+
+	public void error(String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2, ArgumentSupplier supplier3) {
+		if (isLevelEnabled(ERROR_LEVEL)) {
+			bridge.log(EventDispatcher.ERROR_INT, format, new ArgumentSupplier[] { supplier1, supplier2, supplier3 });
+		}
+	}
+
+	public void error(String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2, ArgumentSupplier supplier3, ArgumentSupplier supplier4) {
+		if (isLevelEnabled(ERROR_LEVEL)) {
+			bridge.log(EventDispatcher.ERROR_INT, format, new ArgumentSupplier[] { supplier1, supplier2, supplier3, supplier4 });
+		}
+	}
+
+	public void error(String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2, ArgumentSupplier supplier3, ArgumentSupplier supplier4, ArgumentSupplier supplier5) {
+		if (isLevelEnabled(ERROR_LEVEL)) {
+			bridge.log(EventDispatcher.ERROR_INT, format, new ArgumentSupplier[] { supplier1, supplier2, supplier3, supplier4, supplier5 });
+		}
+	}
+
+	public void error(String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2, ArgumentSupplier supplier3, ArgumentSupplier supplier4, ArgumentSupplier supplier5, ArgumentSupplier supplier6) {
+		if (isLevelEnabled(ERROR_LEVEL)) {
+			bridge.log(EventDispatcher.ERROR_INT, format, new ArgumentSupplier[] { supplier1, supplier2, supplier3, supplier4, supplier5, supplier6 });
+		}
+	}
+
+	public void error(String format, ArgumentSupplier... suppliers) {
+		if (isLevelEnabled(ERROR_LEVEL)) {
+			bridge.log(EventDispatcher.ERROR_INT, format, suppliers);
+		}
 	}
 
 	public void setLevel(LogLevel level) {
@@ -176,25 +764,72 @@ public class Logger {
 			MethodUtils.invokeMethod(innerlogback, "setLevel", logBackLevel);
 		} catch (Exception e) {
 			throw new RuntimeException("setLevel to inner logback Error! ", e);
+		} finally {
+			// 子Logger的有效级别也会变化,所以增加整个classLoader的版本号
+			loggerClassLoader.incLevelGeneration();
 		}
 	}
 
-	private Object invokeMethod(LoggerMethodEnum methodEnum, Object... arguments) {
-		Integer classLoaderId = this.loggerClassLoader.getId();
-		try {
-			if (!methodCache.containsKey(classLoaderId, methodEnum.getmKey())) {
-				methodCache.put(classLoaderId, methodEnum.getmKey(), this.innerlogback.getClass(),
-						methodEnum.getmName(),
-						methodEnum.getParmClassTypes());
-			}
-			return methodCache.invoke(classLoaderId, methodEnum.getmKey(), this.innerlogback, arguments);
-		} catch (Exception e) {
-			e.printStackTrace();
-			StringBuilder sb = new StringBuilder("invokeMethod Error! ");
-			sb.append(" class: ").append(this.innerlogback.getClass());
-			sb.append(" method: ").append(methodEnum.getmKey());
-			sb.append(" arguments: ").append(Arrays.toString(arguments));
-			throw new RuntimeException(sb.toString(), e);
+	/*
+	 * 日志级别没有打开时只需要读取一次版本号做比较,不会调用到内置的logback
+	 */
+	private boolean isLevelEnabled(int level) {
+		return level <= getLevelCache().level;
+	}
+
+	private LevelCache getLevelCache() {
+		LevelCache cache = this.levelCache;
+		if (cache.generation != loggerClassLoader.getLevelGeneration()) {
+			cache = refreshLevelCache();
+		}
+		return cache;
+	}
+
+	private LevelCache refreshLevelCache() {
+		// 先读取版本号再获取级别,期间级别变化会在下次调用时再次刷新
+		int generation = loggerClassLoader.getLevelGeneration();
+		LevelCache cache;
+		if (loggerClassLoader.hasTurboFilters()) {
+			// 配置了TurboFilter的时候交给logback判断
+			cache = new LevelCache(generation, ALL_LEVEL, false);
+		} else if (bridge.isTraceEnabled()) {
+			cache = new LevelCache(generation, TRACE_LEVEL, true);
+		} else if (bridge.isDebugEnabled()) {
+			cache = new LevelCache(generation, DEBUG_LEVEL, true);
+		} else if (bridge.isInfoEnabled()) {
+			cache = new LevelCache(generation, INFO_LEVEL, true);
+		} else if (bridge.isWarnEnabled()) {
+			cache = new LevelCache(generation, WARN_LEVEL, true);
+		} else if (bridge.isErrorEnabled()) {
+			cache = new LevelCache(generation, ERROR_LEVEL, true);
+		} else {
+			cache = new LevelCache(generation, OFF_LEVEL, true);
+		}
+		this.levelCache = cache;
+		return cache;
+	}
+
+	/**
+	 * 不可变的日志级别缓存,final字段保证多线程下读到的对象是完整的
+	 */
+	private static final class LevelCache {
+
+		static final LevelCache EXPIRED = new LevelCache(-1, ALL_LEVEL, false);
+
+		final int generation;
+		/**
+		 * 打开的最详细的日志级别,对应LogLevel的ordinal
+		 */
+		final int level;
+		/**
+		 * 为false时isXxxEnabled需要交给logback判断
+		 */
+		final boolean exact;
+
+		LevelCache(int generation, int level, boolean exact) {
+			this.generation = generation;
+			this.level = level;
+			this.exact = exact;
 		}
 	}
 }
\ No newline at end of file
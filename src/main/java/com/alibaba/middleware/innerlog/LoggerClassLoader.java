@@ -1,14 +1,44 @@
 package com.alibaba.middleware.innerlog;
 
+import com.alibaba.middleware.innerlog.async.AsyncConfig;
+import com.alibaba.middleware.innerlog.async.AsyncDispatcher;
+import com.alibaba.middleware.innerlog.async.AsyncLoggerBridge;
+import com.alibaba.middleware.innerlog.bridge.AbstractLoggerBridge;
+import com.alibaba.middleware.innerlog.bridge.EventDispatcher;
+import com.alibaba.middleware.innerlog.bridge.LoggerBridge;
+import com.alibaba.middleware.innerlog.bridge.ReflectLoggerBridge;
+import com.alibaba.middleware.innerlog.cache.ClassBytesCache;
+import com.alibaba.middleware.innerlog.cache.FormatTemplateCache;
+import com.alibaba.middleware.innerlog.cache.LoggerMethodCache;
+import com.alibaba.middleware.innerlog.lib.JarLibArchive;
+import com.alibaba.middleware.innerlog.lib.LibArchive;
+import com.alibaba.middleware.innerlog.lib.MappedLibArchive;
+import com.alibaba.middleware.innerlog.metrics.LatencyHistogram;
+import com.alibaba.middleware.innerlog.metrics.LatencyLoggerBridge;
+import com.alibaba.middleware.innerlog.metrics.LoggerMetrics;
+import com.alibaba.middleware.innerlog.metrics.MetricsLoggerBridge;
+import com.alibaba.middleware.innerlog.metrics.StartupTimeline;
+import com.alibaba.middleware.innerlog.metrics.StripedCounter;
+import com.alibaba.middleware.innerlog.util.ArrayUtils;
+import com.alibaba.middleware.innerlog.util.ClassUtils;
 import com.alibaba.middleware.innerlog.util.MethodUtils;
 import com.alibaba.middleware.innerlog.util.StringUtils;
 
 import java.io.*;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.net.JarURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
 import java.nio.channels.FileLock;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
@@ -34,6 +64,77 @@ public class LoggerClassLoader extends ClassLoader {
 	 */
 	private final static String SYSTEM_INNER_JAR = System.getProperty("innerLoggerJar");
 
+	/**
+	 * 默认通过mmap读取内置LogLib,外层jar中的LogLib以STORED方式存放时直接映射,不再导出到本地,
+	 * 可以通过-Dinnerlogger.mappedLib=false 关闭,使用JarFile读取
+	 */
+	private final static boolean MAPPED_LIB = !"false".equalsIgnoreCase(System.getProperty("innerlogger.mappedLib"));
+
+	/**
+	 * Logger调用内置sl4j的方式,默认在LoggerClassLoader中define桥接类直接调用,
+	 * 可以通过-Dinnerlogger.bridge=methodHandle 指定使用MethodHandle调用(需要1.7以上的JVM),
+	 * 通过-Dinnerlogger.bridge=reflect 指定使用反射调用
+	 */
+	private final static String BRIDGE_MODE_KEY = "innerlogger.bridge";
+	private final static String BRIDGE_MODE_METHOD_HANDLE = "methodHandle";
+	private final static String BRIDGE_MODE_REFLECT = "reflect";
+
+	/**
+	 * MethodHandle的桥接类按照1.7编译,只在JVM支持java.lang.invoke时按类名加载
+	 */
+	private final static String METHOD_HANDLE_BRIDGE_CLASS = "com.alibaba.middleware.innerlog.bridge.MethodHandleLoggerBridge";
+	private final static boolean METHOD_HANDLE_SUPPORTED = isMethodHandleSupported();
+
+	/**
+	 * 需要和业务classLoader共享的类,这些类委派给加载inner-logger的classLoader加载
+	 */
+	private final static String[] SHARED_CLASSES = new String[] { LoggerBridge.class.getName(),
+			AbstractLoggerBridge.class.getName(), EventDispatcher.class.getName(), ArgumentSupplier.class.getName(),
+			FormatTemplateCache.class.getName(), StripedCounter.class.getName(), StartupTimeline.class.getName() };
+
+	/**
+	 * inner-logger的jar中需要在LoggerClassLoader内部define的类,这些类直接引用了内置的sl4j
+	 */
+	private final static String ROOT_LOGGER_NAME = "ROOT";
+	private final static String SLF4J_BRIDGE_CLASS = "com.alibaba.middleware.innerlog.bridge.Slf4jLoggerBridge";
+	private final static String LEVEL_LISTENER_CLASS = "com.alibaba.middleware.innerlog.bridge.LevelChangeListener";
+	private final static String APPENDER_WARM_UP_CLASS = "com.alibaba.middleware.innerlog.bridge.AppenderWarmUp";
+	private final static String SLF4J_EVENT_DISPATCHER_CLASS = "com.alibaba.middleware.innerlog.bridge.Slf4jEventDispatcher";
+	private final static String REUSABLE_EVENT_CLASS = "com.alibaba.middleware.innerlog.bridge.ReusableLoggingEvent";
+	private final static String[] ISOLATED_HOST_CLASSES = new String[] { SLF4J_BRIDGE_CLASS, LEVEL_LISTENER_CLASS,
+			APPENDER_WARM_UP_CLASS, SLF4J_EVENT_DISPATCHER_CLASS, REUSABLE_EVENT_CLASS };
+	/**
+	 * inner-logger的jar中提供给内置logback配置使用的appender,包下的类(包括内部类)都在LoggerClassLoader内部define
+	 */
+	private final static String ISOLATED_HOST_PACKAGE = "com.alibaba.middleware.innerlog.appender.";
+
+	/**
+	 * 1.7以上的JVM注册为可并行加载的classLoader,不同的class按类名加锁,可以多线程同时加载,
+	 * 不支持或者通过-Dinnerlogger.parallelCapable=false 关闭时,由LoggerClassLoader自己按类名加锁
+	 */
+	private final static boolean PARALLEL_CAPABLE = !"false".equalsIgnoreCase(System
+			.getProperty("innerlogger.parallelCapable")) && registerParallelCapable();
+
+	/**
+	 * 每个appKey缓存的Logger包装对象的最大个数,超过后不再缓存,防止动态logger名称导致内存无限增长,
+	 * 可以通过-Dinnerlogger.loggerCacheSize=xxx 调整
+	 */
+	private final static int LOGGER_CACHE_SIZE = Integer.getInteger("innerlogger.loggerCacheSize", 10000);
+
+	/**
+	 * 所有LoggerClassLoader共享的LogLib字节码缓存
+	 */
+	private final static ClassBytesCache CLASS_BYTES_CACHE = new ClassBytesCache();
+
+	/**
+	 * bootstrap和LogLib中都不存在的资源,logback启动时会探测logback.xml等配置文件,
+	 * 这些资源在进程内不会变化,所有LoggerClassLoader共享,最多缓存MISSING_RESOURCES_SIZE个。
+	 * 只记录在成功打开的LogLib索引中确认不存在的资源,classLoader关闭或者LogLib打开失败时不记录
+	 */
+	private final static ConcurrentMap<String, Boolean> MISSING_RESOURCES = new ConcurrentHashMap<String, Boolean>();
+	private final static int MISSING_RESOURCES_SIZE = 1024;
+	private final static String LIB_RESOURCE_PROTOCOL = "innerlogger";
+
 	/**
 	 * 将JAR内的innerLib导出到文件系统需要的常量
 	 */
@@ -49,26 +150,305 @@ public class LoggerClassLoader extends ClassLoader {
 	 */
 	private Method logMethod;
 
+	/**
+	 * 桥接类的构造方法,都为null时使用反射方式调用
+	 */
+	private Constructor<?> directBridgeConstructor;
+	private Constructor<?> methodHandleBridgeConstructor;
+
+	/**
+	 * 绑定sl4j时解析好的Logger方法表,该classLoader下的所有Logger共享
+	 */
+	private LoggerMethodCache methodCache;
+
+	/**
+	 * 打开的内置LogLib,第一次读取class时打开,appKey解除绑定时关闭
+	 */
+	private volatile LibArchive libArchive;
+	private final Object libArchiveLock = new Object();
+	/**
+	 * 从导出到本地的OUT_LIB_PATH打开的LogLib,只有读取它出错时才删除导出的文件
+	 */
+	private volatile LibArchive exportedLibArchive;
+
 	/**
 	 * SL4绑定和configure用到的变量
 	 */
 	private Object innerFactory;
 	private Class<?> sl4jLogFactoryClass;
 	/**
-	 * classLoader的id,在缓存加速的时候作为key匹配Method的 cache
+	 * classLoader的id
 	 */
 	private Integer id;
 
 	// 标记该classLoader对应的log系统是否已经configure过
 	private boolean configure = false;
 
+	/**
+	 * 对该classLoader做configure和unbind时使用的锁,不同appKey之间互不影响
+	 */
+	private final Object configureLock = new Object();
+
+	/**
+	 * 按logger名称缓存的Logger包装对象,获取时无锁读取
+	 */
+	private final ConcurrentMap<String, Logger> wrapperLoggers = new ConcurrentHashMap<String, Logger>();
+
+	/**
+	 * 日志级别的版本号,setLevel,configure以及logback的reset都会增加版本号,
+	 * Logger发现版本号变化后重新获取缓存的日志级别
+	 */
+	private final AtomicInteger levelGeneration = new AtomicInteger(0);
+
+	/**
+	 * appKey解除绑定后标记为关闭,后台的预热任务发现关闭后不再加载class
+	 */
+	private volatile boolean closed = false;
+
+	/**
+	 * 异步输出时的分发器,为null时在记录日志的线程中同步输出
+	 */
+	private volatile AsyncDispatcher asyncDispatcher;
+
+	/**
+	 * 开启了LoggerMetrics时该appKey的运行指标,绑定时设置,否则为null
+	 */
+	private LoggerMetrics metrics;
+
+	/**
+	 * 开启了LatencyHistogram时该appKey的调用耗时分布,绑定时设置,否则为null
+	 */
+	private LatencyHistogram latencyHistogram;
+
+	/**
+	 * 绑定和configure过程中各阶段的耗时
+	 */
+	private final StartupTimeline startupTimeline = new StartupTimeline();
+
+	/**
+	 * 没有注册为可并行加载时,加载class使用的按类名区分的锁
+	 */
+	private final ConcurrentMap<String, Object> classLoadingLocks = PARALLEL_CAPABLE ? null
+			: new ConcurrentHashMap<String, Object>();
+
+	/**
+	 * LogLib中资源的URL使用的handler,直接从打开的LogLib中读取
+	 */
+	private final URLStreamHandler libResourceHandler = new LibResourceHandler();
+
 	protected LoggerClassLoader(Integer id) {
 		// 去掉父的classLoader,防止干扰业务的classLoader
 		super(null);
 		this.id = id;
 	}
 
+	protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+		if (ArrayUtils.contains(SHARED_CLASSES, name)) {
+			return LoggerClassLoader.class.getClassLoader().loadClass(name);
+		}
+		if (PARALLEL_CAPABLE) {
+			// 注册为可并行加载后,ClassLoader已经按照类名加锁
+			return super.loadClass(name, resolve);
+		}
+		synchronized (getLoadingLock(name)) {
+			Class<?> clazz = findLoadedClass(name);
+			if (null == clazz) {
+				clazz = findBootstrapClass(name);
+				if (null == clazz) {
+					clazz = findClass(name);
+				}
+			}
+			if (resolve) {
+				resolveClass(clazz);
+			}
+			return clazz;
+		}
+	}
+
+	private Object getLoadingLock(String name) {
+		Object lock = classLoadingLocks.get(name);
+		if (null == lock) {
+			Object newLock = new Object();
+			lock = classLoadingLocks.putIfAbsent(name, newLock);
+			if (null == lock) {
+				lock = newLock;
+			}
+		}
+		return lock;
+	}
+
+	/*
+	 * parent为null,先从bootstrap中查找JDK的类,LogLib中只有sl4j和logback的类
+	 */
+	private static Class<?> findBootstrapClass(String name) {
+		if (name.startsWith("org.slf4j.") || name.startsWith("ch.qos.logback.") || name.startsWith(ISOLATED_HOST_PACKAGE)) {
+			return null;
+		}
+		try {
+			return Class.forName(name, false, null);
+		} catch (ClassNotFoundException e) {
+			return null;
+		}
+	}
+
 	protected Class<?> findClass(String name) throws ClassNotFoundException {
+		if (ArrayUtils.contains(ISOLATED_HOST_CLASSES, name) || name.startsWith(ISOLATED_HOST_PACKAGE)) {
+			return this.getClassFromHost(name);
+		}
+		byte[] classBytes = CLASS_BYTES_CACHE.get(name);
+		if (null == classBytes) {
+			long start = startupTimeline.begin();
+			classBytes = this.readClassBytesFromLib(name);
+			if (null == classBytes) {
+				CLASS_BYTES_CACHE.putNotFound(name);
+				throw new ClassNotFoundException("Inner Logger ClassName: " + name);
+			}
+			startupTimeline.recordLibRead(classBytes.length, System.nanoTime() - start);
+			classBytes = CLASS_BYTES_CACHE.putIfAbsent(name, classBytes);
+		} else if (ClassBytesCache.isNotFound(classBytes)) {
+			throw new ClassNotFoundException("Inner Logger ClassName: " + name);
+		} else {
+			startupTimeline.recordCached();
+		}
+		return defineClassOnce(name, classBytes);
+	}
+
+	/*
+	 * 其他线程已经define过同名的class时,返回已经define的class
+	 */
+	private Class<?> defineClassOnce(String name, byte[] classBytes) {
+		try {
+			long start = startupTimeline.begin();
+			Class<?> clazz = defineClass(name, classBytes, 0, classBytes.length);
+			startupTimeline.recordDefine(System.nanoTime() - start);
+			return clazz;
+		} catch (LinkageError e) {
+			Class<?> loaded = findLoadedClass(name);
+			if (null != loaded) {
+				return loaded;
+			}
+			throw e;
+		}
+	}
+
+	public URL getResource(String name) {
+		if (MISSING_RESOURCES.containsKey(name)) {
+			return null;
+		}
+		// parent为null,先查找bootstrap,再通过findResource查找LogLib
+		URL url = super.getResource(name);
+		if (null == url) {
+			markIfMissingFromLib(name);
+		}
+		return url;
+	}
+
+	public Enumeration<URL> getResources(String name) throws IOException {
+		if (MISSING_RESOURCES.containsKey(name)) {
+			return Collections.enumeration(Collections.<URL> emptyList());
+		}
+		Enumeration<URL> urls = super.getResources(name);
+		if (!urls.hasMoreElements()) {
+			markIfMissingFromLib(name);
+		}
+		return urls;
+	}
+
+	/*
+	 * bootstrap中没有找到资源时调用。findResource在classLoader已经关闭或者LogLib打开失败时也返回null,
+	 * 这些情况只影响当前的classLoader,不能记录到所有classLoader共享的缓存中
+	 */
+	private void markIfMissingFromLib(String name) {
+		if (closed || MISSING_RESOURCES.size() >= MISSING_RESOURCES_SIZE) {
+			return;
+		}
+		try {
+			if (!this.getLibArchive().contains(name)) {
+				MISSING_RESOURCES.put(name, Boolean.TRUE);
+			}
+		} catch (Exception e) {
+			// LogLib暂时无法打开,不记录
+		}
+	}
+
+	/*
+	 * 从LogLib的entry索引中查找资源,不查找业务的classPath
+	 */
+	protected URL findResource(String name) {
+		if (closed) {
+			return null;
+		}
+		try {
+			if (!this.getLibArchive().contains(name)) {
+				return null;
+			}
+			return new URL(LIB_RESOURCE_PROTOCOL, "", -1, "/" + name, libResourceHandler);
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	protected Enumeration<URL> findResources(String name) throws IOException {
+		URL url = this.findResource(name);
+		if (null == url) {
+			return Collections.enumeration(Collections.<URL> emptyList());
+		}
+		return Collections.enumeration(Collections.singletonList(url));
+	}
+
+	/*
+	 * 从内置的LogLib中读取class的字节码,LogLib中不存在该class时返回null
+	 */
+	private byte[] readClassBytesFromLib(String name) throws ClassNotFoundException {
+		LibArchive archive = this.getLibArchive();
+		try {
+			return archive.read(StringUtils.replace(name, ".", "/") + ".class");
+		} catch (IOException e) {
+			// 如果加载出错,可能是加载到损坏包,关闭后下次重新打开。
+			// 只有从导出的外部LIB文件打开时才删除该文件重新导出,直接映射外层jar或者工程内的LIB不涉及导出的文件
+			this.closeLibArchive(archive);
+			if (archive == exportedLibArchive) {
+				File outLogLibFile = new File(OUT_LIB_PATH);
+				outLogLibFile.delete();
+			}
+			throw new ClassNotFoundException("Inner Logger ClassName: " + name, e);
+		}
+	}
+
+	/*
+	 * 获取打开的LogLib,只在第一次读取时定位和打开,之后一直保持打开直到appKey解除绑定。
+	 * 解除绑定之后不再重新打开,否则打开的LogLib没有机会关闭
+	 */
+	private LibArchive getLibArchive() throws ClassNotFoundException {
+		LibArchive archive = libArchive;
+		if (null != archive) {
+			return archive;
+		}
+		synchronized (libArchiveLock) {
+			if (closed) {
+				throw new ClassNotFoundException("inner logger lib closed! classLoader id: " + id);
+			}
+			if (null == libArchive) {
+				libArchive = this.openLibArchive();
+			}
+			return libArchive;
+		}
+	}
+
+	private void closeLibArchive(LibArchive archive) {
+		synchronized (libArchiveLock) {
+			if (archive == libArchive) {
+				libArchive = null;
+			}
+		}
+		archive.close();
+	}
+
+	/*
+	 * 定位并打开内置LogLib,在jar中运行时优先直接映射外层jar中的LogLib,否则先导出到本地
+	 */
+	private LibArchive openLibArchive() throws ClassNotFoundException {
+		long start = startupTimeline.begin();
 		URL logLibUrl = Thread.currentThread().getContextClassLoader().getResource(LOGBACK_LIB);
 		/**
 		 *如果系统参数指定了inner-logger的jar 路径直接使用系统参数里设置的路径,主要是为了解决按照常规加载方法不适用的情况。
@@ -78,54 +458,82 @@ public class LoggerClassLoader extends ClassLoader {
 			try {
 				logLibUrl = new URL("jar", "", libPath);
 			} catch (MalformedURLException e) {
-				throw new ClassNotFoundException(
-						"load -DinnerLoggerJar error! path: " + SYSTEM_INNER_JAR + " className: " + name, e);
+				throw new ClassNotFoundException("load -DinnerLoggerJar error! path: " + SYSTEM_INNER_JAR, e);
 			}
 		}
+		if (null == logLibUrl) {
+			throw new ClassNotFoundException("Not Found Inner Logger Lib: " + LOGBACK_LIB);
+		}
 		String libProtocol = logLibUrl.getProtocol();
+		startupTimeline.end("locateLib", start, logLibUrl.toString());
 		if ("file".equals(libProtocol)) {
 			// 在inner-logger工程内部运行,由于加载的是main
-			File libFile = new File(logLibUrl.getFile());
-			try {
-				JarFile libJarFile = new JarFile(libFile);
-				return this.getClassFromJarEntry(name, libJarFile);
-			} catch (IOException e) {
-				throw new ClassNotFoundException("inner Logger className: " + name, e);
-			}
+			return this.openLibFile(new File(logLibUrl.getFile()));
 		} else if ("jar".equals(libProtocol)) {
 			String logbackUrl = logLibUrl.toString();
 			// 获取inner-loger的jar的外部File绝对路径
 			String outerJarPath = StringUtils.substringBeforeLast(StringUtils.substringAfter(logbackUrl, "jar:file:"),
 					"!");
-			return this.getaClassFromOutLib(name, outerJarPath);
+			if (MAPPED_LIB && outerJarPath.split(".jar").length <= 1) {
+				LibArchive archive = this.openStoredLib(new File(outerJarPath));
+				if (null != archive) {
+					return archive;
+				}
+			}
+			return this.openExportedLib(outerJarPath);
 		} else if ("vfs".equals(libProtocol)) {
 			// 这里可能是jboss的VFS加载,File的路径就是绝对路径,直接获取到INNER的JAR并且导出内部logback
 			String innerLoggerPath = StringUtils.substringBeforeLast(logLibUrl.getFile(), SYSTEM_FILE_SEP);
-			return this.getaClassFromOutLib(name, innerLoggerPath);
+			return this.openExportedLib(innerLoggerPath);
 		} else {
 			// 考虑到lib加载方式要么是本地class文件,要么是本地jar方式,其他如ftp, http, nntp等网络的方式不支持
-			throw new ClassNotFoundException("Not Supported Lib Protocol: " + libProtocol + " ClassName: " + name);
+			throw new ClassNotFoundException("Not Supported Lib Protocol: " + libProtocol);
 		}
 	}
 
-	private Class<?> getaClassFromOutLib(String name, String jarPath) throws ClassNotFoundException {
-		File outLogLibFile = this.exportInnerLib2Local(jarPath);
-		JarFile libJarFile = null;
+	/*
+	 * 导出到本地之后打开
+	 */
+	private LibArchive openExportedLib(String jarPath) throws ClassNotFoundException {
+		LibArchive archive = this.openLibFile(this.exportInnerLib2Local(jarPath));
+		exportedLibArchive = archive;
+		return archive;
+	}
+
+	/*
+	 * 直接映射外层jar中以STORED方式存放的LogLib,不满足条件时返回null,由调用方导出到本地
+	 */
+	private LibArchive openStoredLib(File outerJar) {
+		long start = startupTimeline.begin();
 		try {
-			libJarFile = new JarFile(outLogLibFile);
-			return this.getClassFromJarEntry(name, libJarFile);
-		} catch (Exception e) {
-			throw new ClassNotFoundException("Load Class From OutLib: " + outLogLibFile.getAbsolutePath()
-					+ ", ClassName: " + name, e);
-		} finally {
-			if (null != libJarFile) {
-				try {
-					libJarFile.close();
-				} catch (IOException e) {
-					throw new ClassNotFoundException("close file occur error", e);
-				}
+			LibArchive archive = MappedLibArchive.openStoredEntry(outerJar, LOGBACK_LIB, LOGBACK_LIB_CHECK_LENGTH);
+			if (null != archive) {
+				startupTimeline.end("openLib", start, "mapped stored entry of " + outerJar.getAbsolutePath());
+			}
+			return archive;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private LibArchive openLibFile(File libFile) throws ClassNotFoundException {
+		long start = startupTimeline.begin();
+		if (MAPPED_LIB) {
+			try {
+				LibArchive archive = new MappedLibArchive(libFile);
+				startupTimeline.end("openLib", start, "mapped " + libFile.getAbsolutePath());
+				return archive;
+			} catch (IOException e) {
+				// 映射失败或者格式不支持时回退到JarFile
 			}
 		}
+		try {
+			LibArchive archive = new JarLibArchive(libFile);
+			startupTimeline.end("openLib", start, "jar " + libFile.getAbsolutePath());
+			return archive;
+		} catch (IOException e) {
+			throw new ClassNotFoundException("open inner Logger lib error! path: " + libFile.getAbsolutePath(), e);
+		}
 	}
 
 	private static void extractNestedJar(String innerLoggerPath) throws IOException {
@@ -177,8 +585,10 @@ public class LoggerClassLoader extends ClassLoader {
 
 	private File exportInnerLib2Local(String jarPath) throws ClassNotFoundException {
 		// JVM内Class同步,目的优化JVM内多线程同时调用时导致outLibFile判断不准确
+		long start = startupTimeline.begin();
 		File outLogLibFile = new File(OUT_LIB_PATH);
 		if (outLogLibFile.exists() && LOGBACK_LIB_CHECK_LENGTH == outLogLibFile.length()) {
+			startupTimeline.end("exportLib", start, "reuse " + outLogLibFile.getAbsolutePath());
 			return outLogLibFile;
 		}
 		synchronized (LoggerClassLoader.class) {
@@ -193,7 +603,9 @@ public class LoggerClassLoader extends ClassLoader {
 			FileOutputStream outLibFileOut = null;
 			try {
 				lockFileOut = new FileOutputStream(lockFile);
+				long lockStart = startupTimeline.begin();
 				lock = lockFileOut.getChannel().lock();
+				startupTimeline.end("libFileLock", lockStart, lockFile.getAbsolutePath());
 				outLibFileOut = new FileOutputStream(outLogLibFile);
 				if (jarPath.split(".jar").length > 1) {
 					// onejar类型的包，会嵌套多层的.jar，需要先解压innerLogger，再解压logback.jlb
@@ -212,6 +624,8 @@ public class LoggerClassLoader extends ClassLoader {
 							+ outLogLibFile.length() + ", outPath : "
 							+ outLogLibFile.getAbsolutePath());
 				}
+				startupTimeline.end("exportLib", start, outLogLibFile.length() + " bytes to "
+						+ outLogLibFile.getAbsolutePath());
 				return outLogLibFile;
 			} catch (IOException e) {
 				throw new ClassNotFoundException("export innerlogger to local error, jarPath : " + jarPath, e);
@@ -248,39 +662,31 @@ public class LoggerClassLoader extends ClassLoader {
 		}
 	}
 
-	private Class<?> getClassFromJarEntry(String name, JarFile jarFile) throws ClassNotFoundException {
-		Class<?> clazz = null;
-		DataInputStream dis = null;
+	/*
+	 * 从inner-logger自身的jar中读取类的字节码,在当前classLoader中define,
+	 * 使该类引用的sl4j和logback都从内置lib中加载
+	 */
+	private Class<?> getClassFromHost(String name) throws ClassNotFoundException {
+		String classPath = StringUtils.replace(name, ".", "/") + ".class";
+		InputStream input = LoggerClassLoader.class.getClassLoader().getResourceAsStream(classPath);
+		if (null == input) {
+			throw new ClassNotFoundException("Inner Logger Host ClassName: " + name);
+		}
 		try {
-			JarEntry innerClassEntry = jarFile.getJarEntry(StringUtils.replace(name, ".", "/") + ".class");
-			if (null == innerClassEntry) {
-				// 如果找不到任何的inner-logger.jar的话直接报错
-				throw new ClassNotFoundException("Inner Logger ClassName: " + name);
-			}
-			dis = new DataInputStream(jarFile.getInputStream(innerClassEntry));
-			byte[] classBytes = new byte[(int) innerClassEntry.getSize()];
-			dis.readFully(classBytes);
-			clazz = defineClass(name, classBytes, 0, classBytes.length);
+			long start = startupTimeline.begin();
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			copyInput2OutPut(input, output);
+			byte[] classBytes = output.toByteArray();
+			startupTimeline.recordHostRead(classBytes.length, System.nanoTime() - start);
+			return defineClassOnce(name, classBytes);
 		} catch (IOException e) {
-			// 如果加载出错,可能是加载到损坏包尝试删除掉导出的外部LIB文件
-			File outLogLibFile = new File(OUT_LIB_PATH);
-			outLogLibFile.delete();
-			throw new ClassNotFoundException("Inner Logger ClassName: " + name, e);
+			throw new ClassNotFoundException("Inner Logger Host ClassName: " + name, e);
 		} finally {
-			if (null != jarFile) {
-				try {
-					jarFile.close();
-				} catch (IOException e) {
-				}
-			}
-			if (null != dis) {
-				try {
-					dis.close();
-				} catch (IOException e) {
-				}
+			try {
+				input.close();
+			} catch (IOException e) {
 			}
 		}
-		return clazz;
 	}
 
 	private static int copyInput2OutPut(InputStream input, OutputStream output) throws IOException {
@@ -299,20 +705,262 @@ public class LoggerClassLoader extends ClassLoader {
 
 	protected Object getInnerLogger(String loggerName) {
 		if (null == logMethod) {
-			// add method cache
-			logMethod = MethodUtils.getMatchingAccessibleMethod(sl4jLogFactoryClass,
+			// add method cache, 直接从内置logback的LoggerContext获取,和sl4j的LoggerFactory.getLogger一致
+			logMethod = MethodUtils.getMatchingAccessibleMethod(innerFactory.getClass(),
 					"getLogger",
 					new Class[] { String.class });
 			// 关闭安全检查加速反射调用
 			logMethod.setAccessible(true);
 		}
 		try {
-			return logMethod.invoke(null, loggerName);
+			return logMethod.invoke(innerFactory, loggerName);
 		} catch (Exception e) {
 			throw new RuntimeException("invoke get inner logger Error! logName: " + loggerName, e);
 		}
 	}
 
+	/*
+	 * 绑定sl4j后初始化桥接类,按照直接调用,MethodHandle,反射的顺序降级
+	 */
+	protected void initLoggerBridge() {
+		methodCache = new LoggerMethodCache(getInnerLogger(ROOT_LOGGER_NAME).getClass());
+		String bridgeMode = System.getProperty(BRIDGE_MODE_KEY);
+		if (BRIDGE_MODE_REFLECT.equals(bridgeMode)) {
+			return;
+		}
+		if (!BRIDGE_MODE_METHOD_HANDLE.equals(bridgeMode)) {
+			try {
+				Class<?> bridgeClass = ClassUtils.getClass(this, SLF4J_BRIDGE_CLASS);
+				Class<?> sl4jLoggerClass = ClassUtils.getClass(this, "org.slf4j.Logger");
+				directBridgeConstructor = bridgeClass.getConstructor(sl4jLoggerClass);
+				return;
+			} catch (Throwable e) {
+				// 桥接类define失败不影响日志输出,退化成MethodHandle或者反射调用
+				e.printStackTrace();
+			}
+		}
+		if (METHOD_HANDLE_SUPPORTED) {
+			try {
+				Class<?> bridgeClass = ClassUtils.getClass(LoggerClassLoader.class.getClassLoader(),
+						METHOD_HANDLE_BRIDGE_CLASS);
+				methodHandleBridgeConstructor = bridgeClass.getConstructor(Object.class, LoggerMethodCache.class);
+			} catch (Throwable e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/*
+	 * 在内置logback的LoggerContext上注册监听,reset和日志级别变化时增加日志级别的版本号
+	 */
+	protected void initLevelChangeListener() {
+		try {
+			Class<?> listenerClass = ClassUtils.getClass(this, LEVEL_LISTENER_CLASS);
+			Object listener = listenerClass.getConstructor(Runnable.class).newInstance(new Runnable() {
+				public void run() {
+					incLevelGeneration();
+				}
+			});
+			MethodUtils.invokeMethod(innerFactory, "addListener", listener);
+		} catch (Throwable e) {
+			// 注册失败时只有通过Logger.setLevel和doConfigure刷新日志级别
+			e.printStackTrace();
+		}
+	}
+
+	/*
+	 * logback配置了TurboFilter时日志是否输出不只由日志级别决定,不能使用缓存的日志级别
+	 */
+	protected boolean hasTurboFilters() {
+		try {
+			List<?> turboFilters = (List<?>) MethodUtils.invokeMethod(innerFactory, "getTurboFilterList",
+					ArrayUtils.EMPTY_OBJECT_ARRAY);
+			return null != turboFilters && !turboFilters.isEmpty();
+		} catch (Exception e) {
+			return true;
+		}
+	}
+
+	protected int getLevelGeneration() {
+		return levelGeneration.get();
+	}
+
+	protected void incLevelGeneration() {
+		levelGeneration.incrementAndGet();
+	}
+
+	/*
+	 * ClassLoader.registerAsParallelCapable是1.7新增的方法,需要在子类的静态初始化中调用,
+	 * 通过反射调用以兼容1.6的JVM
+	 */
+	private static boolean registerParallelCapable() {
+		try {
+			Method registerMethod = ClassLoader.class.getDeclaredMethod("registerAsParallelCapable");
+			registerMethod.setAccessible(true);
+			return Boolean.TRUE.equals(registerMethod.invoke(null));
+		} catch (Throwable e) {
+			return false;
+		}
+	}
+
+	protected static boolean isParallelCapable() {
+		return PARALLEL_CAPABLE;
+	}
+
+	private static boolean isMethodHandleSupported() {
+		try {
+			Class.forName("java.lang.invoke.MethodHandles");
+			return true;
+		} catch (Throwable e) {
+			return false;
+		}
+	}
+
+	protected LoggerBridge newLoggerBridge(Object innerLogger) {
+		LoggerBridge bridge = newSyncLoggerBridge(innerLogger);
+		AsyncDispatcher dispatcher = asyncDispatcher;
+		if (null != dispatcher) {
+			bridge = new AsyncLoggerBridge(bridge, innerLogger, dispatcher);
+		}
+		if (null != metrics) {
+			bridge = new MetricsLoggerBridge(bridge, metrics);
+		}
+		if (null != latencyHistogram) {
+			bridge = new LatencyLoggerBridge(bridge, latencyHistogram);
+		}
+		return bridge;
+	}
+
+	private LoggerBridge newSyncLoggerBridge(Object innerLogger) {
+		try {
+			if (null != directBridgeConstructor) {
+				return (LoggerBridge) directBridgeConstructor.newInstance(innerLogger);
+			}
+			if (null != methodHandleBridgeConstructor) {
+				return (LoggerBridge) methodHandleBridgeConstructor.newInstance(innerLogger, methodCache);
+			}
+		} catch (Exception e) {
+			throw new RuntimeException("create logger bridge Error! class: " + innerLogger.getClass(), e);
+		}
+		return new ReflectLoggerBridge(innerLogger, methodCache);
+	}
+
+	/*
+	 * 获取logger名称对应的Logger包装对象,已经缓存过的直接返回,不需要加锁和创建对象
+	 */
+	protected Logger getWrapperLogger(String loggerName) {
+		if (null == loggerName) {
+			return new Logger(getInnerLogger(loggerName), this);
+		}
+		Logger logger = wrapperLoggers.get(loggerName);
+		if (null != logger) {
+			return logger;
+		}
+		logger = new Logger(getInnerLogger(loggerName), this);
+		if (wrapperLoggers.size() < LOGGER_CACHE_SIZE) {
+			Logger exist = wrapperLoggers.putIfAbsent(loggerName, logger);
+			if (null != exist) {
+				logger = exist;
+			}
+		}
+		return logger;
+	}
+
+	/*
+	 * appKey解除绑定时停止内置logback的LoggerContext,释放appender持有的文件等资源
+	 */
+	protected void close() {
+		closed = true;
+		// 先输出异步队列中剩余的日志,再停止logback
+		AsyncDispatcher dispatcher = asyncDispatcher;
+		asyncDispatcher = null;
+		if (null != dispatcher) {
+			dispatcher.stop();
+		}
+		if (null != metrics) {
+			metrics.setAsyncDispatcher(null);
+		}
+		wrapperLoggers.clear();
+		try {
+			if (null != innerFactory) {
+				MethodUtils.invokeMethod(innerFactory, "stop", ArrayUtils.EMPTY_OBJECT_ARRAY);
+			}
+		} catch (Exception e) {
+			throw new RuntimeException("stop inner logback Error! classLoader id: " + id, e);
+		} finally {
+			// 和getLibArchive使用同一把锁,关闭之后不会再有新打开的LogLib
+			LibArchive archive;
+			synchronized (libArchiveLock) {
+				archive = libArchive;
+				libArchive = null;
+			}
+			if (null != archive) {
+				archive.close();
+			}
+		}
+	}
+
+	/*
+	 * 用模拟的日志事件预热已经配置的appender,只格式化不输出
+	 */
+	protected void warmUpAppenders(int iterations) {
+		try {
+			Class<?> warmUpClass = ClassUtils.getClass(this, APPENDER_WARM_UP_CLASS);
+			Class<?> loggerContextClass = ClassUtils.getClass(this, "ch.qos.logback.classic.LoggerContext");
+			Runnable warmUp = (Runnable) warmUpClass.getConstructor(loggerContextClass, int.class).newInstance(
+					innerFactory, iterations);
+			warmUp.run();
+		} catch (Exception e) {
+			throw new RuntimeException("warm up inner logback appenders Error! classLoader id: " + id, e);
+		}
+	}
+
+	/*
+	 * 开启,调整或者关闭(asyncConfig为null)异步输出,需要在configureLock中调用
+	 *
+	 * 先停止旧的分发器并输出剩余的日志(释放溢出队列的目录),期间的日志在调用线程中同步输出,
+	 * 再让已经缓存的Logger切换到新的桥接对象,没有缓存的Logger继续使用已经停止的旧分发器同步输出
+	 */
+	protected void setAsyncConfig(String appKey, AsyncConfig asyncConfig) {
+		AsyncDispatcher old = asyncDispatcher;
+		if (null != old) {
+			old.stop();
+		}
+		AsyncDispatcher dispatcher = null;
+		if (null != asyncConfig) {
+			try {
+				Class<?> loggerContextClass = ClassUtils.getClass(this, "ch.qos.logback.classic.LoggerContext");
+				EventDispatcher eventDispatcher = (EventDispatcher) ClassUtils.getClass(this,
+						SLF4J_EVENT_DISPATCHER_CLASS).getConstructor(loggerContextClass, boolean.class).newInstance(
+						innerFactory, asyncConfig.isGarbageFree());
+				dispatcher = new AsyncDispatcher(appKey, asyncConfig, eventDispatcher,
+						getInnerLogger(ROOT_LOGGER_NAME));
+			} catch (Exception e) {
+				throw new RuntimeException("create async dispatcher Error! classLoader id: " + id, e);
+			}
+			dispatcher.start();
+		}
+		asyncDispatcher = dispatcher;
+		if (null != metrics) {
+			metrics.setAsyncDispatcher(dispatcher);
+		}
+		for (Logger logger : wrapperLoggers.values()) {
+			logger.refreshBridge();
+		}
+	}
+
+	protected AsyncDispatcher getAsyncDispatcher() {
+		return asyncDispatcher;
+	}
+
+	protected boolean isClosed() {
+		return closed;
+	}
+
+	protected Object getConfigureLock() {
+		return configureLock;
+	}
+
 	protected boolean isConfigure() {
 		return configure;
 	}
@@ -331,6 +979,51 @@ public class LoggerClassLoader extends ClassLoader {
 
 	protected void setInnerFactory(Object innerFactory) {
 		this.innerFactory = innerFactory;
+		exportContextObjects();
+	}
+
+	protected LoggerMetrics getMetrics() {
+		return metrics;
+	}
+
+	/*
+	 * 需要在setInnerFactory之前设置
+	 */
+	protected void setMetrics(LoggerMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	protected LatencyHistogram getLatencyHistogram() {
+		return latencyHistogram;
+	}
+
+	protected void setLatencyHistogram(LatencyHistogram latencyHistogram) {
+		this.latencyHistogram = latencyHistogram;
+	}
+
+	protected StartupTimeline getStartupTimeline() {
+		return startupTimeline;
+	}
+
+	/*
+	 * 把启动耗时记录和写入字节数的计数器放入内置logback的LoggerContext中,MappedFileAppender启动时获取。
+	 * logback的reset会清空LoggerContext中的对象,reset之后需要重新放入
+	 */
+	protected void exportContextObjects() {
+		if (null == innerFactory) {
+			return;
+		}
+		try {
+			Class<?>[] parameterTypes = new Class<?>[] { String.class, Object.class };
+			MethodUtils.invokeMethod(innerFactory, "putObject", new Object[] { StartupTimeline.CONTEXT_KEY,
+					startupTimeline }, parameterTypes);
+			if (null != metrics) {
+				MethodUtils.invokeMethod(innerFactory, "putObject", new Object[] { LoggerMetrics.BYTES_WRITTEN_KEY,
+						metrics.getBytesWrittenCounter() }, parameterTypes);
+			}
+		} catch (Exception e) {
+			throw new RuntimeException("export context objects to inner logback Error! classLoader id: " + id, e);
+		}
 	}
 
 	protected void setSl4jLogFactoryClass(Class<?> sl4jLogFactoryClass) {
@@ -341,6 +1034,52 @@ public class LoggerClassLoader extends ClassLoader {
 		return id;
 	}
 
+	/*
+	 * LogLib中资源的URL,读取时从当前打开的LogLib中取出entry的内容
+	 */
+	private class LibResourceHandler extends URLStreamHandler {
+		protected URLConnection openConnection(final URL url) throws IOException {
+			return new URLConnection(url) {
+				private byte[] content;
+
+				public void connect() throws IOException {
+					if (connected) {
+						return;
+					}
+					if (closed) {
+						throw new IOException("inner logger lib closed! classLoader id: " + id);
+					}
+					String entryName = url.getPath().substring(1);
+					try {
+						content = LoggerClassLoader.this.getLibArchive().read(entryName);
+					} catch (ClassNotFoundException e) {
+						IOException ioe = new IOException("open inner logger lib error! entry: " + entryName);
+						ioe.initCause(e);
+						throw ioe;
+					}
+					if (null == content) {
+						throw new FileNotFoundException(url.toString());
+					}
+					connected = true;
+				}
+
+				public InputStream getInputStream() throws IOException {
+					connect();
+					return new ByteArrayInputStream(content);
+				}
+
+				public int getContentLength() {
+					try {
+						connect();
+					} catch (IOException e) {
+						return -1;
+					}
+					return content.length;
+				}
+			};
+		}
+	}
+
 	public static void main(String[] args) throws IOException {
 		printPath();
 	}
@@ -2,10 +2,22 @@ package com.alibaba.middleware.innerlog;
 
 import java.io.InputStream;
 import java.text.MessageFormat;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import com.alibaba.middleware.innerlog.async.AsyncConfig;
+import com.alibaba.middleware.innerlog.async.AsyncDispatcher;
+import com.alibaba.middleware.innerlog.bridge.EventDispatcher;
+import com.alibaba.middleware.innerlog.metrics.LatencyHistogram;
+import com.alibaba.middleware.innerlog.metrics.LoggerMetrics;
+import com.alibaba.middleware.innerlog.metrics.StartupTimeline;
 import com.alibaba.middleware.innerlog.util.ArrayUtils;
 import com.alibaba.middleware.innerlog.util.ClassUtils;
 import com.alibaba.middleware.innerlog.util.ConstructorUtils;
@@ -43,6 +55,17 @@ import com.alibaba.middleware.innerlog.util.StringUtils;
  *
  * LogFactory.getLogger(String name,String appKey),LogFactory.getLogger(Class<?> clazz,String appKey)
  *
+ * setp 3: appKey不再使用时可以解除绑定,释放内置的logback和classLoader
+ *
+ * LogFactory.unbind(String appKey)
+ *
+ * 可选: 绑定之后可以调用LogFactory.warmUp(String appKey)在后台预热内置的logback,
+ * 或者通过-Dinnerlogger.warmUp=true 在绑定和configure之后自动预热
+ *
+ * 可选: 通过LogFactory.setAsyncConfig(String appKey,AsyncConfig asyncConfig)或者LogConfigure.getAsyncConfig()
+ * 开启异步输出,日志事件放入无锁队列后由后台线程交给内置的logback输出,
+ * 队列已满时按照AsyncConfig的OverflowPolicy等待或者丢弃,通过LogFactory.getAsyncDroppedCount(String appKey)获取丢弃数
+ *
  * @author: <a href="mailto:qihao@taobao.com">qihao</a>
  *
  *          Date: 14-6-17 Time: 15:47 version 1.0
@@ -54,7 +77,12 @@ public class LoggerFactory {
 
 	private static final String SYSTEM_LONGBACK_CONFIG_KEY_FORMAT = "innerlogger.{0}.logback.file";
 
-	private static final Map<String/* appKey */, LoggerClassLoader> LOGGER_CONTEXT_LOADERS = new HashMap<String, LoggerClassLoader>();
+	private static final String LOGBACK_DEFAULT_CONTEXT_NAME = "default";
+
+	/**
+	 * appKey对应的classLoader的绑定任务,每个appKey独立绑定和configure,互不阻塞
+	 */
+	private static final ConcurrentMap<String/* appKey */, FutureTask<LoggerClassLoader>> LOGGER_CONTEXT_LOADERS = new ConcurrentHashMap<String, FutureTask<LoggerClassLoader>>();
 
 	/**
 	 * 该方法适用于直接给定classPath下logback配置文件classpath路径名称 配置文件来对日志做Configure
@@ -83,17 +111,58 @@ public class LoggerFactory {
 	 *
 	 * @param logConfigure
 	 */
-	public synchronized static void doConfigure(LogConfigure logConfigure,
+	public static void doConfigure(LogConfigure logConfigure,
 			String appKey) {
 		appKey = defaultIfBlank(appKey, StringUtils.EMPTY);
-		if (null == LOGGER_CONTEXT_LOADERS.get(appKey)) {
-			bindSl4j(appKey);
+		// 没有绑定过的appKey在绑定时直接使用logConfigure配置,不再走logback默认的自动配置
+		LoggerClassLoader loggerClassLoader = getLoggerClassLoader(appKey, logConfigure, true);
+		// 只锁当前appKey,不影响其他appKey的configure和获取Logger
+		synchronized (loggerClassLoader.getConfigureLock()) {
+			doConfigure(logConfigure, appKey, loggerClassLoader);
 		}
-		LoggerClassLoader loggerClassLoader = LOGGER_CONTEXT_LOADERS.get(appKey);
+	}
+
+	private static void doConfigure(LogConfigure logConfigure, String appKey,
+			LoggerClassLoader loggerClassLoader) {
 		if (loggerClassLoader.isConfigure()) {
 			// 已经配置configure过
 			return;
 		}
+		InputStream inputStream = openConfigure(logConfigure, appKey);
+		if (null != inputStream) {
+			// 绑定时已经自动配置过,需要先reset再重新configure
+			joranConfigure(loggerClassLoader, inputStream, true);
+			applyAsyncConfig(logConfigure, appKey, loggerClassLoader);
+			if (LoggerWarmUp.AUTO_WARM_UP) {
+				LoggerWarmUp.warmUp(loggerClassLoader);
+			}
+			// 第一次configure完成,之后的阶段不再记录
+			loggerClassLoader.getStartupTimeline().complete();
+			if (StartupTimeline.PRINT) {
+				System.err.println(loggerClassLoader.getStartupTimeline().dump());
+			}
+		}
+	}
+
+	/*
+	 * logConfigure指定了异步输出时开启异步输出
+	 * 只通过innerlogger.<appKey>.logback.file 系统属性配置时logConfigure为null
+	 */
+	private static void applyAsyncConfig(LogConfigure logConfigure, String appKey,
+			LoggerClassLoader loggerClassLoader) {
+		if (null == logConfigure) {
+			return;
+		}
+		AsyncConfig asyncConfig = logConfigure.getAsyncConfig();
+		if (null != asyncConfig) {
+			loggerClassLoader.setAsyncConfig(appKey, asyncConfig);
+		}
+	}
+
+	/*
+	 * 获取configure使用的配置文件的InputStream,没有配置时返回null
+	 */
+	private static InputStream openConfigure(LogConfigure logConfigure, String appKey) {
 		String systemConfPath;
 		InputStream inputStream = null;
 
@@ -117,32 +186,43 @@ public class LoggerFactory {
 			* 使用默认的DEFAULT_LONGBACK_CONFIG_FILE进行Configure
 			*/
 		}
-		if (null != inputStream) {
-			try {
-				Class<?> JoranConfClass = ClassUtils.getClass(loggerClassLoader,
-						"ch.qos.logback.classic.joran.JoranConfigurator");
+		return inputStream;
+	}
+
+	/*
+	 * 使用Joran对内置logback的LoggerContext进行configure,完成后关闭inputStream
+	 */
+	private static void joranConfigure(LoggerClassLoader loggerClassLoader, InputStream inputStream,
+			boolean reset) {
+		StartupTimeline timeline = loggerClassLoader.getStartupTimeline();
+		long start = timeline.begin();
+		try {
+			Class<?> JoranConfClass = ClassUtils.getClass(loggerClassLoader,
+					"ch.qos.logback.classic.joran.JoranConfigurator");
+			if (reset) {
 				// 重新设置LoggerContext
-				MethodUtils.invokeMethod( loggerClassLoader.getInnerFactory(), "reset",
+				MethodUtils.invokeMethod(loggerClassLoader.getInnerFactory(), "reset",
 						ArrayUtils.EMPTY_OBJECT_ARRAY);
-				Object JoranConfObj = ConstructorUtils.invokeConstructor(
-						JoranConfClass, ArrayUtils.EMPTY_OBJECT_ARRAY);
-				// 设置logContext
-				MethodUtils.invokeMethod(JoranConfObj, "setContext",
-						loggerClassLoader.getInnerFactory());
-				// 进行Configure
-				MethodUtils.invokeMethod(JoranConfObj, "doConfigure",
-						inputStream);
-				loggerClassLoader.setConfigure(true);
-			} catch (Exception e) {
-				throw new RuntimeException("doConfigure logback Error! ", e);
-			} finally {
-				if (null != inputStream) {
-					try {
-						inputStream.close();
-					} catch (Exception e1) {
-						e1.printStackTrace();
-					}
-				}
+				loggerClassLoader.exportContextObjects();
+			}
+			Object JoranConfObj = ConstructorUtils.invokeConstructor(
+					JoranConfClass, ArrayUtils.EMPTY_OBJECT_ARRAY);
+			// 设置logContext
+			MethodUtils.invokeMethod(JoranConfObj, "setContext",
+					loggerClassLoader.getInnerFactory());
+			// 进行Configure
+			MethodUtils.invokeMethod(JoranConfObj, "doConfigure",
+					inputStream);
+			loggerClassLoader.setConfigure(true);
+			loggerClassLoader.incLevelGeneration();
+			timeline.end("joranConfigure", start, reset ? "reset" : null);
+		} catch (Exception e) {
+			throw new RuntimeException("doConfigure logback Error! ", e);
+		} finally {
+			try {
+				inputStream.close();
+			} catch (Exception e1) {
+				e1.printStackTrace();
 			}
 		}
 	}
@@ -167,28 +247,345 @@ public class LoggerFactory {
 		return getWrapperLogger(clazz.getName(), appKey);
 	}
 
+	/**
+	 * 在后台线程中预热appKey对应的内置logback: 并行加载常用的logback类,
+	 * 并用模拟的日志事件预热已经配置的appender,不会输出日志。
+	 * 应该在configure之后调用,没有绑定过的appKey会先绑定。
+	 *
+	 * @param appKey 对应的appKey
+	 * @return 预热完成后结束的Future,需要等待预热完成时使用
+	 */
+	public static Future<?> warmUp(String appKey) {
+		appKey = defaultIfBlank(appKey, StringUtils.EMPTY);
+		return LoggerWarmUp.warmUp(getLoggerClassLoader(appKey));
+	}
+
+	/**
+	 * 开启或者调整appKey的异步输出,日志事件放入无锁队列后由后台线程交给内置的logback输出,
+	 * 格式化参数和appender的输出都不在记录日志的线程中执行。没有绑定过的appKey会先绑定。
+	 *
+	 * 注: 异步输出时logback无法获取调用方的位置信息(%class,%line等),线程名,时间戳和MDC在记录日志时获取
+	 *
+	 * @param appKey 对应的appKey
+	 * @param asyncConfig 异步输出的配置,为null时关闭异步输出,队列中剩余的日志输出后返回
+	 */
+	public static void setAsyncConfig(String appKey, AsyncConfig asyncConfig) {
+		appKey = defaultIfBlank(appKey, StringUtils.EMPTY);
+		LoggerClassLoader loggerClassLoader = getLoggerClassLoader(appKey);
+		synchronized (loggerClassLoader.getConfigureLock()) {
+			if (loggerClassLoader.isClosed()) {
+				throw new IllegalStateException("appKey unbind! appKey: " + appKey);
+			}
+			loggerClassLoader.setAsyncConfig(appKey, asyncConfig);
+		}
+	}
+
+	/**
+	 * 获取appKey异步输出时队列已满被丢弃的日志数,按照AsyncConfig的OverflowPolicy丢弃,
+	 * 每次调用setAsyncConfig后重新计数
+	 *
+	 * @param appKey 对应的appKey
+	 * @return 丢弃的日志总数,没有开启异步输出或者appKey还没有绑定完成时返回0
+	 */
+	public static long getAsyncDroppedCount(String appKey) {
+		AsyncDispatcher dispatcher = getAsyncDispatcher(appKey);
+		return null == dispatcher ? 0 : dispatcher.getDroppedCount();
+	}
+
+	/**
+	 * 获取appKey异步输出时某个级别被丢弃的日志数
+	 *
+	 * @param appKey 对应的appKey
+	 * @param level 日志级别,只支持ERROR,WARN,INFO,DEBUG,TRACE
+	 * @return 该级别丢弃的日志数,没有开启异步输出或者appKey还没有绑定完成时返回0
+	 */
+	public static long getAsyncDroppedCount(String appKey, LogLevel level) {
+		int levelInt;
+		switch (level) {
+		case ERROR:
+			levelInt = EventDispatcher.ERROR_INT;
+			break;
+		case WARN:
+			levelInt = EventDispatcher.WARN_INT;
+			break;
+		case INFO:
+			levelInt = EventDispatcher.INFO_INT;
+			break;
+		case DEBUG:
+			levelInt = EventDispatcher.DEBUG_INT;
+			break;
+		case TRACE:
+			levelInt = EventDispatcher.TRACE_INT;
+			break;
+		default:
+			throw new IllegalArgumentException("unsupported level: " + level);
+		}
+		AsyncDispatcher dispatcher = getAsyncDispatcher(appKey);
+		return null == dispatcher ? 0 : dispatcher.getDroppedCount(levelInt);
+	}
+
+	/**
+	 * 获取appKey的运行指标,需要通过-Dinnerlogger.metrics=true 开启,绑定时同时注册为MBean。
+	 * 用于把指标嵌入到自己的监控系统中,不会触发绑定
+	 *
+	 * @param appKey 对应的appKey
+	 * @return 没有开启或者appKey还没有绑定完成时返回null
+	 */
+	public static LoggerMetrics getMetrics(String appKey) {
+		appKey = defaultIfBlank(appKey, StringUtils.EMPTY);
+		LoggerClassLoader loggerClassLoader = getBoundLoggerClassLoader(LOGGER_CONTEXT_LOADERS.get(appKey));
+		return null == loggerClassLoader ? null : loggerClassLoader.getMetrics();
+	}
+
+	/**
+	 * 获取所有已经绑定的appKey的运行指标
+	 *
+	 * @return appKey到运行指标的Map,没有开启时为空
+	 */
+	public static Map<String, LoggerMetrics> getAllMetrics() {
+		Map<String, LoggerMetrics> allMetrics = new TreeMap<String, LoggerMetrics>();
+		for (Map.Entry<String, FutureTask<LoggerClassLoader>> entry : LOGGER_CONTEXT_LOADERS.entrySet()) {
+			LoggerClassLoader loggerClassLoader = getBoundLoggerClassLoader(entry.getValue());
+			if (null != loggerClassLoader && null != loggerClassLoader.getMetrics()) {
+				allMetrics.put(entry.getKey(), loggerClassLoader.getMetrics());
+			}
+		}
+		return allMetrics;
+	}
+
+	/**
+	 * 获取appKey记录日志的线程调用耗时的分布,需要通过-Dinnerlogger.latency=true 开启,
+	 * 绑定时同时注册为MBean。不会触发绑定
+	 *
+	 * @param appKey 对应的appKey
+	 * @return 没有开启或者appKey还没有绑定完成时返回null
+	 */
+	public static LatencyHistogram getLatencyHistogram(String appKey) {
+		appKey = defaultIfBlank(appKey, StringUtils.EMPTY);
+		LoggerClassLoader loggerClassLoader = getBoundLoggerClassLoader(LOGGER_CONTEXT_LOADERS.get(appKey));
+		return null == loggerClassLoader ? null : loggerClassLoader.getLatencyHistogram();
+	}
+
+	/**
+	 * 输出所有已经绑定的appKey的调用耗时分布
+	 *
+	 * @return 每个appKey各个级别的次数,p50,p90,p99,p99.9和最大耗时,没有开启时为空字符串
+	 */
+	public static String dumpLatency() {
+		StringBuilder dump = new StringBuilder();
+		for (FutureTask<LoggerClassLoader> bindTask : LOGGER_CONTEXT_LOADERS.values()) {
+			LoggerClassLoader loggerClassLoader = getBoundLoggerClassLoader(bindTask);
+			if (null != loggerClassLoader && null != loggerClassLoader.getLatencyHistogram()) {
+				if (dump.length() > 0) {
+					dump.append('\n');
+				}
+				dump.append(loggerClassLoader.getLatencyHistogram().dump());
+			}
+		}
+		return dump.toString();
+	}
+
+	/**
+	 * 获取appKey绑定和configure过程中各阶段的耗时,包括导出和打开内置LogLib,绑定sl4j,
+	 * Joran解析配置和MappedFileAppender的启动,以及define的class数和读取的字节数。不会触发绑定
+	 *
+	 * @param appKey 对应的appKey
+	 * @return appKey还没有绑定完成时返回null
+	 */
+	public static StartupTimeline getStartupTimeline(String appKey) {
+		appKey = defaultIfBlank(appKey, StringUtils.EMPTY);
+		LoggerClassLoader loggerClassLoader = getBoundLoggerClassLoader(LOGGER_CONTEXT_LOADERS.get(appKey));
+		return null == loggerClassLoader ? null : loggerClassLoader.getStartupTimeline();
+	}
+
+	/*
+	 * 已经绑定完成的classLoader,正在绑定或者绑定失败时返回null,不等待
+	 */
+	private static LoggerClassLoader getBoundLoggerClassLoader(FutureTask<LoggerClassLoader> bindTask) {
+		if (null == bindTask || !bindTask.isDone()) {
+			return null;
+		}
+		try {
+			return bindTask.get();
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	/*
+	 * 只读取已经绑定完成的appKey,不会触发绑定
+	 */
+	private static AsyncDispatcher getAsyncDispatcher(String appKey) {
+		appKey = defaultIfBlank(appKey, StringUtils.EMPTY);
+		LoggerClassLoader loggerClassLoader = getBoundLoggerClassLoader(LOGGER_CONTEXT_LOADERS.get(appKey));
+		return null == loggerClassLoader ? null : loggerClassLoader.getAsyncDispatcher();
+	}
+
+	/**
+	 * 解除appKey的绑定,停止对应的内置logback并释放classLoader,
+	 * 之后再获取该appKey的Logger会重新绑定。
+	 *
+	 * 注: 已经获取的Logger对象仍然持有旧的classLoader,需要使用方自己释放
+	 *
+	 * @param appKey 对应的appKey
+	 * @return 该appKey是否绑定过
+	 */
+	public static boolean unbind(String appKey) {
+		appKey = defaultIfBlank(appKey, StringUtils.EMPTY);
+		FutureTask<LoggerClassLoader> bindTask = LOGGER_CONTEXT_LOADERS.remove(appKey);
+		if (null == bindTask) {
+			return false;
+		}
+		LoggerClassLoader loggerClassLoader = waitForBind(appKey, bindTask);
+		synchronized (loggerClassLoader.getConfigureLock()) {
+			loggerClassLoader.close();
+		}
+		LoggerMetrics metrics = loggerClassLoader.getMetrics();
+		if (null != metrics) {
+			metrics.unregister();
+		}
+		LatencyHistogram latencyHistogram = loggerClassLoader.getLatencyHistogram();
+		if (null != latencyHistogram) {
+			latencyHistogram.unregister();
+		}
+		return true;
+	}
+
+	/*
+	 * 获取appKey对应的classLoader,没有绑定过的先绑定。同一个appKey只有第一个
+	 * 线程执行绑定,其他线程等待绑定结果,已经绑定过的直接返回不会阻塞
+	 */
+	private static LoggerClassLoader getLoggerClassLoader(String appKey) {
+		return getLoggerClassLoader(appKey, null, false);
+	}
+
+	/*
+	 * configure为true时,由本线程执行的绑定直接使用logConfigure配置
+	 */
+	private static LoggerClassLoader getLoggerClassLoader(final String appKey, final LogConfigure logConfigure,
+			final boolean configure) {
+		FutureTask<LoggerClassLoader> bindTask = LOGGER_CONTEXT_LOADERS.get(appKey);
+		if (null == bindTask) {
+			FutureTask<LoggerClassLoader> newTask = new FutureTask<LoggerClassLoader>(
+					new Callable<LoggerClassLoader>() {
+						public LoggerClassLoader call() throws Exception {
+							return bindSl4j(appKey, logConfigure, configure);
+						}
+					});
+			bindTask = LOGGER_CONTEXT_LOADERS.putIfAbsent(appKey, newTask);
+			if (null == bindTask) {
+				bindTask = newTask;
+				newTask.run();
+			}
+		}
+		return waitForBind(appKey, bindTask);
+	}
+
+	private static LoggerClassLoader waitForBind(String appKey, FutureTask<LoggerClassLoader> bindTask) {
+		try {
+			return bindTask.get();
+		} catch (ExecutionException e) {
+			// 绑定失败的任务移除掉,下次获取时重新绑定
+			LOGGER_CONTEXT_LOADERS.remove(appKey, bindTask);
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new RuntimeException("binding inner sl4j Error! appKey: " + appKey, cause);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("wait binding inner sl4j interrupted! appKey: " + appKey, e);
+		}
+	}
+
 	/*
 	 * SL4J的初始化与log的绑定方法。
+	 *
+	 * 有指定的配置时直接创建内置logback的LoggerContext并configure一次,不触发logback默认的
+	 * 自动配置(查找logback.xml等配置文件和创建默认的console输出),否则通过sl4j的
+	 * getILoggerFactory按照logback默认的方式初始化
 	 */
-	private synchronized static LoggerClassLoader bindSl4j(String appKey) {
+	private static LoggerClassLoader bindSl4j(String appKey, LogConfigure logConfigure, boolean configure) {
+		LoggerClassLoader loggerClassLoader = new LoggerClassLoader(CLASS_LOADER_ID.getAndIncrement());
+		StartupTimeline timeline = loggerClassLoader.getStartupTimeline();
+		timeline.setAppKey(appKey);
+		long bindStart = timeline.begin();
+		if (LoggerMetrics.ENABLED) {
+			loggerClassLoader.setMetrics(new LoggerMetrics(appKey));
+		}
+		if (LatencyHistogram.ENABLED) {
+			loggerClassLoader.setLatencyHistogram(new LatencyHistogram(appKey));
+		}
+		InputStream inputStream = configure ? openConfigure(logConfigure, appKey) : null;
 		try {
-			LoggerClassLoader loggerClassLoader = new LoggerClassLoader(CLASS_LOADER_ID.getAndIncrement());
-			Class<?> sl4jLogFactoryClass = ClassUtils.getClass(loggerClassLoader,
-					"org.slf4j.LoggerFactory");
-			Object innerFactory = MethodUtils.invokeExactStaticMethod(
-					sl4jLogFactoryClass, "getILoggerFactory",
-					ArrayUtils.EMPTY_OBJECT_ARRAY);
-			loggerClassLoader.setSl4jLogFactoryClass(sl4jLogFactoryClass);
-			loggerClassLoader.setInnerFactory(innerFactory);
-			LOGGER_CONTEXT_LOADERS.put(appKey, loggerClassLoader);
-			return loggerClassLoader;
+			long start = timeline.begin();
+			if (null == inputStream) {
+				Class<?> sl4jLogFactoryClass = ClassUtils.getClass(loggerClassLoader,
+						"org.slf4j.LoggerFactory");
+				Object innerFactory = MethodUtils.invokeExactStaticMethod(
+						sl4jLogFactoryClass, "getILoggerFactory",
+						ArrayUtils.EMPTY_OBJECT_ARRAY);
+				loggerClassLoader.setSl4jLogFactoryClass(sl4jLogFactoryClass);
+				loggerClassLoader.setInnerFactory(innerFactory);
+			} else {
+				Class<?> loggerContextClass = ClassUtils.getClass(loggerClassLoader,
+						"ch.qos.logback.classic.LoggerContext");
+				Object innerFactory = ConstructorUtils.invokeConstructor(loggerContextClass,
+						ArrayUtils.EMPTY_OBJECT_ARRAY);
+				// 和logback的StaticLoggerBinder创建的LoggerContext名称一致
+				MethodUtils.invokeMethod(innerFactory, "setName", LOGBACK_DEFAULT_CONTEXT_NAME);
+				loggerClassLoader.setInnerFactory(innerFactory);
+			}
+			timeline.end("bindSl4j", start, null == inputStream ? "getILoggerFactory" : "new LoggerContext");
+			start = timeline.begin();
+			loggerClassLoader.initLoggerBridge();
+			loggerClassLoader.initLevelChangeListener();
+			timeline.end("initBridge", start);
 		} catch (Exception e) {
+			closeQuietly(inputStream);
 			throw new RuntimeException("binding inner sl4j Error! ", e);
 		}
+		if (null != inputStream) {
+			// 新创建的LoggerContext不需要reset
+			joranConfigure(loggerClassLoader, inputStream, false);
+			applyAsyncConfig(logConfigure, appKey, loggerClassLoader);
+		}
+		LoggerMetrics metrics = loggerClassLoader.getMetrics();
+		if (null != metrics) {
+			metrics.register();
+		}
+		LatencyHistogram latencyHistogram = loggerClassLoader.getLatencyHistogram();
+		if (null != latencyHistogram) {
+			latencyHistogram.register();
+		}
+		if (LoggerWarmUp.AUTO_WARM_UP) {
+			long start = timeline.begin();
+			LoggerWarmUp.warmUp(loggerClassLoader);
+			timeline.end("warmUp", start);
+		}
+		timeline.end("bind", bindStart);
+		if (loggerClassLoader.isConfigure()) {
+			timeline.complete();
+		}
+		if (StartupTimeline.PRINT) {
+			System.err.println(timeline.dump());
+		}
+		return loggerClassLoader;
+	}
+
+	private static void closeQuietly(InputStream inputStream) {
+		if (null != inputStream) {
+			try {
+				inputStream.close();
+			} catch (Exception e) {
+				// skip exception
+			}
+		}
 	}
 
 	/*
-	 * 根据给定的对象获取对应的SL4J的包装Logger对象
+	 * 根据给定的对象获取对应的SL4J的包装Logger对象,appKey绑定之后
+	 * 获取Logger是无锁的,已经获取过的Logger直接从缓存返回
 	 *
 	 * @param loggerName
 	 *            logger名称
@@ -197,15 +594,9 @@ public class LoggerFactory {
 	 *            日志系统的appKey
 	 * @return
 	 */
-	private synchronized static Logger getWrapperLogger(
-			String loggerName, String appKey) {
+	private static Logger getWrapperLogger(String loggerName, String appKey) {
 		appKey = defaultIfBlank(appKey, StringUtils.EMPTY);
-		LoggerClassLoader loggerClassLoader = LOGGER_CONTEXT_LOADERS.get(appKey);
-		if (null == loggerClassLoader) {
-			// 如果sl4j没有进行绑定过,先尝试绑定
-			loggerClassLoader = bindSl4j(appKey);
-		}
-		return new Logger(loggerClassLoader.getInnerLogger(loggerName), loggerClassLoader);
+		return getLoggerClassLoader(appKey).getWrapperLogger(loggerName);
 	}
 
 	private static String defaultIfBlank(String str, String defaultStr) {
@@ -0,0 +1,153 @@
+package com.alibaba.middleware.innerlog;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.middleware.innerlog.util.StringUtils;
+
+/**
+ * appKey绑定后在后台预热内置的logback,避免第一次输出日志时加载class的耗时落在业务线程上
+ *
+ * 预热分两步:
+ *
+ * 1.在后台线程池中并行加载inner-logger-warmup.list中列出的logback类
+ *
+ * 2.所有类加载完成后,用模拟的日志事件预热已经配置的appender的layout,不会输出日志
+ *
+ * 默认关闭,可以通过-Dinnerlogger.warmUp=true 在绑定和configure之后自动预热,
+ * 或者调用LoggerFactory.warmUp(String appKey)手动预热
+ *
+ * version 1.0
+ */
+final class LoggerWarmUp {
+
+	protected final static boolean AUTO_WARM_UP = Boolean.getBoolean("innerlogger.warmUp");
+
+	/**
+	 * 每个appender的layout格式化模拟事件的次数,可以通过-Dinnerlogger.warmUpIterations=xxx 调整
+	 */
+	private final static int WARM_UP_ITERATIONS = Integer.getInteger("innerlogger.warmUpIterations", 1000);
+
+	private final static String WARM_UP_CLASS_LIST = "inner-logger-warmup.list";
+
+	private final static int WARM_UP_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+	private final static AtomicInteger THREAD_ID = new AtomicInteger(0);
+
+	/**
+	 * 预热用的后台线程池,线程空闲后自动退出,不影响JVM退出
+	 */
+	private final static ThreadPoolExecutor WARM_UP_EXECUTOR;
+
+	static {
+		WARM_UP_EXECUTOR = new ThreadPoolExecutor(WARM_UP_THREADS, WARM_UP_THREADS, 30, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+					public Thread newThread(Runnable r) {
+						Thread thread = new Thread(r, "inner-logger-warmup-" + THREAD_ID.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		WARM_UP_EXECUTOR.allowCoreThreadTimeOut(true);
+	}
+
+	private LoggerWarmUp() {
+	}
+
+	/**
+	 * 提交classLoader的预热任务,立即返回
+	 *
+	 * @return 类加载和appender预热都完成后结束的Future
+	 */
+	protected static Future<?> warmUp(final LoggerClassLoader loggerClassLoader) {
+		final FutureTask<Object> appenderTask = new FutureTask<Object>(new Callable<Object>() {
+			public Object call() throws Exception {
+				if (!loggerClassLoader.isClosed()) {
+					loggerClassLoader.warmUpAppenders(WARM_UP_ITERATIONS);
+				}
+				return null;
+			}
+		});
+		List<String> classNames = WarmUpClassList.CLASS_NAMES;
+		// 按线程数分片,最后一个完成的分片负责预热appender,线程池中的任务之间不互相等待
+		int parts = LoggerClassLoader.isParallelCapable() ? WARM_UP_THREADS : 1;
+		final AtomicInteger remaining = new AtomicInteger(parts);
+		for (int i = 0; i < parts; i++) {
+			final List<String> part = new ArrayList<String>();
+			for (int j = i; j < classNames.size(); j += parts) {
+				part.add(classNames.get(j));
+			}
+			WARM_UP_EXECUTOR.execute(new Runnable() {
+				public void run() {
+					try {
+						preloadClasses(loggerClassLoader, part);
+					} finally {
+						if (0 == remaining.decrementAndGet()) {
+							appenderTask.run();
+						}
+					}
+				}
+			});
+		}
+		return appenderTask;
+	}
+
+	private static void preloadClasses(LoggerClassLoader loggerClassLoader, List<String> classNames) {
+		for (String className : classNames) {
+			if (loggerClassLoader.isClosed()) {
+				return;
+			}
+			try {
+				Class.forName(className, false, loggerClassLoader);
+			} catch (Throwable e) {
+				// LogLib中不存在或者加载失败的类在真正使用时再报错
+			}
+		}
+	}
+
+	/**
+	 * 预热的类名列表,第一次预热时才读取
+	 */
+	private static class WarmUpClassList {
+		private final static List<String> CLASS_NAMES = readClassNames();
+
+		private static List<String> readClassNames() {
+			InputStream input = LoggerWarmUp.class.getClassLoader().getResourceAsStream(WARM_UP_CLASS_LIST);
+			if (null == input) {
+				return Collections.emptyList();
+			}
+			List<String> classNames = new ArrayList<String>();
+			BufferedReader reader = new BufferedReader(new InputStreamReader(input));
+			try {
+				String line;
+				while (null != (line = reader.readLine())) {
+					line = line.trim();
+					if (StringUtils.isNotBlank(line) && !line.startsWith("#")) {
+						classNames.add(line);
+					}
+				}
+			} catch (IOException e) {
+				// 读取失败时只预热已经读到的类
+			} finally {
+				try {
+					reader.close();
+				} catch (IOException e) {
+				}
+			}
+			return Collections.unmodifiableList(classNames);
+		}
+	}
+}
@@ -0,0 +1,536 @@
+package com.alibaba.middleware.innerlog.appender;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ch.qos.logback.core.Layout;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
+import ch.qos.logback.core.util.FileSize;
+
+import com.alibaba.middleware.innerlog.metrics.StartupTimeline;
+import com.alibaba.middleware.innerlog.metrics.StripedCounter;
+
+/**
+ * 通过mmap写日志文件的appender,可以在内置logback的配置中直接使用:
+ *
+ * <pre>
+ * &lt;appender name="file" class="com.alibaba.middleware.innerlog.appender.MappedFileAppender"&gt;
+ *     &lt;file&gt;/home/admin/logs/xxx.log&lt;/file&gt;
+ *     &lt;maxFileSize&gt;100MB&lt;/maxFileSize&gt;
+ *     &lt;maxIndex&gt;7&lt;/maxIndex&gt;
+ *     &lt;encoder&gt;&lt;pattern&gt;%d %p %t %c - %m%n&lt;/pattern&gt;&lt;/encoder&gt;
+ * &lt;/appender&gt;
+ * </pre>
+ *
+ * 文件按regionSize分段映射到内存,记录日志的线程先格式化事件,再通过CAS在当前分段中预留空间后直接写入,
+ * 不需要锁。分段写满时由第一个预留失败的线程映射下一个分段,文件超过maxFileSize时按照
+ * xxx.log.1 ... xxx.log.maxIndex 滚动。写入的数据在操作系统的page cache中,进程崩溃不会丢失,
+ * 后台线程每隔flushInterval毫秒force一次,减少机器掉电时丢失的数据。
+ *
+ * 每个线程重复使用自己的编码缓冲区和分段的ByteBuffer视图,除了layout返回的String之外写入不创建对象,
+ * 超过MAX_REUSED_CHARS的日志临时编码,不保留大的缓冲区。
+ *
+ * 注: 只支持通过layout格式化的encoder(例如默认的PatternLayoutEncoder),不输出encoder的header和footer。
+ * 进程崩溃时文件末尾会留下预分配的0字节,下次以append方式打开时截掉。
+ *
+ * 开启LoggerMetrics时写入的字节数累加到该appKey的LoggerMetrics中,启动(创建文件和映射第一个分段)的耗时
+ * 记录到该appKey的StartupTimeline中。
+ *
+ * 该类和LevelChangeListener一样在LoggerClassLoader中define。
+ *
+ * version 1.0
+ */
+public class MappedFileAppender<E> extends UnsynchronizedAppenderBase<E> {
+
+	private final static String DEFAULT_REGION_SIZE = "8MB";
+	private final static String DEFAULT_MAX_FILE_SIZE = "100MB";
+	/**
+	 * 启动时查找文件末尾预分配的0字节时每次读取的大小
+	 */
+	private final static int TRIM_BLOCK_SIZE = 8192;
+	/**
+	 * 线程保留的编码缓冲区能容纳的最大字符数
+	 */
+	private final static int MAX_REUSED_CHARS = 16 * 1024;
+	/**
+	 * 开启LoggerMetrics时写入字节数的计数器在LoggerContext中的key,和LoggerMetrics.BYTES_WRITTEN_KEY一致
+	 */
+	private final static String BYTES_WRITTEN_KEY = "innerlogger.bytesWritten";
+	/**
+	 * 启动耗时记录在LoggerContext中的key,和StartupTimeline.CONTEXT_KEY一致
+	 */
+	private final static String STARTUP_TIMELINE_KEY = "innerlogger.startupTimeline";
+
+	private String fileName;
+	private boolean append = true;
+	private FileSize regionSize = FileSize.valueOf(DEFAULT_REGION_SIZE);
+	private FileSize maxFileSize = FileSize.valueOf(DEFAULT_MAX_FILE_SIZE);
+	private int maxIndex = 7;
+	private long flushInterval = 1000;
+
+	private Encoder<E> encoder;
+	private Layout<E> layout;
+	private Charset charset;
+
+	/**
+	 * 当前写入的分段,为null时appender已经停止或者映射失败
+	 */
+	private volatile Region current;
+	/**
+	 * 切换分段,flush和停止时使用的锁,不在记录日志的常规路径上
+	 */
+	private final Object regionLock = new Object();
+	private Thread flusher;
+	private final ThreadLocal<EncodeBuffer> encodeBuffers = new ThreadLocal<EncodeBuffer>();
+	/**
+	 * 没有开启LoggerMetrics时为null
+	 */
+	private StripedCounter bytesWritten;
+
+	public void start() {
+		long startNanos = System.nanoTime();
+		if (null == fileName) {
+			addError("No file set for the appender named [" + name + "].");
+			return;
+		}
+		if (null == layout) {
+			if (encoder instanceof LayoutWrappingEncoder) {
+				LayoutWrappingEncoder<E> layoutEncoder = (LayoutWrappingEncoder<E>) encoder;
+				layout = layoutEncoder.getLayout();
+				charset = layoutEncoder.getCharset();
+			}
+			if (null == layout) {
+				addError("No layout or layout based encoder set for the appender named [" + name + "].");
+				return;
+			}
+		}
+		if (regionSize.getSize() > Integer.MAX_VALUE || regionSize.getSize() <= 0) {
+			addError("Invalid regionSize " + regionSize + " for the appender named [" + name + "].");
+			return;
+		}
+		try {
+			File file = new File(fileName);
+			File parent = file.getAbsoluteFile().getParentFile();
+			if (null != parent && !parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+				addError("Failed to create parent directories for [" + file.getAbsolutePath() + "]");
+				return;
+			}
+			if (!append && file.exists()) {
+				truncate(file, 0);
+			}
+			long offset = append ? trimPreallocated(file) : 0;
+			current = mapRegion(file, offset, (int) regionSize.getSize());
+		} catch (IOException e) {
+			addError("Failed to map file [" + fileName + "]", e);
+			return;
+		}
+		Object counter = null == context ? null : context.getObject(BYTES_WRITTEN_KEY);
+		bytesWritten = counter instanceof StripedCounter ? (StripedCounter) counter : null;
+		if (flushInterval > 0) {
+			flusher = new Thread(new Flusher(), "inner-logger-mapped-flush-" + name);
+			flusher.setDaemon(true);
+			flusher.start();
+		}
+		super.start();
+		Object timeline = null == context ? null : context.getObject(STARTUP_TIMELINE_KEY);
+		if (timeline instanceof StartupTimeline) {
+			((StartupTimeline) timeline).end("appenderStart:" + name, startNanos, fileName);
+		}
+	}
+
+	public void stop() {
+		if (!isStarted()) {
+			return;
+		}
+		super.stop();
+		Thread flushThread = flusher;
+		if (null != flushThread) {
+			flushThread.interrupt();
+		}
+		synchronized (regionLock) {
+			Region region = current;
+			current = null;
+			if (null != region) {
+				region.close();
+				try {
+					finish(region);
+				} catch (IOException e) {
+					addError("Failed to close file [" + fileName + "]", e);
+				}
+			}
+		}
+	}
+
+	protected void append(E event) {
+		if (!isStarted()) {
+			return;
+		}
+		String text = layout.doLayout(event);
+		if (null == text || 0 == text.length()) {
+			return;
+		}
+		EncodeBuffer encodeBuffer = encodeBuffers.get();
+		if (null == encodeBuffer) {
+			encodeBuffer = new EncodeBuffer(null == charset ? Charset.defaultCharset() : charset);
+			encodeBuffers.set(encodeBuffer);
+		}
+		ByteBuffer bytes = encodeBuffer.encode(text);
+		int length = bytes.remaining();
+		for (;;) {
+			Region region = current;
+			if (null == region) {
+				return;
+			}
+			region.writers.incrementAndGet();
+			int start = region.position.getAndAdd(length);
+			if (start + length <= region.capacity && start >= 0) {
+				try {
+					ByteBuffer target = encodeBuffer.view(region);
+					target.position(start);
+					target.put(bytes);
+				} finally {
+					region.writers.decrementAndGet();
+				}
+				StripedCounter counter = bytesWritten;
+				if (null != counter) {
+					counter.add(length);
+				}
+				return;
+			}
+			region.writers.decrementAndGet();
+			if (start >= 0 && start <= region.capacity) {
+				// 第一个预留失败的线程负责切换到下一个分段
+				region.limit = start;
+				nextRegion(region, length);
+			} else {
+				while (current == region) {
+					Thread.yield();
+				}
+			}
+		}
+	}
+
+	/*
+	 * 当前分段已经写满,映射文件中的下一个分段,文件超过maxFileSize时先滚动
+	 */
+	private void nextRegion(Region region, int minSize) {
+		synchronized (regionLock) {
+			if (current != region) {
+				// 已经停止
+				return;
+			}
+			region.awaitWriters();
+			Region next = null;
+			try {
+				long end = region.fileOffset + region.limit;
+				int size = (int) Math.max(regionSize.getSize(), minSize);
+				if (end >= maxFileSize.getSize()) {
+					finish(region);
+					rollover(region.file);
+					next = mapRegion(region.file, 0, size);
+				} else {
+					next = mapRegion(region.file, end, size);
+				}
+			} catch (IOException e) {
+				addError("Failed to map next region of file [" + fileName + "]", e);
+			} finally {
+				// 映射失败时current为null,之后的日志丢弃
+				current = next;
+			}
+		}
+	}
+
+	private Region mapRegion(File file, long offset, int size) throws IOException {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		try {
+			// channel关闭之后映射依然有效,映射超过文件长度时文件自动扩展
+			MappedByteBuffer buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, offset, size);
+			return new Region(file, offset, buffer);
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+
+	/*
+	 * 分段不再写入后,把文件截断到实际写入的长度,去掉预分配的部分
+	 */
+	private void finish(Region region) throws IOException {
+		region.buffer.force();
+		truncate(region.file, region.fileOffset + region.limit);
+	}
+
+	private static void truncate(File file, long length) throws IOException {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		try {
+			randomAccessFile.setLength(length);
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+
+	/*
+	 * xxx.log -> xxx.log.1 -> ... -> xxx.log.maxIndex,超过maxIndex的删除
+	 */
+	private void rollover(File file) {
+		String path = file.getPath();
+		if (maxIndex <= 0) {
+			if (!file.delete()) {
+				addWarn("Failed to delete file [" + path + "]");
+			}
+			return;
+		}
+		File oldest = new File(path + "." + maxIndex);
+		if (oldest.exists() && !oldest.delete()) {
+			addWarn("Failed to delete file [" + oldest.getPath() + "]");
+		}
+		for (int i = maxIndex - 1; i >= 1; i--) {
+			File from = new File(path + "." + i);
+			if (from.exists() && !from.renameTo(new File(path + "." + (i + 1)))) {
+				addWarn("Failed to rename file [" + from.getPath() + "]");
+			}
+		}
+		if (!file.renameTo(new File(path + ".1"))) {
+			addWarn("Failed to rename file [" + path + "]");
+		}
+	}
+
+	/*
+	 * 截掉上次进程崩溃时留在文件末尾的预分配0字节
+	 *
+	 * @return 文件中实际数据的长度
+	 */
+	private static long trimPreallocated(File file) throws IOException {
+		if (!file.exists()) {
+			return 0;
+		}
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		try {
+			long end = randomAccessFile.length();
+			byte[] block = new byte[TRIM_BLOCK_SIZE];
+			trim: while (end > 0) {
+				int length = (int) Math.min(TRIM_BLOCK_SIZE, end);
+				randomAccessFile.seek(end - length);
+				randomAccessFile.readFully(block, 0, length);
+				for (int i = length - 1; i >= 0; i--) {
+					if (0 != block[i]) {
+						end = end - length + i + 1;
+						break trim;
+					}
+				}
+				end -= length;
+			}
+			if (end != randomAccessFile.length()) {
+				randomAccessFile.setLength(end);
+			}
+			return end;
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+
+	public String getFile() {
+		return fileName;
+	}
+
+	public void setFile(String file) {
+		this.fileName = null == file ? null : file.trim();
+	}
+
+	public boolean isAppend() {
+		return append;
+	}
+
+	public void setAppend(boolean append) {
+		this.append = append;
+	}
+
+	public FileSize getRegionSize() {
+		return regionSize;
+	}
+
+	public void setRegionSize(FileSize regionSize) {
+		this.regionSize = regionSize;
+	}
+
+	public FileSize getMaxFileSize() {
+		return maxFileSize;
+	}
+
+	public void setMaxFileSize(FileSize maxFileSize) {
+		this.maxFileSize = maxFileSize;
+	}
+
+	public int getMaxIndex() {
+		return maxIndex;
+	}
+
+	public void setMaxIndex(int maxIndex) {
+		this.maxIndex = maxIndex;
+	}
+
+	public long getFlushInterval() {
+		return flushInterval;
+	}
+
+	/**
+	 * @param flushInterval force到磁盘的间隔毫秒数,0表示只在滚动和停止时force
+	 */
+	public void setFlushInterval(long flushInterval) {
+		this.flushInterval = flushInterval;
+	}
+
+	public Encoder<E> getEncoder() {
+		return encoder;
+	}
+
+	public void setEncoder(Encoder<E> encoder) {
+		this.encoder = encoder;
+	}
+
+	public Layout<E> getLayout() {
+		return layout;
+	}
+
+	public void setLayout(Layout<E> layout) {
+		this.layout = layout;
+	}
+
+	/**
+	 * 文件中映射的一个分段
+	 */
+	private static final class Region {
+		final File file;
+		final long fileOffset;
+		final MappedByteBuffer buffer;
+		final int capacity;
+		/**
+		 * 下一次预留的位置,预留失败后会超过capacity
+		 */
+		final AtomicInteger position = new AtomicInteger(0);
+		/**
+		 * 正在预留或者写入的线程数,切换分段前等待写入完成
+		 */
+		final AtomicInteger writers = new AtomicInteger(0);
+		/**
+		 * 分段中实际写入的长度,第一个预留失败的线程设置
+		 */
+		volatile int limit = -1;
+
+		Region(File file, long fileOffset, MappedByteBuffer buffer) {
+			this.file = file;
+			this.fileOffset = fileOffset;
+			this.buffer = buffer;
+			this.capacity = buffer.capacity();
+		}
+
+		/*
+		 * 停止时占满剩余空间,之后的预留都会失败,再等待已经预留的线程写完
+		 */
+		void close() {
+			int start = position.getAndAdd(capacity + 1);
+			if (start >= 0 && start <= capacity) {
+				limit = start;
+			} else {
+				while (limit < 0) {
+					Thread.yield();
+				}
+			}
+			awaitWriters();
+		}
+
+		void awaitWriters() {
+			while (writers.get() > 0) {
+				Thread.yield();
+			}
+		}
+	}
+
+	/**
+	 * 线程自己的编码缓冲区,同时缓存当前分段的ByteBuffer视图
+	 */
+	private static final class EncodeBuffer {
+		private final CharsetEncoder encoder;
+		private char[] chars = new char[256];
+		private CharBuffer charBuffer = CharBuffer.wrap(chars);
+		private ByteBuffer byteBuffer = ByteBuffer.allocate(1024);
+		private Region viewRegion;
+		private ByteBuffer view;
+
+		EncodeBuffer(Charset charset) {
+			// 和String.getBytes一样替换无法编码的字符
+			this.encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		}
+
+		/*
+		 * 返回的ByteBuffer在下一次编码之前有效
+		 */
+		ByteBuffer encode(String text) {
+			int length = text.length();
+			if (length > MAX_REUSED_CHARS) {
+				return ByteBuffer.wrap(text.getBytes(encoder.charset()));
+			}
+			if (chars.length < length) {
+				chars = new char[Math.min(MAX_REUSED_CHARS, Math.max(length, chars.length * 2))];
+				charBuffer = CharBuffer.wrap(chars);
+			}
+			int maxBytes = (int) Math.ceil(length * (double) encoder.maxBytesPerChar());
+			if (byteBuffer.capacity() < maxBytes) {
+				byteBuffer = ByteBuffer.allocate(maxBytes);
+			}
+			text.getChars(0, length, chars, 0);
+			charBuffer.clear();
+			charBuffer.limit(length);
+			byteBuffer.clear();
+			encoder.reset();
+			encoder.encode(charBuffer, byteBuffer, true);
+			encoder.flush(byteBuffer);
+			byteBuffer.flip();
+			return byteBuffer;
+		}
+
+		/*
+		 * 线程第一次写入分段时创建视图,之后重复使用
+		 */
+		ByteBuffer view(Region region) {
+			if (viewRegion != region) {
+				view = region.buffer.duplicate();
+				viewRegion = region;
+			}
+			view.clear();
+			return view;
+		}
+	}
+
+	/**
+	 * 定期把当前分段force到磁盘
+	 */
+	private class Flusher implements Runnable {
+		public void run() {
+			while (isStarted()) {
+				try {
+					Thread.sleep(flushInterval);
+				} catch (InterruptedException e) {
+					return;
+				}
+				synchronized (regionLock) {
+					Region region = current;
+					if (null != region) {
+						region.buffer.force();
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,151 @@
+package com.alibaba.middleware.innerlog.async;
+
+/**
+ * appKey异步输出日志的配置
+ *
+ * 开启后记录日志的线程只把日志事件放入该appKey的无锁队列,由后台线程批量交给内置的logback输出,
+ * 不受logback配置中appender的锁和磁盘IO影响。
+ *
+ * 注: 日志参数在后台线程中格式化,异步模式下有以下限制:
+ * 1. 无法获取调用方的位置信息,%class,%method,%line等输出为空(logback中为'?')
+ * 2. MDC在记录日志时从调用线程获取并随事件放入队列,之后对MDC的修改不影响已经记录的日志;
+ *    SPILL方式下写入磁盘溢出队列的事件不保存MDC,%X输出为空
+ *
+ * version 1.0
+ */
+public class AsyncConfig {
+
+	/**
+	 * 队列容量的上限,超过时按该值处理
+	 */
+	public static final int MAX_BUFFER_SIZE = 1 << 30;
+
+	/**
+	 * 队列的容量,会向上取整为2的幂,最大为MAX_BUFFER_SIZE
+	 */
+	private int bufferSize = 8192;
+
+	/**
+	 * 后台线程每批最多处理的日志事件数
+	 */
+	private int batchSize = 256;
+
+	/**
+	 * 队列为空时后台线程的等待方式
+	 */
+	private WaitStrategy waitStrategy = WaitStrategy.BLOCK;
+
+	/**
+	 * 队列已满时记录日志的线程的处理方式
+	 */
+	private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+	/**
+	 * SPILL方式溢出队列的目录,为null时使用~/.inner-logger/appKey
+	 */
+	private String spillDirectory;
+
+	/**
+	 * SPILL方式每个溢出分段文件的大小
+	 */
+	private int spillSegmentSize = 16 * 1024 * 1024;
+
+	/**
+	 * SPILL方式溢出分段文件的总大小上限
+	 */
+	private long maxSpillSize = 512L * 1024 * 1024;
+
+	/**
+	 * 无垃圾模式: 记录日志的线程不创建对象(线程名称按线程缓存),后台线程重复使用日志事件和参数数组
+	 */
+	private boolean garbageFree = false;
+
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	public void setBufferSize(int bufferSize) {
+		if (bufferSize <= 0) {
+			throw new IllegalArgumentException("bufferSize must be positive: " + bufferSize);
+		}
+		this.bufferSize = Math.min(bufferSize, MAX_BUFFER_SIZE);
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+		}
+		this.batchSize = batchSize;
+	}
+
+	public WaitStrategy getWaitStrategy() {
+		return waitStrategy;
+	}
+
+	public void setWaitStrategy(WaitStrategy waitStrategy) {
+		if (null == waitStrategy) {
+			throw new IllegalArgumentException("waitStrategy is null");
+		}
+		this.waitStrategy = waitStrategy;
+	}
+
+	public OverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+		if (null == overflowPolicy) {
+			throw new IllegalArgumentException("overflowPolicy is null");
+		}
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	public String getSpillDirectory() {
+		return spillDirectory;
+	}
+
+	public void setSpillDirectory(String spillDirectory) {
+		this.spillDirectory = spillDirectory;
+	}
+
+	public int getSpillSegmentSize() {
+		return spillSegmentSize;
+	}
+
+	public void setSpillSegmentSize(int spillSegmentSize) {
+		if (spillSegmentSize < 4096) {
+			throw new IllegalArgumentException("spillSegmentSize must be at least 4096: " + spillSegmentSize);
+		}
+		this.spillSegmentSize = spillSegmentSize;
+	}
+
+	public long getMaxSpillSize() {
+		return maxSpillSize;
+	}
+
+	public void setMaxSpillSize(long maxSpillSize) {
+		if (maxSpillSize <= 0) {
+			throw new IllegalArgumentException("maxSpillSize must be positive: " + maxSpillSize);
+		}
+		this.maxSpillSize = maxSpillSize;
+	}
+
+	public boolean isGarbageFree() {
+		return garbageFree;
+	}
+
+	public void setGarbageFree(boolean garbageFree) {
+		this.garbageFree = garbageFree;
+	}
+
+	public String toString() {
+		return "AsyncConfig{bufferSize=" + bufferSize + ", batchSize=" + batchSize + ", waitStrategy="
+				+ waitStrategy + ", overflowPolicy=" + overflowPolicy + ", spillDirectory=" + spillDirectory
+				+ ", spillSegmentSize=" + spillSegmentSize + ", maxSpillSize=" + maxSpillSize + ", garbageFree="
+				+ garbageFree + "}";
+	}
+}
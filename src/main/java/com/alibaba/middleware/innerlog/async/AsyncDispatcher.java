@@ -0,0 +1,625 @@
+package com.alibaba.middleware.innerlog.async;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import com.alibaba.middleware.innerlog.bridge.EventDispatcher;
+
+/**
+ * appKey的异步日志分发器
+ *
+ * 记录日志的线程把事件写入预先分配的AsyncRingBuffer,一个后台线程按批取出事件,
+ * 通过LoggerClassLoader中define的EventDispatcher交给内置的logback输出。
+ * 队列满时按照OverflowPolicy等待或者丢弃日志,丢弃的日志按级别精确计数,
+ * 停止丢弃一段时间后后台线程通过root logger输出一条WARN级别的汇总日志。
+ * SPILL方式下队列满时事件按顺序写入磁盘上的SpillQueue,溢出队列不为空时新的事件也写入溢出队列,
+ * 后台线程输出完内存队列后再从溢出队列按顺序读出,保证同一个线程记录的日志按顺序输出。
+ *
+ * 记录日志的线程的MDC在放入队列时获取,后台线程输出时使用。
+ *
+ * 无垃圾模式下记录日志的线程不创建对象,后台线程重复使用参数数组,
+ * 由Slf4jEventDispatcher重复使用日志事件。
+ *
+ * 停止时后台线程会先输出队列中剩余的事件,并等待已经申请槽位的线程写入完成,停止之后记录的日志
+ * 直接在调用线程中同步输出。记录日志的线程在发布事件之后发现已经停止时,自己取出队列中剩余的事件输出,
+ * 避免后台线程退出之后才发布的事件丢失。
+ *
+ * version 1.0
+ */
+public class AsyncDispatcher implements Runnable {
+
+	/**
+	 * 等待时先自旋和yield的次数
+	 */
+	private final static int SPIN_TRIES = 100;
+	private final static int YIELD_TRIES = 100;
+	/**
+	 * SLEEP方式每次park的时间
+	 */
+	private final static long SLEEP_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+	/**
+	 * 队列满时记录日志的线程每次park的时间
+	 */
+	private final static long PRODUCER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+	/**
+	 * 停止时等待后台线程输出剩余事件的时间
+	 */
+	private final static long STOP_TIMEOUT_MILLIS = 5000;
+	/**
+	 * 超过该时间没有再丢弃日志时输出丢弃的汇总日志
+	 */
+	private final static long DROP_QUIET_NANOS = TimeUnit.MILLISECONDS.toNanos(1000);
+	/**
+	 * publish中表示日志已经按照OverflowPolicy丢弃
+	 */
+	private final static long DROPPED = -2;
+	/**
+	 * 停止时最多花费在等待写入中的槽位和输出溢出队列上的时间,溢出队列中剩余的事件保留在磁盘上,下次启动时恢复
+	 */
+	private final static long STOP_DRAIN_NANOS = TimeUnit.MILLISECONDS.toNanos(3000);
+	/**
+	 * 1.8及以下的JVM中Thread.getName每次都会创建String,无垃圾模式下按线程缓存线程名称
+	 */
+	private final static boolean THREAD_NAME_ALLOCATES = Thread.currentThread().getName() != Thread.currentThread()
+			.getName();
+	private final static ThreadLocal<String> THREAD_NAMES = new ThreadLocal<String>();
+	private final static String SPILL_ROOT_DIR = System.getProperty("user.home") + File.separator + ".inner-logger";
+	private final static String DROP_SUMMARY_MESSAGE = "inner-logger async queue overflow, {} dropped {} events, "
+			+ "ERROR: {}, WARN: {}, INFO: {}, DEBUG: {}, TRACE: {}, total dropped: {}";
+
+	private final EventDispatcher eventDispatcher;
+	private final AsyncRingBuffer ringBuffer;
+	private final WaitStrategy waitStrategy;
+	private final OverflowPolicy overflowPolicy;
+	private final int batchSize;
+	private final boolean garbageFree;
+	/**
+	 * 无垃圾模式下后台线程重复使用的参数数组,按参数个数存放
+	 */
+	private final Object[][] argumentArrays = new Object[AsyncEvent.MAX_INLINE_ARGUMENTS + 1][];
+	private final Thread consumer;
+	private final Thread shutdownHook;
+	/**
+	 * 输出丢弃汇总日志使用的内置logback的root logger
+	 */
+	private final Object summaryLogger;
+	/**
+	 * SPILL方式的磁盘溢出队列,目录不可用时为null,按照丢弃新日志处理
+	 */
+	private final SpillQueue spillQueue;
+
+	/**
+	 * 按级别(level / 10)累计丢弃的日志数
+	 */
+	private final AtomicLongArray droppedCounts = new AtomicLongArray(EventDispatcher.ERROR_INT / 10 + 1);
+	/**
+	 * 最近一次丢弃日志的时间(System.nanoTime)
+	 */
+	private volatile long lastDropNanos = 0;
+	/**
+	 * 以下两个字段只在后台线程中读写,记录已经输出到汇总日志中的丢弃数
+	 */
+	private final long[] reportedCounts = new long[EventDispatcher.ERROR_INT / 10 + 1];
+	private long reportedDropNanos = 0;
+
+	private volatile boolean running = true;
+	/**
+	 * BLOCK方式下后台线程是否已经或者将要park,记录日志的线程发现后负责唤醒
+	 */
+	private volatile boolean consumerWaiting = false;
+
+	public AsyncDispatcher(String appKey, AsyncConfig asyncConfig, EventDispatcher eventDispatcher,
+			Object summaryLogger) {
+		this.eventDispatcher = eventDispatcher;
+		this.summaryLogger = summaryLogger;
+		this.ringBuffer = new AsyncRingBuffer(asyncConfig.getBufferSize());
+		this.waitStrategy = asyncConfig.getWaitStrategy();
+		this.overflowPolicy = asyncConfig.getOverflowPolicy();
+		this.batchSize = asyncConfig.getBatchSize();
+		this.garbageFree = asyncConfig.isGarbageFree();
+		for (int i = 0; i < argumentArrays.length; i++) {
+			argumentArrays[i] = new Object[i];
+		}
+		this.spillQueue = OverflowPolicy.SPILL == overflowPolicy ? openSpillQueue(appKey, asyncConfig) : null;
+		this.consumer = new Thread(this, "inner-logger-async-" + appKey);
+		this.consumer.setDaemon(true);
+		// JVM退出时输出队列中剩余的日志
+		this.shutdownHook = new Thread(new Runnable() {
+			public void run() {
+				stopConsumer();
+			}
+		}, "inner-logger-async-shutdown-" + appKey);
+	}
+
+	private static SpillQueue openSpillQueue(String appKey, AsyncConfig asyncConfig) {
+		File directory = null != asyncConfig.getSpillDirectory() ? new File(asyncConfig.getSpillDirectory())
+				: new File(SPILL_ROOT_DIR, toDirectoryName(appKey));
+		try {
+			SpillQueue spillQueue = SpillQueue.open(directory, asyncConfig.getSpillSegmentSize(),
+					asyncConfig.getMaxSpillSize());
+			if (null == spillQueue) {
+				System.err.println("inner-logger spill directory is used by other process, overflow events will be dropped: "
+						+ directory.getAbsolutePath());
+			}
+			return spillQueue;
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/*
+	 * appKey中不能用作目录名称的字符替换为'_'
+	 */
+	private static String toDirectoryName(String appKey) {
+		if (null == appKey || 0 == appKey.length()) {
+			return "default";
+		}
+		StringBuilder name = new StringBuilder(appKey.length());
+		for (int i = 0; i < appKey.length(); i++) {
+			char c = appKey.charAt(i);
+			boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || '.' == c
+					|| '-' == c || '_' == c;
+			name.append(valid ? c : '_');
+		}
+		return name.toString();
+	}
+
+	public void start() {
+		consumer.start();
+		try {
+			Runtime.getRuntime().addShutdownHook(shutdownHook);
+		} catch (IllegalStateException e) {
+			// JVM正在退出
+		}
+	}
+
+	/**
+	 * 停止后台线程,输出队列中剩余的事件后返回
+	 */
+	public void stop() {
+		stopConsumer();
+		try {
+			Runtime.getRuntime().removeShutdownHook(shutdownHook);
+		} catch (IllegalStateException e) {
+			// JVM正在退出,shutdownHook会自己执行
+		}
+	}
+
+	private void stopConsumer() {
+		running = false;
+		LockSupport.unpark(consumer);
+		if (Thread.currentThread() == consumer) {
+			return;
+		}
+		try {
+			consumer.join(STOP_TIMEOUT_MILLIS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * 记录日志的线程调用,把事件放入队列
+	 */
+	public void publish(Object logger, int level, String message, int argumentCount, Object argument1,
+			Object argument2, Object[] arguments, Throwable throwable) {
+		publish(logger, level, message, argumentCount, argument1, argument2, null, null, null, null, arguments, 0L,
+				throwable);
+	}
+
+	/**
+	 * 3到6个参数直接放入槽位,基本类型的参数按位放入primitive,argumentCount的取值见AsyncEvent
+	 */
+	public void publish(Object logger, int level, String message, int argumentCount, Object argument1,
+			Object argument2, Object argument3, Object argument4, Object argument5, Object argument6,
+			Object[] arguments, long primitive, Throwable throwable) {
+		long timeStamp = System.currentTimeMillis();
+		String threadName = garbageFree ? currentThreadName() : Thread.currentThread().getName();
+		Map<String, String> mdc = eventDispatcher.getMdcPropertyMap();
+		if (!running || Thread.currentThread() == consumer) {
+			// 已经停止,或者appender在后台线程中又记录了日志,直接输出避免等待自己
+			dispatchDirect(logger, level, message, AsyncEvent.toArgumentArray(argumentCount, argument1, argument2,
+					argument3, argument4, argument5, argument6, arguments, primitive), throwable, timeStamp,
+					threadName, mdc);
+			return;
+		}
+		SpillQueue spill = spillQueue;
+		if (null != spill && !spill.isEmpty()) {
+			// 溢出队列中还有更早的事件,继续写入溢出队列保证顺序
+			spill(spill, logger, level, message, AsyncEvent.toArgumentArray(argumentCount, argument1, argument2,
+					argument3, argument4, argument5, argument6, arguments, primitive), throwable, timeStamp,
+					threadName);
+			return;
+		}
+		long pos = ringBuffer.tryClaim();
+		if (pos < 0 && null != spill) {
+			spill(spill, logger, level, message, AsyncEvent.toArgumentArray(argumentCount, argument1, argument2,
+					argument3, argument4, argument5, argument6, arguments, primitive), throwable, timeStamp,
+					threadName);
+			return;
+		}
+		if (pos < 0) {
+			pos = claimOnOverflow(logger, level);
+			if (DROPPED == pos) {
+				return;
+			}
+			if (pos < 0) {
+				dispatchDirect(logger, level, message, AsyncEvent.toArgumentArray(argumentCount, argument1,
+						argument2, argument3, argument4, argument5, argument6, arguments, primitive), throwable,
+						timeStamp, threadName, mdc);
+				return;
+			}
+		}
+		ringBuffer.get(pos).set(logger, level, message, argumentCount, argument1, argument2, argument3, argument4,
+				argument5, argument6, arguments, primitive, throwable, timeStamp, threadName, mdc);
+		// 发布和之后读取running,consumerWaiting不能重排,否则后台线程可能错过唤醒,或者停止时漏掉该事件
+		ringBuffer.publish(pos);
+		if (!running) {
+			// 后台线程可能已经输出完剩余的事件并退出
+			drain(Integer.MAX_VALUE, false);
+		} else if (WaitStrategy.BLOCK == waitStrategy && consumerWaiting) {
+			LockSupport.unpark(consumer);
+		}
+	}
+
+	/*
+	 * 缓存的线程名称,线程在第一次记录日志之后改名不会生效
+	 */
+	private static String currentThreadName() {
+		if (!THREAD_NAME_ALLOCATES) {
+			return Thread.currentThread().getName();
+		}
+		String threadName = THREAD_NAMES.get();
+		if (null == threadName) {
+			threadName = Thread.currentThread().getName();
+			THREAD_NAMES.set(threadName);
+		}
+		return threadName;
+	}
+
+	/*
+	 * 队列已满,按照OverflowPolicy等待或者丢弃,丢弃新的日志时返回DROPPED,停止时返回-1
+	 */
+	private long claimOnOverflow(Object logger, int level) {
+		switch (overflowPolicy) {
+		case SPILL:
+			// 溢出队列不可用
+		case DROP_NEW:
+			drop(level);
+			return DROPPED;
+		case DROP_BELOW_WARN:
+			if (level < EventDispatcher.WARN_INT) {
+				drop(level);
+				return DROPPED;
+			}
+			return claimWait();
+		case DROP_OLDEST:
+			return claimDropOldest();
+		default:
+			return claimWait();
+		}
+	}
+
+	/*
+	 * 从队列头部取出最早的事件丢弃,直到申请到空闲槽位,停止时返回-1
+	 */
+	private long claimDropOldest() {
+		long pos;
+		while ((pos = ringBuffer.tryClaim()) < 0) {
+			if (!running) {
+				return -1;
+			}
+			long oldest = ringBuffer.tryTake();
+			if (oldest < 0) {
+				// 最早的槽位还在被其他线程写入
+				Thread.yield();
+				continue;
+			}
+			AsyncEvent event = ringBuffer.get(oldest);
+			int level = event.level;
+			event.clear();
+			ringBuffer.release(oldest);
+			drop(level);
+		}
+		return pos;
+	}
+
+	/*
+	 * 在记录日志的线程中格式化后写入溢出队列,超过上限时丢弃
+	 */
+	private void spill(SpillQueue spill, Object logger, int level, String message, Object[] argumentArray,
+			Throwable throwable, long timeStamp, String threadName) {
+		boolean spilled = false;
+		try {
+			String formatted = eventDispatcher.format(message, argumentArray, throwable);
+			spilled = spill.append(level, timeStamp, eventDispatcher.getLoggerName(logger), threadName, formatted);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		if (!spilled) {
+			if (!running) {
+				// 停止时溢出队列已经关闭
+				dispatchDirect(logger, level, message, argumentArray, throwable, timeStamp, threadName,
+						eventDispatcher.getMdcPropertyMap());
+			} else {
+				drop(level);
+			}
+			return;
+		}
+		if (consumerWaiting) {
+			LockSupport.unpark(consumer);
+		}
+	}
+
+	private void drop(int level) {
+		droppedCounts.incrementAndGet(levelIndex(level));
+		lastDropNanos = System.nanoTime();
+	}
+
+	private static int levelIndex(int level) {
+		return Math.max(0, Math.min(EventDispatcher.ERROR_INT, level)) / 10;
+	}
+
+	/*
+	 * 队列已满,等待后台线程取出事件,停止时返回-1
+	 */
+	private long claimWait() {
+		int tries = 0;
+		long pos;
+		while ((pos = ringBuffer.tryClaim()) < 0) {
+			if (!running) {
+				return -1;
+			}
+			if (consumerWaiting) {
+				LockSupport.unpark(consumer);
+			}
+			if (tries < SPIN_TRIES) {
+				tries++;
+			} else if (tries < SPIN_TRIES + YIELD_TRIES) {
+				tries++;
+				Thread.yield();
+			} else {
+				LockSupport.parkNanos(PRODUCER_PARK_NANOS);
+			}
+		}
+		return pos;
+	}
+
+	private void dispatchDirect(Object logger, int level, String message, Object[] argumentArray,
+			Throwable throwable, long timeStamp, String threadName, Map<String, String> mdc) {
+		eventDispatcher.dispatch(logger, level, message, argumentArray, throwable, timeStamp, threadName, mdc);
+	}
+
+	public void run() {
+		int idleCount = 0;
+		while (running) {
+			int count = drain(batchSize, garbageFree);
+			if (count < batchSize && null != spillQueue) {
+				// 内存队列已经输出完,再输出溢出队列中更晚的事件
+				count += drainSpill(batchSize - count);
+			}
+			if (count < batchSize) {
+				// 队列中的事件已经取完,检查是否需要输出丢弃的汇总
+				reportDropped(false);
+			}
+			if (count > 0) {
+				idleCount = 0;
+			} else {
+				idleCount = idle(idleCount);
+			}
+		}
+		// 停止前输出队列中剩余的事件和丢弃的汇总
+		long deadline = System.nanoTime() + STOP_DRAIN_NANOS;
+		for (;;) {
+			if (drain(batchSize, garbageFree) > 0) {
+				continue;
+			}
+			if (ringBuffer.isDrained() || System.nanoTime() - deadline >= 0) {
+				break;
+			}
+			// 有线程已经申请了槽位但还没有发布,发布后发现已经停止的线程会自己输出
+			Thread.yield();
+		}
+		if (null != spillQueue) {
+			// 关闭之后写入溢出队列失败的线程直接输出
+			while (!(0 == drainSpill(batchSize) && spillQueue.closeIfEmpty())) {
+				if (System.nanoTime() - deadline >= 0) {
+					// 剩余的事件保留在磁盘上
+					spillQueue.close();
+					break;
+				}
+			}
+		}
+		reportDropped(true);
+	}
+
+	/*
+	 * 从溢出队列中按顺序读出事件输出
+	 */
+	private int drainSpill(int maxCount) {
+		int count = 0;
+		SpilledEvent event;
+		while (count < maxCount && null != (event = spillQueue.poll())) {
+			count++;
+			try {
+				eventDispatcher.dispatch(eventDispatcher.getLogger(event.loggerName), event.level, event.message,
+						null, null, event.timeStamp, event.threadName, null);
+			} catch (Throwable e) {
+				e.printStackTrace();
+			}
+		}
+		return count;
+	}
+
+	private boolean hasUnreportedDrops() {
+		return lastDropNanos != reportedDropNanos;
+	}
+
+	/*
+	 * 停止丢弃超过DROP_QUIET_NANOS后输出一条丢弃的汇总日志,只在后台线程中调用
+	 */
+	private void reportDropped(boolean force) {
+		long lastDrop = lastDropNanos;
+		if (lastDrop == reportedDropNanos || (!force && System.nanoTime() - lastDrop < DROP_QUIET_NANOS)) {
+			return;
+		}
+		reportedDropNanos = lastDrop;
+		long[] counts = new long[reportedCounts.length];
+		long dropped = 0;
+		long total = 0;
+		for (int i = 0; i < counts.length; i++) {
+			long count = droppedCounts.get(i);
+			counts[i] = count - reportedCounts[i];
+			reportedCounts[i] = count;
+			dropped += counts[i];
+			total += count;
+		}
+		if (0 == dropped) {
+			return;
+		}
+		Object[] arguments = new Object[] { overflowPolicy, dropped, counts[4], counts[3], counts[2], counts[1],
+				counts[0], total };
+		try {
+			eventDispatcher.dispatch(summaryLogger, EventDispatcher.WARN_INT, DROP_SUMMARY_MESSAGE, arguments, null,
+					System.currentTimeMillis(), consumer.getName(), null);
+		} catch (Throwable e) {
+			e.printStackTrace();
+		}
+	}
+
+	/*
+	 * 按批取出事件输出,槽位先释放再交给logback,减少记录日志的线程等待。
+	 * 停止后记录日志的线程也会调用,这时不能使用后台线程的参数数组
+	 *
+	 * @param reuseArguments 是否使用后台线程重复使用的参数数组
+	 */
+	private int drain(int maxCount, boolean reuseArguments) {
+		int count = 0;
+		while (count < maxCount) {
+			long pos = ringBuffer.tryTake();
+			if (pos < 0) {
+				break;
+			}
+			AsyncEvent event = ringBuffer.get(pos);
+			Object logger = event.logger;
+			int level = event.level;
+			String message = event.message;
+			Object[] arguments = reuseArguments ? event.copyArguments(argumentArrays) : event.getArgumentArray();
+			boolean supplied = event.hasSuppliers();
+			Throwable throwable = event.throwable;
+			long timeStamp = event.timeStamp;
+			String threadName = event.threadName;
+			Map<String, String> mdc = event.mdc;
+			event.clear();
+			ringBuffer.release(pos);
+			count++;
+			try {
+				if (supplied) {
+					AsyncEvent.supply(arguments);
+				}
+				eventDispatcher.dispatch(logger, level, message, arguments, throwable, timeStamp, threadName, mdc);
+			} catch (Throwable e) {
+				// 单个事件输出失败不影响后续的事件
+				e.printStackTrace();
+			} finally {
+				if (reuseArguments && null != arguments && arguments.length < argumentArrays.length
+						&& arguments == argumentArrays[arguments.length]) {
+					Arrays.fill(arguments, null);
+				}
+			}
+		}
+		return count;
+	}
+
+	/*
+	 * 队列为空时按照等待方式等待
+	 */
+	private int idle(int idleCount) {
+		switch (waitStrategy) {
+		case BUSY_SPIN:
+			return idleCount;
+		case YIELD:
+			if (idleCount < SPIN_TRIES) {
+				return idleCount + 1;
+			}
+			Thread.yield();
+			return idleCount;
+		case SLEEP:
+			if (idleCount < SPIN_TRIES) {
+				return idleCount + 1;
+			}
+			if (idleCount < SPIN_TRIES + YIELD_TRIES) {
+				Thread.yield();
+				return idleCount + 1;
+			}
+			LockSupport.parkNanos(this, SLEEP_NANOS);
+			return idleCount;
+		default:
+			if (idleCount < SPIN_TRIES) {
+				return idleCount + 1;
+			}
+			consumerWaiting = true;
+			if (running && ringBuffer.isEmpty() && (null == spillQueue || spillQueue.isEmpty())) {
+				if (hasUnreportedDrops()) {
+					// 等待输出丢弃的汇总日志
+					LockSupport.parkNanos(this, DROP_QUIET_NANOS);
+				} else {
+					LockSupport.park(this);
+				}
+			}
+			consumerWaiting = false;
+			return idleCount;
+		}
+	}
+
+	/**
+	 * @return 队列中等待输出的事件数,近似值
+	 */
+	public int getPendingCount() {
+		return ringBuffer.size();
+	}
+
+	/**
+	 * @return 该分发器按照OverflowPolicy丢弃的日志总数
+	 */
+	public long getDroppedCount() {
+		long total = 0;
+		for (int i = 0; i < droppedCounts.length(); i++) {
+			total += droppedCounts.get(i);
+		}
+		return total;
+	}
+
+	/**
+	 * @param level 日志级别,取值和EventDispatcher中的一致
+	 * @return 该级别被丢弃的日志数
+	 */
+	public long getDroppedCount(int level) {
+		return droppedCounts.get(levelIndex(level));
+	}
+
+	/**
+	 * @return 磁盘溢出队列中等待输出的事件数,没有使用溢出队列时返回0
+	 */
+	public long getSpilledCount() {
+		return null == spillQueue ? 0 : spillQueue.getPendingCount();
+	}
+
+	public OverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	public int getBufferSize() {
+		return ringBuffer.getCapacity();
+	}
+}
@@ -0,0 +1,255 @@
+package com.alibaba.middleware.innerlog.async;
+
+import java.util.Map;
+
+import com.alibaba.middleware.innerlog.ArgumentSupplier;
+
+/**
+ * 异步队列中预先分配的日志事件槽位,被后台线程取出后清空并重复使用
+ *
+ * 字段在记录日志的线程中写入,通过AsyncRingBuffer发布序号保证对后台线程可见。
+ * 最多6个参数直接存放在槽位中,一个基本类型的参数按位存放在primitive中,
+ * 记录日志的线程不需要创建参数数组,也不需要装箱。ArgumentSupplier参数在后台线程中计算。
+ * 记录日志的线程的MDC在放入队列时获取,后台线程输出时使用。
+ *
+ * version 1.0
+ */
+final class AsyncEvent {
+
+	/**
+	 * 参数个数,ARGUMENT_ARRAY表示参数在arguments数组中
+	 */
+	static final int ARGUMENT_ARRAY = -1;
+	/**
+	 * 以下取值表示只有一个基本类型的参数,存放在primitive中
+	 */
+	static final int INT_ARGUMENT = -2;
+	static final int LONG_ARGUMENT = -3;
+	static final int FLOAT_ARGUMENT = -4;
+	static final int DOUBLE_ARGUMENT = -5;
+	static final int BOOLEAN_ARGUMENT = -6;
+	static final int CHAR_ARGUMENT = -7;
+	/**
+	 * 以下取值表示参数是ArgumentSupplier,分别存放在argument1,argument1和argument2,arguments中
+	 */
+	static final int ONE_SUPPLIER = -8;
+	static final int TWO_SUPPLIERS = -9;
+	static final int SUPPLIER_ARRAY = -10;
+	private final static String FAILED_SUPPLIER = "[FAILED ArgumentSupplier.get()]";
+	/**
+	 * 槽位中最多直接存放的参数个数
+	 */
+	static final int MAX_INLINE_ARGUMENTS = 6;
+
+	Object logger;
+	int level;
+	String message;
+	int argumentCount;
+	Object argument1;
+	Object argument2;
+	Object argument3;
+	Object argument4;
+	Object argument5;
+	Object argument6;
+	Object[] arguments;
+	long primitive;
+	Throwable throwable;
+	long timeStamp;
+	String threadName;
+	Map<String, String> mdc;
+
+	void set(Object logger, int level, String message, int argumentCount, Object argument1, Object argument2,
+			Object argument3, Object argument4, Object argument5, Object argument6, Object[] arguments,
+			long primitive, Throwable throwable, long timeStamp, String threadName, Map<String, String> mdc) {
+		this.logger = logger;
+		this.level = level;
+		this.message = message;
+		this.argumentCount = argumentCount;
+		this.argument1 = argument1;
+		this.argument2 = argument2;
+		this.argument3 = argument3;
+		this.argument4 = argument4;
+		this.argument5 = argument5;
+		this.argument6 = argument6;
+		this.arguments = arguments;
+		this.primitive = primitive;
+		this.throwable = throwable;
+		this.timeStamp = timeStamp;
+		this.threadName = threadName;
+		this.mdc = mdc;
+	}
+
+	/**
+	 * 直接存放的参数在后台线程中才创建参数数组,记录日志的线程不需要分配。
+	 * ArgumentSupplier只复制不计算,槽位释放之后再调用supply
+	 */
+	Object[] getArgumentArray() {
+		if (hasSuppliers()) {
+			return copySuppliers(new Object[supplierCount(argumentCount, arguments)], argument1, argument2,
+					arguments);
+		}
+		return toArgumentArray(argumentCount, argument1, argument2, argument3, argument4, argument5, argument6,
+				arguments, primitive);
+	}
+
+	/**
+	 * 参数是否是ArgumentSupplier,复制出的参数数组需要再调用supply计算
+	 */
+	boolean hasSuppliers() {
+		return argumentCount <= ONE_SUPPLIER;
+	}
+
+	/**
+	 * 把直接存放的参数复制到target中,target的长度等于参数个数,基本类型的参数在这里装箱,
+	 * ArgumentSupplier只复制不计算,槽位释放之后再调用supply
+	 *
+	 * @return 参数在arguments数组中或者没有参数时返回arguments
+	 */
+	Object[] copyArguments(Object[][] targets) {
+		switch (argumentCount) {
+		case ONE_SUPPLIER:
+			return copySuppliers(targets[1], argument1, null, null);
+		case TWO_SUPPLIERS:
+			return copySuppliers(targets[2], argument1, argument2, null);
+		case SUPPLIER_ARRAY:
+			return copySuppliers(arguments.length < targets.length ? targets[arguments.length]
+					: new Object[arguments.length], null, null, arguments);
+		default:
+			break;
+		}
+		if (argumentCount < 0 && ARGUMENT_ARRAY != argumentCount) {
+			Object[] target = targets[1];
+			target[0] = box(argumentCount, primitive);
+			return target;
+		}
+		if (argumentCount <= 0) {
+			return arguments;
+		}
+		Object[] target = targets[argumentCount];
+		target[0] = argument1;
+		if (argumentCount > 1) {
+			target[1] = argument2;
+		}
+		if (argumentCount > 2) {
+			target[2] = argument3;
+		}
+		if (argumentCount > 3) {
+			target[3] = argument4;
+		}
+		if (argumentCount > 4) {
+			target[4] = argument5;
+		}
+		if (argumentCount > 5) {
+			target[5] = argument6;
+		}
+		return target;
+	}
+
+	private static int supplierCount(int argumentCount, Object[] suppliers) {
+		switch (argumentCount) {
+		case ONE_SUPPLIER:
+			return 1;
+		case TWO_SUPPLIERS:
+			return 2;
+		default:
+			return suppliers.length;
+		}
+	}
+
+	private static Object[] copySuppliers(Object[] target, Object supplier1, Object supplier2, Object[] suppliers) {
+		if (null != suppliers) {
+			System.arraycopy(suppliers, 0, target, 0, suppliers.length);
+			return target;
+		}
+		target[0] = supplier1;
+		if (target.length > 1) {
+			target[1] = supplier2;
+		}
+		return target;
+	}
+
+	/**
+	 * 计算参数数组中的ArgumentSupplier,替换为计算出的参数
+	 */
+	static void supply(Object[] arguments) {
+		for (int i = 0; i < arguments.length; i++) {
+			if (arguments[i] instanceof ArgumentSupplier) {
+				try {
+					arguments[i] = ((ArgumentSupplier) arguments[i]).get();
+				} catch (Throwable e) {
+					e.printStackTrace();
+					arguments[i] = FAILED_SUPPLIER;
+				}
+			}
+		}
+	}
+
+	static Object[] toArgumentArray(int argumentCount, Object argument1, Object argument2, Object argument3,
+			Object argument4, Object argument5, Object argument6, Object[] arguments, long primitive) {
+		switch (argumentCount) {
+		case ONE_SUPPLIER:
+		case TWO_SUPPLIERS:
+		case SUPPLIER_ARRAY:
+			Object[] supplied = copySuppliers(new Object[supplierCount(argumentCount, arguments)], argument1,
+					argument2, arguments);
+			supply(supplied);
+			return supplied;
+		case 0:
+			return null;
+		case 1:
+			return new Object[] { argument1 };
+		case 2:
+			return new Object[] { argument1, argument2 };
+		case 3:
+			return new Object[] { argument1, argument2, argument3 };
+		case 4:
+			return new Object[] { argument1, argument2, argument3, argument4 };
+		case 5:
+			return new Object[] { argument1, argument2, argument3, argument4, argument5 };
+		case 6:
+			return new Object[] { argument1, argument2, argument3, argument4, argument5, argument6 };
+		case ARGUMENT_ARRAY:
+			return arguments;
+		default:
+			return new Object[] { box(argumentCount, primitive) };
+		}
+	}
+
+	/*
+	 * 按照参数类型还原基本类型的参数
+	 */
+	private static Object box(int argumentCount, long primitive) {
+		switch (argumentCount) {
+		case INT_ARGUMENT:
+			return Integer.valueOf((int) primitive);
+		case LONG_ARGUMENT:
+			return Long.valueOf(primitive);
+		case FLOAT_ARGUMENT:
+			return Float.valueOf(Float.intBitsToFloat((int) primitive));
+		case DOUBLE_ARGUMENT:
+			return Double.valueOf(Double.longBitsToDouble(primitive));
+		case BOOLEAN_ARGUMENT:
+			return Boolean.valueOf(0 != primitive);
+		default:
+			return Character.valueOf((char) primitive);
+		}
+	}
+
+	/**
+	 * 释放引用,避免槽位持有已经输出的日志参数
+	 */
+	void clear() {
+		logger = null;
+		message = null;
+		argument1 = null;
+		argument2 = null;
+		argument3 = null;
+		argument4 = null;
+		argument5 = null;
+		argument6 = null;
+		arguments = null;
+		throwable = null;
+		threadName = null;
+		mdc = null;
+	}
+}
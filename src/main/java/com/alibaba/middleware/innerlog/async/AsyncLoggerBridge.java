@@ -0,0 +1,211 @@
+package com.alibaba.middleware.innerlog.async;
+
+import com.alibaba.middleware.innerlog.ArgumentSupplier;
+import com.alibaba.middleware.innerlog.bridge.EventDispatcher;
+import com.alibaba.middleware.innerlog.bridge.LoggerBridge;
+
+/**
+ * 异步输出的桥接实现,日志级别判断交给同步的桥接对象,日志事件放入AsyncDispatcher的队列
+ *
+ * 3到6个参数和基本类型的参数直接放入槽位,记录日志的线程不创建参数数组也不装箱,
+ * ArgumentSupplier参数由后台线程计算
+ *
+ * version 1.0
+ */
+public class AsyncLoggerBridge implements LoggerBridge {
+	/**
+	 * 同步调用内置sl4j的桥接对象
+	 */
+	private final LoggerBridge syncBridge;
+	/**
+	 * 真实的sl4j的Logger对象
+	 */
+	private final Object innerlogback;
+	private final AsyncDispatcher dispatcher;
+
+	public AsyncLoggerBridge(LoggerBridge syncBridge, Object innerlogback, AsyncDispatcher dispatcher) {
+		this.syncBridge = syncBridge;
+		this.innerlogback = innerlogback;
+		this.dispatcher = dispatcher;
+	}
+
+	public String getName() {
+		return syncBridge.getName();
+	}
+
+	public boolean isTraceEnabled() {
+		return syncBridge.isTraceEnabled();
+	}
+
+	public void trace(String msg) {
+		dispatcher.publish(innerlogback, EventDispatcher.TRACE_INT, msg, 0, null, null, null, null);
+	}
+
+	public void trace(String format, Object arg) {
+		dispatcher.publish(innerlogback, EventDispatcher.TRACE_INT, format, 1, arg, null, null, null);
+	}
+
+	public void trace(String format, Object arg1, Object arg2) {
+		dispatcher.publish(innerlogback, EventDispatcher.TRACE_INT, format, 2, arg1, arg2, null, null);
+	}
+
+	public void trace(String format, Object... arguments) {
+		dispatcher.publish(innerlogback, EventDispatcher.TRACE_INT, format, AsyncEvent.ARGUMENT_ARRAY, null, null,
+				arguments, null);
+	}
+
+	public void trace(String msg, Throwable t) {
+		dispatcher.publish(innerlogback, EventDispatcher.TRACE_INT, msg, 0, null, null, null, t);
+	}
+
+	public boolean isDebugEnabled() {
+		return syncBridge.isDebugEnabled();
+	}
+
+	public void debug(String msg) {
+		dispatcher.publish(innerlogback, EventDispatcher.DEBUG_INT, msg, 0, null, null, null, null);
+	}
+
+	public void debug(String format, Object arg) {
+		dispatcher.publish(innerlogback, EventDispatcher.DEBUG_INT, format, 1, arg, null, null, null);
+	}
+
+	public void debug(String format, Object arg1, Object arg2) {
+		dispatcher.publish(innerlogback, EventDispatcher.DEBUG_INT, format, 2, arg1, arg2, null, null);
+	}
+
+	public void debug(String format, Object... arguments) {
+		dispatcher.publish(innerlogback, EventDispatcher.DEBUG_INT, format, AsyncEvent.ARGUMENT_ARRAY, null, null,
+				arguments, null);
+	}
+
+	public void debug(String msg, Throwable t) {
+		dispatcher.publish(innerlogback, EventDispatcher.DEBUG_INT, msg, 0, null, null, null, t);
+	}
+
+	public boolean isInfoEnabled() {
+		return syncBridge.isInfoEnabled();
+	}
+
+	public void info(String msg) {
+		dispatcher.publish(innerlogback, EventDispatcher.INFO_INT, msg, 0, null, null, null, null);
+	}
+
+	public void info(String format, Object arg) {
+		dispatcher.publish(innerlogback, EventDispatcher.INFO_INT, format, 1, arg, null, null, null);
+	}
+
+	public void info(String format, Object arg1, Object arg2) {
+		dispatcher.publish(innerlogback, EventDispatcher.INFO_INT, format, 2, arg1, arg2, null, null);
+	}
+
+	public void info(String format, Object... arguments) {
+		dispatcher.publish(innerlogback, EventDispatcher.INFO_INT, format, AsyncEvent.ARGUMENT_ARRAY, null, null,
+				arguments, null);
+	}
+
+	public void info(String msg, Throwable t) {
+		dispatcher.publish(innerlogback, EventDispatcher.INFO_INT, msg, 0, null, null, null, t);
+	}
+
+	public boolean isWarnEnabled() {
+		return syncBridge.isWarnEnabled();
+	}
+
+	public void warn(String msg) {
+		dispatcher.publish(innerlogback, EventDispatcher.WARN_INT, msg, 0, null, null, null, null);
+	}
+
+	public void warn(String format, Object arg) {
+		dispatcher.publish(innerlogback, EventDispatcher.WARN_INT, format, 1, arg, null, null, null);
+	}
+
+	public void warn(String format, Object arg1, Object arg2) {
+		dispatcher.publish(innerlogback, EventDispatcher.WARN_INT, format, 2, arg1, arg2, null, null);
+	}
+
+	public void warn(String format, Object... arguments) {
+		dispatcher.publish(innerlogback, EventDispatcher.WARN_INT, format, AsyncEvent.ARGUMENT_ARRAY, null, null,
+				arguments, null);
+	}
+
+	public void warn(String msg, Throwable t) {
+		dispatcher.publish(innerlogback, EventDispatcher.WARN_INT, msg, 0, null, null, null, t);
+	}
+
+	public boolean isErrorEnabled() {
+		return syncBridge.isErrorEnabled();
+	}
+
+	public void error(String msg) {
+		dispatcher.publish(innerlogback, EventDispatcher.ERROR_INT, msg, 0, null, null, null, null);
+	}
+
+	public void error(String format, Object arg) {
+		dispatcher.publish(innerlogback, EventDispatcher.ERROR_INT, format, 1, arg, null, null, null);
+	}
+
+	public void error(String format, Object arg1, Object arg2) {
+		dispatcher.publish(innerlogback, EventDispatcher.ERROR_INT, format, 2, arg1, arg2, null, null);
+	}
+
+	public void error(String format, Object... arguments) {
+		dispatcher.publish(innerlogback, EventDispatcher.ERROR_INT, format, AsyncEvent.ARGUMENT_ARRAY, null, null,
+				arguments, null);
+	}
+
+	public void error(String msg, Throwable t) {
+		dispatcher.publish(innerlogback, EventDispatcher.ERROR_INT, msg, 0, null, null, null, t);
+	}
+
+	public void log(int level, String format, int argumentCount, Object arg1, Object arg2, Object arg3, Object arg4,
+			Object arg5, Object arg6) {
+		dispatcher.publish(innerlogback, level, format, argumentCount, arg1, arg2, arg3, arg4, arg5, arg6, null, 0L,
+				null);
+	}
+
+	public void log(int level, String format, int arg) {
+		dispatcher.publish(innerlogback, level, format, AsyncEvent.INT_ARGUMENT, null, null, null, null, null, null, null,
+				arg, null);
+	}
+
+	public void log(int level, String format, long arg) {
+		dispatcher.publish(innerlogback, level, format, AsyncEvent.LONG_ARGUMENT, null, null, null, null, null, null, null,
+				arg, null);
+	}
+
+	public void log(int level, String format, float arg) {
+		dispatcher.publish(innerlogback, level, format, AsyncEvent.FLOAT_ARGUMENT, null, null, null, null, null, null, null,
+				Float.floatToRawIntBits(arg), null);
+	}
+
+	public void log(int level, String format, double arg) {
+		dispatcher.publish(innerlogback, level, format, AsyncEvent.DOUBLE_ARGUMENT, null, null, null, null, null, null, null,
+				Double.doubleToRawLongBits(arg), null);
+	}
+
+	public void log(int level, String format, boolean arg) {
+		dispatcher.publish(innerlogback, level, format, AsyncEvent.BOOLEAN_ARGUMENT, null, null, null, null, null, null, null,
+				arg ? 1L : 0L, null);
+	}
+
+	public void log(int level, String format, char arg) {
+		dispatcher.publish(innerlogback, level, format, AsyncEvent.CHAR_ARGUMENT, null, null, null, null, null, null, null,
+				arg, null);
+	}
+
+	public void log(int level, String format, ArgumentSupplier supplier) {
+		dispatcher.publish(innerlogback, level, format, AsyncEvent.ONE_SUPPLIER, supplier, null, null, null, null,
+				null, null, 0L, null);
+	}
+
+	public void log(int level, String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2) {
+		dispatcher.publish(innerlogback, level, format, AsyncEvent.TWO_SUPPLIERS, supplier1, supplier2, null, null,
+				null, null, null, 0L, null);
+	}
+
+	public void log(int level, String format, ArgumentSupplier... suppliers) {
+		dispatcher.publish(innerlogback, level, format, AsyncEvent.SUPPLIER_ARRAY, null, null, null, null, null,
+				null, suppliers, 0L, null);
+	}
+}
@@ -0,0 +1,135 @@
+package com.alibaba.middleware.innerlog.async;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 预先分配槽位的有界无锁环形队列,支持多个生产者和多个消费者
+ *
+ * 实现参考Dmitry Vyukov的bounded MPMC queue: 每个槽位有一个序号,
+ * 生产者CAS申请tail,写入槽位后把序号设置为pos + 1发布;消费者CAS申请head,
+ * 读取后把序号设置为pos + capacity,槽位可以被下一轮的生产者使用。
+ * 生产者和消费者只在同一个槽位上通过序号同步,不需要锁。
+ *
+ * 使用方式: tryClaim -> get -> publish 和 tryTake -> get -> release
+ *
+ * version 1.0
+ */
+final class AsyncRingBuffer {
+
+	private final AsyncEvent[] events;
+	private final AtomicLongArray sequences;
+	private final int mask;
+
+	private final PaddedAtomicLong tail = new PaddedAtomicLong();
+	private final PaddedAtomicLong head = new PaddedAtomicLong();
+
+	AsyncRingBuffer(int bufferSize) {
+		int size = Math.max(1, Math.min(bufferSize, AsyncConfig.MAX_BUFFER_SIZE));
+		int capacity = Integer.highestOneBit(size);
+		if (capacity < size) {
+			capacity <<= 1;
+		}
+		this.mask = capacity - 1;
+		this.events = new AsyncEvent[capacity];
+		this.sequences = new AtomicLongArray(capacity);
+		for (int i = 0; i < capacity; i++) {
+			events[i] = new AsyncEvent();
+			sequences.set(i, i);
+		}
+	}
+
+	int getCapacity() {
+		return events.length;
+	}
+
+	/**
+	 * 申请一个空闲槽位
+	 *
+	 * @return 槽位的序号,队列已满时返回-1
+	 */
+	long tryClaim() {
+		long pos = tail.get();
+		for (;;) {
+			long dif = sequences.get((int) pos & mask) - pos;
+			if (0 == dif) {
+				if (tail.compareAndSet(pos, pos + 1)) {
+					return pos;
+				}
+				pos = tail.get();
+			} else if (dif < 0) {
+				return -1;
+			} else {
+				pos = tail.get();
+			}
+		}
+	}
+
+	AsyncEvent get(long pos) {
+		return events[(int) pos & mask];
+	}
+
+	/**
+	 * 槽位写入完成,对消费者可见。使用volatile写,保证之后的读不会重排到发布之前
+	 */
+	void publish(long pos) {
+		sequences.set((int) pos & mask, pos + 1);
+	}
+
+	/**
+	 * 取出最早发布的槽位
+	 *
+	 * @return 槽位的序号,队列为空或者最早的槽位还没有发布时返回-1
+	 */
+	long tryTake() {
+		long pos = head.get();
+		for (;;) {
+			long dif = sequences.get((int) pos & mask) - (pos + 1);
+			if (0 == dif) {
+				if (head.compareAndSet(pos, pos + 1)) {
+					return pos;
+				}
+				pos = head.get();
+			} else if (dif < 0) {
+				return -1;
+			} else {
+				pos = head.get();
+			}
+		}
+	}
+
+	/**
+	 * 槽位读取完成,可以被生产者重新使用
+	 */
+	void release(long pos) {
+		sequences.lazySet((int) pos & mask, pos + mask + 1);
+	}
+
+	boolean isEmpty() {
+		long pos = head.get();
+		return sequences.get((int) pos & mask) != pos + 1;
+	}
+
+	/**
+	 * @return 申请的槽位是否都已经被取出,有槽位还在被生产者写入时返回false
+	 */
+	boolean isDrained() {
+		return tail.get() == head.get();
+	}
+
+	/**
+	 * @return 队列中的事件数,并发修改时是近似值
+	 */
+	int size() {
+		long size = tail.get() - head.get();
+		return (int) Math.max(0, Math.min(size, events.length));
+	}
+
+	/**
+	 * 填充缓存行,避免head和tail被不同CPU频繁修改时互相影响
+	 */
+	@SuppressWarnings("serial")
+	private static final class PaddedAtomicLong extends AtomicLong {
+		long p1, p2, p3, p4, p5, p6, p7;
+	}
+}
@@ -0,0 +1,32 @@
+package com.alibaba.middleware.innerlog.async;
+
+/**
+ * 异步队列已满时记录日志的线程的处理方式
+ *
+ * 丢弃的日志按级别精确计数,停止丢弃后后台线程会输出一条WARN级别的汇总日志
+ *
+ * version 1.0
+ */
+public enum OverflowPolicy {
+	/**
+	 * 等待后台线程空出位置,不丢日志,磁盘变慢时会阻塞记录日志的线程
+	 */
+	BLOCK,
+	/**
+	 * 丢弃新的日志,记录日志的线程不等待
+	 */
+	DROP_NEW,
+	/**
+	 * 丢弃WARN以下级别的新日志,WARN和ERROR等待后台线程空出位置
+	 */
+	DROP_BELOW_WARN,
+	/**
+	 * 丢弃队列中最早的日志,为新的日志空出位置
+	 */
+	DROP_OLDEST,
+	/**
+	 * 按顺序写入磁盘上的溢出队列,后台线程输出完内存队列后再按顺序读出输出,
+	 * 溢出队列超过AsyncConfig的maxSpillSize或者目录被其他进程使用时丢弃新的日志
+	 */
+	SPILL;
+}
@@ -0,0 +1,400 @@
+package com.alibaba.middleware.innerlog.async;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.LinkedList;
+
+/**
+ * 异步队列已满时使用的磁盘溢出队列,按写入顺序读出
+ *
+ * 事件顺序追加到目录下固定大小的mmap分段文件中,同时最多映射正在写和正在读的两个分段,
+ * 内存占用有上限;分段总大小超过maxSpillSize时拒绝写入,由调用方按丢弃计数。
+ *
+ * 分段文件格式: [MAGIC][已读位置][长度][事件]...[长度][事件][0...],
+ * 先写入事件再写入长度,长度为0表示之后没有事件。后台线程每读出一个事件都会更新已读位置,
+ * 进程退出后剩余的分段在下次使用同一个目录时从已读位置继续读出。
+ *
+ * 同一个目录通过spill.lock文件锁只允许一个进程使用。
+ *
+ * 注: 写入和读取都在该对象的锁中执行,溢出只在队列已满时发生,不在记录日志的常规路径上
+ *
+ * version 1.0
+ */
+final class SpillQueue {
+
+	private final static Charset UTF_8 = Charset.forName("UTF-8");
+	private final static String LOCK_FILE = "spill.lock";
+	private final static String SEGMENT_PREFIX = "spill-";
+	private final static String SEGMENT_SUFFIX = ".seg";
+	private final static int MAGIC = 0x494c5331;
+	private final static int READ_POSITION_OFFSET = 4;
+	private final static int HEADER_SIZE = 8;
+	private final static int LENGTH_SIZE = 4;
+
+	private final File directory;
+	private final int segmentSize;
+	private final long maxSpillSize;
+
+	private final RandomAccessFile lockFile;
+	private final FileLock lock;
+
+	/**
+	 * 还没有读完的分段,按序号排列,第一个是正在读的分段,最后一个是正在写的分段
+	 */
+	private final LinkedList<Segment> segments = new LinkedList<Segment>();
+	private Segment writeSegment;
+	private long nextSequence;
+	private boolean closed = false;
+
+	/**
+	 * 还没有读出的事件数,记录日志的线程无锁判断是否需要继续写入溢出队列
+	 */
+	private volatile long pendingCount = 0;
+
+	private SpillQueue(File directory, int segmentSize, long maxSpillSize, RandomAccessFile lockFile, FileLock lock) {
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+		this.maxSpillSize = maxSpillSize;
+		this.lockFile = lockFile;
+		this.lock = lock;
+	}
+
+	/**
+	 * 打开目录下的溢出队列,恢复上次进程退出时剩余的分段
+	 *
+	 * @return 目录已经被其他进程使用时返回null
+	 */
+	static SpillQueue open(File directory, int segmentSize, long maxSpillSize) throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+			throw new IOException("create spill directory failed: " + directory.getAbsolutePath());
+		}
+		RandomAccessFile lockFile = new RandomAccessFile(new File(directory, LOCK_FILE), "rw");
+		FileLock lock = null;
+		try {
+			lock = lockFile.getChannel().tryLock();
+		} catch (OverlappingFileLockException e) {
+			// 同一个JVM中已经打开
+		} finally {
+			if (null == lock) {
+				lockFile.close();
+			}
+		}
+		if (null == lock) {
+			return null;
+		}
+		SpillQueue spillQueue = new SpillQueue(directory, segmentSize, maxSpillSize, lockFile, lock);
+		try {
+			spillQueue.recover();
+		} catch (IOException e) {
+			spillQueue.close();
+			throw e;
+		}
+		return spillQueue;
+	}
+
+	/*
+	 * 按序号加载剩余的分段,恢复的分段只读不写
+	 */
+	private void recover() throws IOException {
+		File[] files = directory.listFiles(new FileFilter() {
+			public boolean accept(File file) {
+				String name = file.getName();
+				return file.isFile() && name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+			}
+		});
+		if (null == files) {
+			return;
+		}
+		Arrays.sort(files);
+		long pending = 0;
+		for (File file : files) {
+			long sequence = parseSequence(file.getName());
+			if (sequence < 0 || file.length() < HEADER_SIZE || file.length() > Integer.MAX_VALUE) {
+				file.delete();
+				continue;
+			}
+			Segment segment = new Segment(file, (int) file.length(), false);
+			int count = segment.unread;
+			if (0 == count) {
+				segment.delete();
+				continue;
+			}
+			if (!segments.isEmpty()) {
+				// 只保留正在读的分段的映射
+				segment.release();
+			}
+			segments.add(segment);
+			pending += count;
+			nextSequence = Math.max(nextSequence, sequence + 1);
+		}
+		pendingCount = pending;
+	}
+
+	boolean isEmpty() {
+		return 0 == pendingCount;
+	}
+
+	long getPendingCount() {
+		return pendingCount;
+	}
+
+	/**
+	 * 追加一个事件
+	 *
+	 * @return 已经关闭,超过maxSpillSize或者事件大于分段时返回false
+	 */
+	boolean append(int level, long timeStamp, String loggerName, String threadName, String message)
+			throws IOException {
+		byte[] loggerNameBytes = toBytes(loggerName);
+		byte[] threadNameBytes = toBytes(threadName);
+		byte[] messageBytes = toBytes(message);
+		int length = 4 + 8 + 12 + loggerNameBytes.length + threadNameBytes.length + messageBytes.length;
+		if (HEADER_SIZE + LENGTH_SIZE + length > segmentSize) {
+			return false;
+		}
+		synchronized (this) {
+			if (closed) {
+				return false;
+			}
+			Segment segment = writeSegment;
+			if (null == segment || segment.writePosition + LENGTH_SIZE + length > segmentSize) {
+				if ((long) (segments.size() + 1) * segmentSize > maxSpillSize) {
+					return false;
+				}
+				segment = newSegment();
+			}
+			MappedByteBuffer buffer = segment.buffer;
+			int position = segment.writePosition;
+			buffer.position(position + LENGTH_SIZE);
+			buffer.putInt(level);
+			buffer.putLong(timeStamp);
+			putBytes(buffer, loggerNameBytes);
+			putBytes(buffer, threadNameBytes);
+			putBytes(buffer, messageBytes);
+			// 最后写入长度,进程在写入过程中退出时恢复只读到上一个事件
+			buffer.putInt(position, length);
+			segment.writePosition = position + LENGTH_SIZE + length;
+			segment.unread++;
+			pendingCount++;
+			return true;
+		}
+	}
+
+	private Segment newSegment() throws IOException {
+		File file = new File(directory, SEGMENT_PREFIX + String.format("%019d", nextSequence++) + SEGMENT_SUFFIX);
+		Segment segment = new Segment(file, segmentSize, true);
+		if (null != writeSegment && writeSegment != segments.getFirst()) {
+			// 写满的分段在读到之前不需要映射
+			writeSegment.release();
+		}
+		segments.add(segment);
+		writeSegment = segment;
+		return segment;
+	}
+
+	/**
+	 * 按写入顺序读出一个事件,读完的分段删除
+	 *
+	 * @return 没有事件时返回null
+	 */
+	synchronized SpilledEvent poll() {
+		while (!closed && !segments.isEmpty()) {
+			Segment segment = segments.getFirst();
+			SpilledEvent event;
+			try {
+				event = segment.next();
+			} catch (IOException e) {
+				// 分段文件无法映射,跳过该分段
+				pendingCount -= segment.unread;
+				segments.removeFirst();
+				segment.delete();
+				continue;
+			}
+			if (null != event) {
+				pendingCount--;
+				if (0 == pendingCount) {
+					// 全部读完,下次溢出时重新创建分段,不占用磁盘
+					deleteAll();
+				}
+				return event;
+			}
+			if (segment == writeSegment) {
+				return null;
+			}
+			segments.removeFirst();
+			segment.delete();
+		}
+		return null;
+	}
+
+	private void deleteAll() {
+		for (Segment segment : segments) {
+			segment.delete();
+		}
+		segments.clear();
+		writeSegment = null;
+	}
+
+	/**
+	 * 没有未读出的事件时关闭,和append在同一个锁中判断,关闭之后的append返回false
+	 *
+	 * @return 是否已经关闭
+	 */
+	synchronized boolean closeIfEmpty() {
+		if (0 != pendingCount) {
+			return false;
+		}
+		close();
+		return true;
+	}
+
+	/**
+	 * 释放目录的文件锁,没有读出的分段保留在磁盘上,下次打开时恢复
+	 */
+	synchronized void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		segments.clear();
+		writeSegment = null;
+		try {
+			lock.release();
+		} catch (IOException e) {
+			// skip exception
+		}
+		try {
+			lockFile.close();
+		} catch (IOException e) {
+			// skip exception
+		}
+	}
+
+	File getDirectory() {
+		return directory;
+	}
+
+	private static long parseSequence(String name) {
+		try {
+			return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private static byte[] toBytes(String str) {
+		return null == str ? new byte[0] : str.getBytes(UTF_8);
+	}
+
+	private static void putBytes(MappedByteBuffer buffer, byte[] bytes) {
+		buffer.putInt(bytes.length);
+		buffer.put(bytes);
+	}
+
+	private static String getString(MappedByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, UTF_8);
+	}
+
+	/**
+	 * 一个mmap的分段文件,只在SpillQueue的锁中访问,不在读写的分段释放映射
+	 */
+	private static final class Segment {
+		private final File file;
+		private final int size;
+		private MappedByteBuffer buffer;
+		private int writePosition;
+		/**
+		 * 该分段中还没有读出的事件数
+		 */
+		private int unread;
+
+		Segment(File file, int size, boolean create) throws IOException {
+			this.file = file;
+			this.size = size;
+			this.buffer = map(file, size, create);
+			if (create) {
+				buffer.putInt(0, MAGIC);
+				buffer.putInt(READ_POSITION_OFFSET, HEADER_SIZE);
+				this.writePosition = HEADER_SIZE;
+			} else {
+				// 恢复的分段不再写入
+				this.writePosition = size;
+				this.unread = MAGIC == buffer.getInt(0) ? countUnread() : 0;
+			}
+		}
+
+		private static MappedByteBuffer map(File file, int size, boolean create) throws IOException {
+			RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+			try {
+				if (create) {
+					randomAccessFile.setLength(size);
+				}
+				// channel关闭之后映射依然有效
+				return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+			} finally {
+				randomAccessFile.close();
+			}
+		}
+
+		/*
+		 * 从已读位置开始计算剩余的事件数
+		 */
+		private int countUnread() {
+			int count = 0;
+			int position = buffer.getInt(READ_POSITION_OFFSET);
+			if (position < HEADER_SIZE || position > size) {
+				return 0;
+			}
+			int length;
+			while (position + LENGTH_SIZE <= size && (length = buffer.getInt(position)) > 0
+					&& position + LENGTH_SIZE + length <= size) {
+				count++;
+				position += LENGTH_SIZE + length;
+			}
+			return count;
+		}
+
+		SpilledEvent next() throws IOException {
+			if (0 == unread) {
+				return null;
+			}
+			if (null == buffer) {
+				buffer = map(file, size, false);
+			}
+			int position = buffer.getInt(READ_POSITION_OFFSET);
+			int length = buffer.getInt(position);
+			buffer.position(position + LENGTH_SIZE);
+			int level = buffer.getInt();
+			long timeStamp = buffer.getLong();
+			String loggerName = getString(buffer);
+			String threadName = getString(buffer);
+			String message = getString(buffer);
+			buffer.putInt(READ_POSITION_OFFSET, position + LENGTH_SIZE + length);
+			unread--;
+			return new SpilledEvent(level, timeStamp, loggerName, threadName, message);
+		}
+
+		/*
+		 * 释放对映射的引用,读到该分段时重新映射
+		 */
+		void release() {
+			buffer = null;
+		}
+
+		void delete() {
+			// MappedByteBuffer没有公开的unmap方法,映射在buffer被回收时释放
+			buffer = null;
+			file.delete();
+		}
+	}
+}
@@ -0,0 +1,23 @@
+package com.alibaba.middleware.innerlog.async;
+
+/**
+ * 从磁盘溢出队列中读出的日志事件,日志内容在写入时已经格式化,异常堆栈追加在日志内容之后
+ *
+ * version 1.0
+ */
+final class SpilledEvent {
+
+	final int level;
+	final long timeStamp;
+	final String loggerName;
+	final String threadName;
+	final String message;
+
+	SpilledEvent(int level, long timeStamp, String loggerName, String threadName, String message) {
+		this.level = level;
+		this.timeStamp = timeStamp;
+		this.loggerName = loggerName;
+		this.threadName = threadName;
+		this.message = message;
+	}
+}
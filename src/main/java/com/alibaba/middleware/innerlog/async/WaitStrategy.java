@@ -0,0 +1,26 @@
+package com.alibaba.middleware.innerlog.async;
+
+/**
+ * 异步队列为空时消费线程的等待方式
+ *
+ * version 1.0
+ */
+public enum WaitStrategy {
+	/**
+	 * 一直自旋,延迟最低,但是会一直占用一个CPU
+	 */
+	BUSY_SPIN,
+	/**
+	 * 自旋一段时间后Thread.yield让出CPU
+	 */
+	YIELD,
+	/**
+	 * 自旋和yield之后短暂park,空闲时也会定期唤醒
+	 */
+	SLEEP,
+	/**
+	 * 自旋之后park直到有新的事件,空闲时不占用CPU,
+	 * 消费线程park时记录日志的线程需要负责唤醒
+	 */
+	BLOCK;
+}
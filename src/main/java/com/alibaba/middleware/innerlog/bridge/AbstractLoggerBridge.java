@@ -0,0 +1,120 @@
+package com.alibaba.middleware.innerlog.bridge;
+
+import com.alibaba.middleware.innerlog.ArgumentSupplier;
+
+/**
+ * 桥接实现的基类,sl4j没有对应方法的log调用在这里转换成1个,2个参数和可变参数的方法
+ *
+ * 3到6个参数创建参数数组,基本类型的参数在日志级别已经打开后才装箱,ArgumentSupplier在调用线程中计算,
+ * 之后按级别调用子类实现的trace,debug等方法。
+ *
+ * 注: 该类和LoggerBridge一样委派给业务的classLoader加载,LoggerClassLoader中define的
+ * Slf4jLoggerBridge和外部的ReflectLoggerBridge,MethodHandleLoggerBridge共用。
+ *
+ * version 1.0
+ */
+public abstract class AbstractLoggerBridge implements LoggerBridge {
+
+	public void log(int level, String format, int argumentCount, Object arg1, Object arg2, Object arg3, Object arg4,
+			Object arg5, Object arg6) {
+		Object[] arguments;
+		switch (argumentCount) {
+		case 3:
+			arguments = new Object[] { arg1, arg2, arg3 };
+			break;
+		case 4:
+			arguments = new Object[] { arg1, arg2, arg3, arg4 };
+			break;
+		case 5:
+			arguments = new Object[] { arg1, arg2, arg3, arg4, arg5 };
+			break;
+		default:
+			arguments = new Object[] { arg1, arg2, arg3, arg4, arg5, arg6 };
+		}
+		logArguments(level, format, arguments);
+	}
+
+	public void log(int level, String format, int arg) {
+		logArgument(level, format, Integer.valueOf(arg));
+	}
+
+	public void log(int level, String format, long arg) {
+		logArgument(level, format, Long.valueOf(arg));
+	}
+
+	public void log(int level, String format, float arg) {
+		logArgument(level, format, Float.valueOf(arg));
+	}
+
+	public void log(int level, String format, double arg) {
+		logArgument(level, format, Double.valueOf(arg));
+	}
+
+	public void log(int level, String format, boolean arg) {
+		logArgument(level, format, Boolean.valueOf(arg));
+	}
+
+	public void log(int level, String format, char arg) {
+		logArgument(level, format, Character.valueOf(arg));
+	}
+
+	public void log(int level, String format, ArgumentSupplier supplier) {
+		logArgument(level, format, supplier.get());
+	}
+
+	public void log(int level, String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2) {
+		logArguments(level, format, new Object[] { supplier1.get(), supplier2.get() });
+	}
+
+	public void log(int level, String format, ArgumentSupplier... suppliers) {
+		Object[] arguments = new Object[suppliers.length];
+		for (int i = 0; i < suppliers.length; i++) {
+			arguments[i] = suppliers[i].get();
+		}
+		logArguments(level, format, arguments);
+	}
+
+	/*
+	 * 3个以上的参数和ArgumentSupplier计算出的参数按级别调用
+	 */
+	private void logArguments(int level, String format, Object[] arguments) {
+		switch (level) {
+		case EventDispatcher.TRACE_INT:
+			trace(format, arguments);
+			break;
+		case EventDispatcher.DEBUG_INT:
+			debug(format, arguments);
+			break;
+		case EventDispatcher.INFO_INT:
+			info(format, arguments);
+			break;
+		case EventDispatcher.WARN_INT:
+			warn(format, arguments);
+			break;
+		default:
+			error(format, arguments);
+		}
+	}
+
+	/*
+	 * 基本类型的参数在日志级别已经打开后才装箱
+	 */
+	private void logArgument(int level, String format, Object arg) {
+		switch (level) {
+		case EventDispatcher.TRACE_INT:
+			trace(format, arg);
+			break;
+		case EventDispatcher.DEBUG_INT:
+			debug(format, arg);
+			break;
+		case EventDispatcher.INFO_INT:
+			info(format, arg);
+			break;
+		case EventDispatcher.WARN_INT:
+			warn(format, arg);
+			break;
+		default:
+			error(format, arg);
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package com.alibaba.middleware.innerlog.bridge;
+
+import java.util.Iterator;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.Layout;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
+import ch.qos.logback.core.spi.AppenderAttachable;
+
+import com.alibaba.middleware.innerlog.appender.MappedFileAppender;
+
+/**
+ * 用模拟的日志事件预热内置logback中已经配置的appender
+ *
+ * 只调用appender的layout格式化事件,不调用appender的doAppend,不会输出任何日志,
+ * 目的是让格式化用到的类和JIT在业务请求之前准备好。AsyncAppender等包装的appender
+ * 会预热其内部的appender。
+ *
+ * 注: 该类和LevelChangeListener一样在LoggerClassLoader中define。
+ *
+ * version 1.0
+ */
+public class AppenderWarmUp implements Runnable {
+
+	private final static String FQCN = AppenderWarmUp.class.getName();
+
+	private final LoggerContext loggerContext;
+	/**
+	 * 每个layout格式化模拟事件的次数
+	 */
+	private final int iterations;
+
+	public AppenderWarmUp(LoggerContext loggerContext, int iterations) {
+		this.loggerContext = loggerContext;
+		this.iterations = iterations;
+	}
+
+	public void run() {
+		Logger rootLogger = loggerContext.getLogger(Logger.ROOT_LOGGER_NAME);
+		ILoggingEvent[] events = new ILoggingEvent[] {
+				new LoggingEvent(FQCN, rootLogger, Level.INFO, "inner-logger warm up {} {}", null,
+						new Object[] { "arg", Integer.valueOf(1) }),
+				new LoggingEvent(FQCN, rootLogger, Level.ERROR, "inner-logger warm up", new IllegalStateException(
+						"inner-logger warm up"), null) };
+		for (Logger logger : loggerContext.getLoggerList()) {
+			Iterator<Appender<ILoggingEvent>> appenders = logger.iteratorForAppenders();
+			while (appenders.hasNext()) {
+				warmUp(appenders.next(), events);
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void warmUp(Appender<ILoggingEvent> appender, ILoggingEvent[] events) {
+		if (appender instanceof OutputStreamAppender) {
+			Encoder<ILoggingEvent> encoder = ((OutputStreamAppender<ILoggingEvent>) appender).getEncoder();
+			if (encoder instanceof LayoutWrappingEncoder) {
+				warmUp(((LayoutWrappingEncoder<ILoggingEvent>) encoder).getLayout(), events);
+			}
+		} else if (appender instanceof MappedFileAppender) {
+			warmUp(((MappedFileAppender<ILoggingEvent>) appender).getLayout(), events);
+		}
+		if (appender instanceof AppenderAttachable) {
+			Iterator<Appender<ILoggingEvent>> attached = ((AppenderAttachable<ILoggingEvent>) appender)
+					.iteratorForAppenders();
+			while (attached.hasNext()) {
+				warmUp(attached.next(), events);
+			}
+		}
+	}
+
+	private void warmUp(Layout<ILoggingEvent> layout, ILoggingEvent[] events) {
+		if (null == layout) {
+			return;
+		}
+		for (int i = 0; i < iterations; i++) {
+			for (ILoggingEvent event : events) {
+				layout.doLayout(event);
+			}
+		}
+	}
+}
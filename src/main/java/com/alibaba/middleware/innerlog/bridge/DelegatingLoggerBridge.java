@@ -0,0 +1,446 @@
+package com.alibaba.middleware.innerlog.bridge;
+
+import com.alibaba.middleware.innerlog.ArgumentSupplier;
+
+/**
+ * 包装另一个桥接对象的基类,每次日志调用前后调用beforeCall和afterCall,子类只需要实现这两个方法
+ *
+ * 所有方法(包括log方法)原样交给被包装的对象,不装箱参数也不计算ArgumentSupplier,
+ * 被包装的对象是异步桥接时参数仍然在后台线程中处理。日志级别的判断直接交给被包装的对象。
+ *
+ * version 1.0
+ */
+public abstract class DelegatingLoggerBridge implements LoggerBridge {
+
+	protected final LoggerBridge delegate;
+
+	protected DelegatingLoggerBridge(LoggerBridge delegate) {
+		this.delegate = delegate;
+	}
+
+	/**
+	 * 调用被包装的对象之前调用
+	 *
+	 * @param level 日志级别,取值和EventDispatcher中的一致
+	 * @return 传给afterCall的值,例如开始时间
+	 */
+	protected abstract long beforeCall(int level);
+
+	/**
+	 * 调用被包装的对象之后调用,抛出异常时也会调用
+	 *
+	 * @param token beforeCall的返回值
+	 * @param failed 被包装的对象是否抛出了异常
+	 */
+	protected abstract void afterCall(int level, long token, boolean failed);
+
+	public String getName() {
+		return delegate.getName();
+	}
+
+	public boolean isTraceEnabled() {
+		return delegate.isTraceEnabled();
+	}
+
+	public void trace(String msg) {
+		long token = beforeCall(EventDispatcher.TRACE_INT);
+		boolean failed = true;
+		try {
+			delegate.trace(msg);
+			failed = false;
+		} finally {
+			afterCall(EventDispatcher.TRACE_INT, token, failed);
+		}
+	}
+
+	public void trace(String format, Object arg) {
+		long token = beforeCall(EventDispatcher.TRACE_INT);
+		boolean failed = true;
+		try {
+			delegate.trace(format, arg);
+			failed = false;
+		} finally {
+			afterCall(EventDispatcher.TRACE_INT, token, failed);
+		}
+	}
+
+	public void trace(String format, Object arg1, Object arg2) {
+		long token = beforeCall(EventDispatcher.TRACE_INT);
+		boolean failed = true;
+		try {
+			delegate.trace(format, arg1, arg2);
+			failed = false;
+		} finally {
+			afterCall(EventDispatcher.TRACE_INT, token, failed);
+		}
+	}
+
+	public void trace(String format, Object... arguments) {
+		long token = beforeCall(EventDispatcher.TRACE_INT);
+		boolean failed = true;
+		try {
+			delegate.trace(format, arguments);
+			failed = false;
+		} finally {
+			afterCall(EventDispatcher.TRACE_INT, token, failed);
+		}
+	}
+
+	public void trace(String msg, Throwable t) {
+		long token = beforeCall(EventDispatcher.TRACE_INT);
+		boolean failed = true;
+		try {
+			delegate.trace(msg, t);
+			failed = false;
+		} finally {
+			afterCall(EventDispatcher.TRACE_INT, token, failed);
+		}
+	}
+
+	public boolean isDebugEnabled() {
+		return delegate.isDebugEnabled();
+	}
+
+	public void debug(String msg) {
+		long token = beforeCall(EventDispatcher.DEBUG_INT);
+		boolean failed = true;
+		try {
+			delegate.debug(msg);
+			failed = false;
+		} finally {
+			afterCall(EventDispatcher.DEBUG_INT, token, failed);
+		}
+	}
+
+	public void debug(String format, Object arg) {
+		long token = beforeCall(EventDispatcher.DEBUG_INT);
+		boolean failed = true;
+		try {
+			delegate.debug(format, arg);
+			failed = false;
+		} finally {
+			afterCall(EventDispatcher.DEBUG_INT, token, failed);
+		}
+	}
+
+	public void debug(String format, Object arg1, Object arg2) {
+		long token = beforeCall(EventDispatcher.DEBUG_INT);
+		boolean failed = true;
+		try {
+			delegate.debug(format, arg1, arg2);
+			failed = false;
+		} finally {
+			afterCall(EventDispatcher.DEBUG_INT, token, failed);
+		}
+	}
+
+	public void debug(String format, Object... arguments) {
+		long token = beforeCall(EventDispatcher.DEBUG_INT);
+		boolean failed = true;
+		try {
+			delegate.debug(format, arguments);
+			failed = false;
+		} finally {
+			afterCall(EventDispatcher.DEBUG_INT, token, failed);
+		}
+	}
+
+	public void debug(String msg, Throwable t) {
+		long token = beforeCall(EventDispatcher.DEBUG_INT);
+		boolean failed = true;
+		try {
+			delegate.debug(msg, t);
+			failed = false;
+		} finally {
+			afterCall(EventDispatcher.DEBUG_INT, token, failed);
+		}
+	}
+
+	public boolean isInfoEnabled() {
+		return delegate.isInfoEnabled();
+	}
+
+	public void info(String msg) {
+		long token = beforeCall(EventDispatcher.INFO_INT);
+		boolean failed = true;
+		try {
+			delegate.info(msg);
+			failed = false;
+		} finally {
+			afterCall(EventDispatcher.INFO_INT, token, failed);
+		}
+	}
+
+	public void info(String format, Object arg) {
+		long token = beforeCall(EventDispatcher.INFO_INT);
+		boolean failed = true;
+		try {
+			delegate.info(format, arg);
+			failed = false;
+		} finally {
+			afterCall(EventDispatcher.INFO_INT, token, failed);
+		}
+	}
+
+	public void info(String format, Object arg1, Object arg2) {
+		long token = beforeCall(EventDispatcher.INFO_INT);
+		boolean failed = true;
+		try {
+			delegate.info(format, arg1, arg2);
+			failed = false;
+		} finally {
+			afterCall(EventDispatcher.INFO_INT, token, failed);
+		}
+	}
+
+	public void info(String format, Object... arguments) {
+		long token = beforeCall(EventDispatcher.INFO_INT);
+		boolean failed = true;
+		try {
+			delegate.info(format, arguments);
+			failed = false;
+		} finally {
+			afterCall(EventDispatcher.INFO_INT, token, failed);
+		}
+	}
+
+	public void info(String msg, Throwable t) {
+		long token = beforeCall(EventDispatcher.INFO_INT);
+		boolean failed = true;
+		try {
+			delegate.info(msg, t);
+			failed = false;
+		} finally {
+			afterCall(EventDispatcher.INFO_INT, token, failed);
+		}
+	}
+
+	public boolean isWarnEnabled() {
+		return delegate.isWarnEnabled();
+	}
+
+	public void warn(String msg) {
+		long token = beforeCall(EventDispatcher.WARN_INT);
+		boolean failed = true;
+		try {
+			delegate.warn(msg);
+			failed = false;
+		} finally {
+			afterCall(EventDispatcher.WARN_INT, token, failed);
+		}
+	}
+
+	public void warn(String format, Object arg) {
+		long token = beforeCall(EventDispatcher.WARN_INT);
+		boolean failed = true;
+		try {
+			delegate.warn(format, arg);
+			failed = false;
+		} finally {
+			afterCall(EventDispatcher.WARN_INT, token, failed);
+		}
+	}
+
+	public void warn(String format, Object arg1, Object arg2) {
+		long token = beforeCall(EventDispatcher.WARN_INT);
+		boolean failed = true;
+		try {
+			delegate.warn(format, arg1, arg2);
+			failed = false;
+		} finally {
+			afterCall(EventDispatcher.WARN_INT, token, failed);
+		}
+	}
+
+	public void warn(String format, Object... arguments) {
+		long token = beforeCall(EventDispatcher.WARN_INT);
+		boolean failed = true;
+		try {
+			delegate.warn(format, arguments);
+			failed = false;
+		} finally {
+			afterCall(EventDispatcher.WARN_INT, token, failed);
+		}
+	}
+
+	public void warn(String msg, Throwable t) {
+		long token = beforeCall(EventDispatcher.WARN_INT);
+		boolean failed = true;
+		try {
+			delegate.warn(msg, t);
+			failed = false;
+		} finally {
+			afterCall(EventDispatcher.WARN_INT, token, failed);
+		}
+	}
+
+	public boolean isErrorEnabled() {
+		return delegate.isErrorEnabled();
+	}
+
+	public void error(String msg) {
+		long token = beforeCall(EventDispatcher.ERROR_INT);
+		boolean failed = true;
+		try {
+			delegate.error(msg);
+			failed = false;
+		} finally {
+			afterCall(EventDispatcher.ERROR_INT, token, failed);
+		}
+	}
+
+	public void error(String format, Object arg) {
+		long token = beforeCall(EventDispatcher.ERROR_INT);
+		boolean failed = true;
+		try {
+			delegate.error(format, arg);
+			failed = false;
+		} finally {
+			afterCall(EventDispatcher.ERROR_INT, token, failed);
+		}
+	}
+
+	public void error(String format, Object arg1, Object arg2) {
+		long token = beforeCall(EventDispatcher.ERROR_INT);
+		boolean failed = true;
+		try {
+			delegate.error(format, arg1, arg2);
+			failed = false;
+		} finally {
+			afterCall(EventDispatcher.ERROR_INT, token, failed);
+		}
+	}
+
+	public void error(String format, Object... arguments) {
+		long token = beforeCall(EventDispatcher.ERROR_INT);
+		boolean failed = true;
+		try {
+			delegate.error(format, arguments);
+			failed = false;
+		} finally {
+			afterCall(EventDispatcher.ERROR_INT, token, failed);
+		}
+	}
+
+	public void error(String msg, Throwable t) {
+		long token = beforeCall(EventDispatcher.ERROR_INT);
+		boolean failed = true;
+		try {
+			delegate.error(msg, t);
+			failed = false;
+		} finally {
+			afterCall(EventDispatcher.ERROR_INT, token, failed);
+		}
+	}
+
+	public void log(int level, String format, int argumentCount, Object arg1, Object arg2, Object arg3, Object arg4,
+			Object arg5, Object arg6) {
+		long token = beforeCall(level);
+		boolean failed = true;
+		try {
+			delegate.log(level, format, argumentCount, arg1, arg2, arg3, arg4, arg5, arg6);
+			failed = false;
+		} finally {
+			afterCall(level, token, failed);
+		}
+	}
+
+	public void log(int level, String format, int arg) {
+		long token = beforeCall(level);
+		boolean failed = true;
+		try {
+			delegate.log(level, format, arg);
+			failed = false;
+		} finally {
+			afterCall(level, token, failed);
+		}
+	}
+
+	public void log(int level, String format, long arg) {
+		long token = beforeCall(level);
+		boolean failed = true;
+		try {
+			delegate.log(level, format, arg);
+			failed = false;
+		} finally {
+			afterCall(level, token, failed);
+		}
+	}
+
+	public void log(int level, String format, float arg) {
+		long token = beforeCall(level);
+		boolean failed = true;
+		try {
+			delegate.log(level, format, arg);
+			failed = false;
+		} finally {
+			afterCall(level, token, failed);
+		}
+	}
+
+	public void log(int level, String format, double arg) {
+		long token = beforeCall(level);
+		boolean failed = true;
+		try {
+			delegate.log(level, format, arg);
+			failed = false;
+		} finally {
+			afterCall(level, token, failed);
+		}
+	}
+
+	public void log(int level, String format, boolean arg) {
+		long token = beforeCall(level);
+		boolean failed = true;
+		try {
+			delegate.log(level, format, arg);
+			failed = false;
+		} finally {
+			afterCall(level, token, failed);
+		}
+	}
+
+	public void log(int level, String format, char arg) {
+		long token = beforeCall(level);
+		boolean failed = true;
+		try {
+			delegate.log(level, format, arg);
+			failed = false;
+		} finally {
+			afterCall(level, token, failed);
+		}
+	}
+
+	public void log(int level, String format, ArgumentSupplier supplier) {
+		long token = beforeCall(level);
+		boolean failed = true;
+		try {
+			delegate.log(level, format, supplier);
+			failed = false;
+		} finally {
+			afterCall(level, token, failed);
+		}
+	}
+
+	public void log(int level, String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2) {
+		long token = beforeCall(level);
+		boolean failed = true;
+		try {
+			delegate.log(level, format, supplier1, supplier2);
+			failed = false;
+		} finally {
+			afterCall(level, token, failed);
+		}
+	}
+
+	public void log(int level, String format, ArgumentSupplier... suppliers) {
+		long token = beforeCall(level);
+		boolean failed = true;
+		try {
+			delegate.log(level, format, suppliers);
+			failed = false;
+		} finally {
+			afterCall(level, token, failed);
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package com.alibaba.middleware.innerlog.bridge;
+
+import java.util.Map;
+
+/**
+ * 把异步队列中的日志事件交给内置logback输出的接口
+ *
+ * 和LoggerBridge一样由业务的classLoader加载,LoggerClassLoader中define的实现类
+ * 和外部的异步消费线程看到的是同一个接口。
+ *
+ * version 1.0
+ */
+public interface EventDispatcher {
+
+	/**
+	 * level取值和sl4j的LocationAwareLogger一致
+	 */
+	int TRACE_INT = 0;
+	int DEBUG_INT = 10;
+	int INFO_INT = 20;
+	int WARN_INT = 30;
+	int ERROR_INT = 40;
+
+	/**
+	 * 按照调用方记录日志时的线程名称和时间输出日志事件
+	 *
+	 * @param logger 内置的logback Logger对象
+	 * @param level 日志级别
+	 * @param message 日志内容或者格式
+	 * @param arguments 格式的参数,可以为null
+	 * @param throwable 异常,可以为null
+	 * @param timeStamp 调用方记录日志的时间
+	 * @param threadName 调用方的线程名称
+	 * @param mdc 调用方记录日志时通过getMdcPropertyMap获取的MDC,可以为null
+	 */
+	void dispatch(Object logger, int level, String message, Object[] arguments, Throwable throwable,
+			long timeStamp, String threadName, Map<String, String> mdc);
+
+	/**
+	 * 在记录日志的线程中调用,获取内置logback中当前线程的MDC,交给后台线程输出时使用。
+	 * 返回的Map之后不会再被修改
+	 *
+	 * @return 当前线程的MDC,为空时返回null
+	 */
+	Map<String, String> getMdcPropertyMap();
+
+	/**
+	 * 按照sl4j的规则格式化日志内容,有异常时把异常堆栈追加在日志内容之后,
+	 * 用于日志事件写入磁盘溢出队列
+	 *
+	 * @param message 日志内容或者格式
+	 * @param arguments 格式的参数,可以为null
+	 * @param throwable 异常,可以为null
+	 * @return 格式化之后的日志内容
+	 */
+	String format(String message, Object[] arguments, Throwable throwable);
+
+	/**
+	 * @param logger 内置的logback Logger对象
+	 * @return logger的名称
+	 */
+	String getLoggerName(Object logger);
+
+	/**
+	 * @param loggerName logger的名称
+	 * @return 名称对应的内置logback Logger对象
+	 */
+	Object getLogger(String loggerName);
+}
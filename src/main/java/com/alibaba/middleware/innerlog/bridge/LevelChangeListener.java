@@ -0,0 +1,45 @@
+package com.alibaba.middleware.innerlog.bridge;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggerContextListener;
+
+/**
+ * 监听内置logback的LoggerContext的reset和日志级别变化,通知外部的Logger
+ * 重新获取缓存的日志级别
+ *
+ * 注: 该类和Slf4jLoggerBridge一样在LoggerClassLoader中define,回调使用
+ * JDK的Runnable,业务的classLoader和LoggerClassLoader都能看到。
+ *
+ * version 1.0
+ */
+public class LevelChangeListener implements LoggerContextListener {
+
+	private final Runnable levelChangeCallback;
+
+	public LevelChangeListener(Runnable levelChangeCallback) {
+		this.levelChangeCallback = levelChangeCallback;
+	}
+
+	public boolean isResetResistant() {
+		// reset之后也需要继续监听
+		return true;
+	}
+
+	public void onStart(LoggerContext context) {
+		levelChangeCallback.run();
+	}
+
+	public void onReset(LoggerContext context) {
+		levelChangeCallback.run();
+	}
+
+	public void onStop(LoggerContext context) {
+		levelChangeCallback.run();
+	}
+
+	public void onLevelChange(Logger logger, Level level) {
+		levelChangeCallback.run();
+	}
+}
@@ -0,0 +1,105 @@
+package com.alibaba.middleware.innerlog.bridge;
+
+import com.alibaba.middleware.innerlog.ArgumentSupplier;
+
+/**
+ * 内置Logger的调用桥接接口,方法与sl4j的org.slf4j.Logger一一对应
+ *
+ * 该接口由业务的classLoader加载,LoggerClassLoader加载类时会把该接口
+ * 委派给业务的classLoader,所以隔离的logback内部的桥接实现类和外部的
+ * com.alibaba.middleware.innerlog.Logger看到的是同一个接口,调用时是普
+ * 通的接口调用,不需要经过反射。
+ *
+ * sl4j没有对应方法的3到6个参数、基本类型参数和ArgumentSupplier参数通过log方法按级别调用,
+ * level取值和EventDispatcher中的常量一致。ArgumentSupplier由实现类决定在哪个线程中计算。
+ *
+ * version 1.0
+ */
+public interface LoggerBridge {
+
+	String getName();
+
+	boolean isTraceEnabled();
+
+	void trace(String msg);
+
+	void trace(String format, Object arg);
+
+	void trace(String format, Object arg1, Object arg2);
+
+	void trace(String format, Object... arguments);
+
+	void trace(String msg, Throwable t);
+
+	boolean isDebugEnabled();
+
+	void debug(String msg);
+
+	void debug(String format, Object arg);
+
+	void debug(String format, Object arg1, Object arg2);
+
+	void debug(String format, Object... arguments);
+
+	void debug(String msg, Throwable t);
+
+	boolean isInfoEnabled();
+
+	void info(String msg);
+
+	void info(String format, Object arg);
+
+	void info(String format, Object arg1, Object arg2);
+
+	void info(String format, Object... arguments);
+
+	void info(String msg, Throwable t);
+
+	boolean isWarnEnabled();
+
+	void warn(String msg);
+
+	void warn(String format, Object arg);
+
+	void warn(String format, Object arg1, Object arg2);
+
+	void warn(String format, Object... arguments);
+
+	void warn(String msg, Throwable t);
+
+	boolean isErrorEnabled();
+
+	void error(String msg);
+
+	void error(String format, Object arg);
+
+	void error(String format, Object arg1, Object arg2);
+
+	void error(String format, Object... arguments);
+
+	void error(String msg, Throwable t);
+
+	/**
+	 * 3到6个参数,argumentCount之后的参数为null
+	 */
+	void log(int level, String format, int argumentCount, Object arg1, Object arg2, Object arg3, Object arg4,
+			Object arg5, Object arg6);
+
+	void log(int level, String format, int arg);
+
+	void log(int level, String format, long arg);
+
+	void log(int level, String format, float arg);
+
+	void log(int level, String format, double arg);
+
+	void log(int level, String format, boolean arg);
+
+	void log(int level, String format, char arg);
+
+	void log(int level, String format, ArgumentSupplier supplier);
+
+	void log(int level, String format, ArgumentSupplier supplier1, ArgumentSupplier supplier2);
+
+	void log(int level, String format, ArgumentSupplier... suppliers);
+}
@@ -0,0 +1,333 @@
+package com.alibaba.middleware.innerlog.bridge;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+import com.alibaba.middleware.innerlog.cache.LoggerMethodCache;
+import com.alibaba.middleware.innerlog.cache.LoggerMethodEnum;
+
+/**
+ * 通过MethodHandle调用sl4j Logger的桥接实现
+ *
+ * 创建时把classLoader共享的LoggerMethodCache中的每个Method转换成绑定了innerlogback的MethodHandle,
+ * 按照枚举的ordinal存放在数组中,调用时直接invokeExact,没有map查找和参数的
+ * Object[]重新打包。
+ *
+ * 注: 该类单独按照1.7编译,只在JVM支持java.lang.invoke时由LoggerClassLoader
+ * 按类名加载,不影响1.6的运行环境。
+ *
+ * version 1.0
+ */
+public class MethodHandleLoggerBridge extends AbstractLoggerBridge {
+
+	private final static MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+	private final static int GET_NAME = LoggerMethodEnum.GET_NAME.ordinal();
+	private final static int IS_TRACE_ENABLED = LoggerMethodEnum.IS_TRACE_ENABLED.ordinal();
+	private final static int TRACE = LoggerMethodEnum.TRACE.ordinal();
+	private final static int TRACE_FORMAT_ONE = LoggerMethodEnum.TRACE_FORMAT_ONE.ordinal();
+	private final static int TRACE_FORMAT_TWO = LoggerMethodEnum.TRACE_FORMAT_TWO.ordinal();
+	private final static int TRACE_FORMAT_MANY = LoggerMethodEnum.TRACE_FORMAT_MANY.ordinal();
+	private final static int TRACE_THROWABLE = LoggerMethodEnum.TRACE_THROWABLE.ordinal();
+	private final static int IS_DEBUG_ENABLED = LoggerMethodEnum.IS_DEBUG_ENABLED.ordinal();
+	private final static int DEBUG = LoggerMethodEnum.DEBUG.ordinal();
+	private final static int DEBUG_FORMAT_ONE = LoggerMethodEnum.DEBUG_FORMAT_ONE.ordinal();
+	private final static int DEBUG_FORMAT_TWO = LoggerMethodEnum.DEBUG_FORMAT_TWO.ordinal();
+	private final static int DEBUG_FORMAT_MANY = LoggerMethodEnum.DEBUG_FORMAT_MANY.ordinal();
+	private final static int DEBUG_THROWABLE = LoggerMethodEnum.DEBUG_THROWABLE.ordinal();
+	private final static int IS_INFO_ENABLED = LoggerMethodEnum.IS_INFO_ENABLED.ordinal();
+	private final static int INFO = LoggerMethodEnum.INFO.ordinal();
+	private final static int INFO_FORMAT_ONE = LoggerMethodEnum.INFO_FORMAT_ONE.ordinal();
+	private final static int INFO_FORMAT_TWO = LoggerMethodEnum.INFO_FORMAT_TWO.ordinal();
+	private final static int INFO_FORMAT_MANY = LoggerMethodEnum.INFO_FORMAT_MANY.ordinal();
+	private final static int INFO_THROWABLE = LoggerMethodEnum.INFO_THROWABLE.ordinal();
+	private final static int IS_WARN_ENABLED = LoggerMethodEnum.IS_WARN_ENABLED.ordinal();
+	private final static int WARN = LoggerMethodEnum.WARN.ordinal();
+	private final static int WARN_FORMAT_ONE = LoggerMethodEnum.WARN_FORMAT_ONE.ordinal();
+	private final static int WARN_FORMAT_TWO = LoggerMethodEnum.WARN_FORMAT_TWO.ordinal();
+	private final static int WARN_FORMAT_MANY = LoggerMethodEnum.WARN_FORMAT_MANY.ordinal();
+	private final static int WARN_THROWABLE = LoggerMethodEnum.WARN_THROWABLE.ordinal();
+	private final static int IS_ERROR_ENABLED = LoggerMethodEnum.IS_ERROR_ENABLED.ordinal();
+	private final static int ERROR = LoggerMethodEnum.ERROR.ordinal();
+	private final static int ERROR_FORMAT_ONE = LoggerMethodEnum.ERROR_FORMAT_ONE.ordinal();
+	private final static int ERROR_FORMAT_TWO = LoggerMethodEnum.ERROR_FORMAT_TWO.ordinal();
+	private final static int ERROR_FORMAT_MANY = LoggerMethodEnum.ERROR_FORMAT_MANY.ordinal();
+	private final static int ERROR_THROWABLE = LoggerMethodEnum.ERROR_THROWABLE.ordinal();
+
+	/**
+	 * 按LoggerMethodEnum的ordinal存放的绑定了innerlogback的MethodHandle
+	 */
+	private final MethodHandle[] handles;
+
+	public MethodHandleLoggerBridge(Object innerlogback, LoggerMethodCache methodCache) {
+		LoggerMethodEnum[] methodEnums = LoggerMethodEnum.values();
+		this.handles = new MethodHandle[methodEnums.length];
+		for (LoggerMethodEnum methodEnum : methodEnums) {
+			try {
+				handles[methodEnum.ordinal()] = LOOKUP.unreflect(methodCache.getMethod(methodEnum)).asFixedArity()
+						.bindTo(innerlogback);
+			} catch (Exception e) {
+				throw new RuntimeException("bind method handle Error! class: " + innerlogback.getClass()
+						+ " method: " + methodEnum.getmKey(), e);
+			}
+		}
+	}
+
+	public String getName() {
+		try {
+			return (String) handles[GET_NAME].invokeExact();
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.GET_NAME, e);
+		}
+	}
+
+	public boolean isTraceEnabled() {
+		try {
+			return (boolean) handles[IS_TRACE_ENABLED].invokeExact();
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.IS_TRACE_ENABLED, e);
+		}
+	}
+
+	public void trace(String msg) {
+		try {
+			handles[TRACE].invokeExact(msg);
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.TRACE, e);
+		}
+	}
+
+	public void trace(String format, Object arg) {
+		try {
+			handles[TRACE_FORMAT_ONE].invokeExact(format, arg);
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.TRACE_FORMAT_ONE, e);
+		}
+	}
+
+	public void trace(String format, Object arg1, Object arg2) {
+		try {
+			handles[TRACE_FORMAT_TWO].invokeExact(format, arg1, arg2);
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.TRACE_FORMAT_TWO, e);
+		}
+	}
+
+	public void trace(String format, Object... arguments) {
+		try {
+			handles[TRACE_FORMAT_MANY].invokeExact(format, arguments);
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.TRACE_FORMAT_MANY, e);
+		}
+	}
+
+	public void trace(String msg, Throwable t) {
+		try {
+			handles[TRACE_THROWABLE].invokeExact(msg, t);
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.TRACE_THROWABLE, e);
+		}
+	}
+
+	public boolean isDebugEnabled() {
+		try {
+			return (boolean) handles[IS_DEBUG_ENABLED].invokeExact();
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.IS_DEBUG_ENABLED, e);
+		}
+	}
+
+	public void debug(String msg) {
+		try {
+			handles[DEBUG].invokeExact(msg);
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.DEBUG, e);
+		}
+	}
+
+	public void debug(String format, Object arg) {
+		try {
+			handles[DEBUG_FORMAT_ONE].invokeExact(format, arg);
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.DEBUG_FORMAT_ONE, e);
+		}
+	}
+
+	public void debug(String format, Object arg1, Object arg2) {
+		try {
+			handles[DEBUG_FORMAT_TWO].invokeExact(format, arg1, arg2);
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.DEBUG_FORMAT_TWO, e);
+		}
+	}
+
+	public void debug(String format, Object... arguments) {
+		try {
+			handles[DEBUG_FORMAT_MANY].invokeExact(format, arguments);
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.DEBUG_FORMAT_MANY, e);
+		}
+	}
+
+	public void debug(String msg, Throwable t) {
+		try {
+			handles[DEBUG_THROWABLE].invokeExact(msg, t);
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.DEBUG_THROWABLE, e);
+		}
+	}
+
+	public boolean isInfoEnabled() {
+		try {
+			return (boolean) handles[IS_INFO_ENABLED].invokeExact();
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.IS_INFO_ENABLED, e);
+		}
+	}
+
+	public void info(String msg) {
+		try {
+			handles[INFO].invokeExact(msg);
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.INFO, e);
+		}
+	}
+
+	public void info(String format, Object arg) {
+		try {
+			handles[INFO_FORMAT_ONE].invokeExact(format, arg);
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.INFO_FORMAT_ONE, e);
+		}
+	}
+
+	public void info(String format, Object arg1, Object arg2) {
+		try {
+			handles[INFO_FORMAT_TWO].invokeExact(format, arg1, arg2);
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.INFO_FORMAT_TWO, e);
+		}
+	}
+
+	public void info(String format, Object... arguments) {
+		try {
+			handles[INFO_FORMAT_MANY].invokeExact(format, arguments);
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.INFO_FORMAT_MANY, e);
+		}
+	}
+
+	public void info(String msg, Throwable t) {
+		try {
+			handles[INFO_THROWABLE].invokeExact(msg, t);
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.INFO_THROWABLE, e);
+		}
+	}
+
+	public boolean isWarnEnabled() {
+		try {
+			return (boolean) handles[IS_WARN_ENABLED].invokeExact();
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.IS_WARN_ENABLED, e);
+		}
+	}
+
+	public void warn(String msg) {
+		try {
+			handles[WARN].invokeExact(msg);
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.WARN, e);
+		}
+	}
+
+	public void warn(String format, Object arg) {
+		try {
+			handles[WARN_FORMAT_ONE].invokeExact(format, arg);
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.WARN_FORMAT_ONE, e);
+		}
+	}
+
+	public void warn(String format, Object arg1, Object arg2) {
+		try {
+			handles[WARN_FORMAT_TWO].invokeExact(format, arg1, arg2);
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.WARN_FORMAT_TWO, e);
+		}
+	}
+
+	public void warn(String format, Object... arguments) {
+		try {
+			handles[WARN_FORMAT_MANY].invokeExact(format, arguments);
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.WARN_FORMAT_MANY, e);
+		}
+	}
+
+	public void warn(String msg, Throwable t) {
+		try {
+			handles[WARN_THROWABLE].invokeExact(msg, t);
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.WARN_THROWABLE, e);
+		}
+	}
+
+	public boolean isErrorEnabled() {
+		try {
+			return (boolean) handles[IS_ERROR_ENABLED].invokeExact();
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.IS_ERROR_ENABLED, e);
+		}
+	}
+
+	public void error(String msg) {
+		try {
+			handles[ERROR].invokeExact(msg);
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.ERROR, e);
+		}
+	}
+
+	public void error(String format, Object arg) {
+		try {
+			handles[ERROR_FORMAT_ONE].invokeExact(format, arg);
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.ERROR_FORMAT_ONE, e);
+		}
+	}
+
+	public void error(String format, Object arg1, Object arg2) {
+		try {
+			handles[ERROR_FORMAT_TWO].invokeExact(format, arg1, arg2);
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.ERROR_FORMAT_TWO, e);
+		}
+	}
+
+	public void error(String format, Object... arguments) {
+		try {
+			handles[ERROR_FORMAT_MANY].invokeExact(format, arguments);
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.ERROR_FORMAT_MANY, e);
+		}
+	}
+
+	public void error(String msg, Throwable t) {
+		try {
+			handles[ERROR_THROWABLE].invokeExact(msg, t);
+		} catch (Throwable e) {
+			throw invokeError(LoggerMethodEnum.ERROR_THROWABLE, e);
+		}
+	}
+
+	private RuntimeException invokeError(LoggerMethodEnum methodEnum, Throwable e) {
+		if (e instanceof RuntimeException) {
+			return (RuntimeException) e;
+		}
+		if (e instanceof Error) {
+			throw (Error) e;
+		}
+		return new RuntimeException("invoke method handle Error ! cacheKey: " + methodEnum.getmKey(), e);
+	}
+}
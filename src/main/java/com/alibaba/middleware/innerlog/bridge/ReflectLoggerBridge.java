@@ -0,0 +1,168 @@
+package com.alibaba.middleware.innerlog.bridge;
+
+import java.util.Arrays;
+
+import com.alibaba.middleware.innerlog.cache.LoggerMethodCache;
+import com.alibaba.middleware.innerlog.cache.LoggerMethodEnum;
+import com.alibaba.middleware.innerlog.util.ArrayUtils;
+
+/**
+ * 通过反射调用sl4j Logger的桥接实现
+ *
+ * 只有在LoggerClassLoader中define桥接类失败,或者通过-Dinnerlogger.bridge=reflect
+ * 指定时才会使用,作为Slf4jLoggerBridge的兜底方案。
+ *
+ * version 1.0
+ */
+public class ReflectLoggerBridge extends AbstractLoggerBridge {
+	/**
+	 * 加载innerlogback的classLoader对应的Method表
+	 */
+	private final LoggerMethodCache methodCache;
+	/**
+	 * 真实的sl4j的Logger对象
+	 */
+	private final Object innerlogback;
+
+	public ReflectLoggerBridge(Object innerlogback, LoggerMethodCache methodCache) {
+		this.innerlogback = innerlogback;
+		this.methodCache = methodCache;
+	}
+
+	public String getName() {
+		return (String) this.invokeMethod(LoggerMethodEnum.GET_NAME, ArrayUtils.EMPTY_OBJECT_ARRAY);
+	}
+
+	public boolean isTraceEnabled() {
+		return (Boolean) this.invokeMethod(LoggerMethodEnum.IS_TRACE_ENABLED, ArrayUtils.EMPTY_OBJECT_ARRAY);
+	}
+
+	public void trace(String msg) {
+		this.invokeMethod(LoggerMethodEnum.TRACE, msg);
+	}
+
+	public void trace(String format, Object arg) {
+		this.invokeMethod(LoggerMethodEnum.TRACE_FORMAT_ONE, format, arg);
+	}
+
+	public void trace(String format, Object arg1, Object arg2) {
+		this.invokeMethod(LoggerMethodEnum.TRACE_FORMAT_TWO, format, arg1, arg2);
+	}
+
+	public void trace(String format, Object... arguments) {
+		this.invokeMethod(LoggerMethodEnum.TRACE_FORMAT_MANY, format, arguments);
+	}
+
+	public void trace(String msg, Throwable t) {
+		this.invokeMethod(LoggerMethodEnum.TRACE_THROWABLE, msg, t);
+	}
+
+	public boolean isDebugEnabled() {
+		return (Boolean) this.invokeMethod(LoggerMethodEnum.IS_DEBUG_ENABLED, ArrayUtils.EMPTY_OBJECT_ARRAY);
+	}
+
+	public void debug(String msg) {
+		this.invokeMethod(LoggerMethodEnum.DEBUG, msg);
+	}
+
+	public void debug(String format, Object arg) {
+		this.invokeMethod(LoggerMethodEnum.DEBUG_FORMAT_ONE, format, arg);
+	}
+
+	public void debug(String format, Object arg1, Object arg2) {
+		this.invokeMethod(LoggerMethodEnum.DEBUG_FORMAT_TWO, format, arg1, arg2);
+	}
+
+	public void debug(String format, Object... arguments) {
+		this.invokeMethod(LoggerMethodEnum.DEBUG_FORMAT_MANY, format, arguments);
+	}
+
+	public void debug(String msg, Throwable t) {
+		this.invokeMethod(LoggerMethodEnum.DEBUG_THROWABLE, msg, t);
+	}
+
+	public boolean isInfoEnabled() {
+		return (Boolean) this.invokeMethod(LoggerMethodEnum.IS_INFO_ENABLED, ArrayUtils.EMPTY_OBJECT_ARRAY);
+	}
+
+	public void info(String msg) {
+		this.invokeMethod(LoggerMethodEnum.INFO, msg);
+	}
+
+	public void info(String format, Object arg) {
+		this.invokeMethod(LoggerMethodEnum.INFO_FORMAT_ONE, format, arg);
+	}
+
+	public void info(String format, Object arg1, Object arg2) {
+		this.invokeMethod(LoggerMethodEnum.INFO_FORMAT_TWO, format, arg1, arg2);
+	}
+
+	public void info(String format, Object... arguments) {
+		this.invokeMethod(LoggerMethodEnum.INFO_FORMAT_MANY, format, arguments);
+	}
+
+	public void info(String msg, Throwable t) {
+		this.invokeMethod(LoggerMethodEnum.INFO_THROWABLE, msg, t);
+	}
+
+	public boolean isWarnEnabled() {
+		return (Boolean) this.invokeMethod(LoggerMethodEnum.IS_WARN_ENABLED, ArrayUtils.EMPTY_OBJECT_ARRAY);
+	}
+
+	public void warn(String msg) {
+		this.invokeMethod(LoggerMethodEnum.WARN, msg);
+	}
+
+	public void warn(String format, Object arg) {
+		this.invokeMethod(LoggerMethodEnum.WARN_FORMAT_ONE, format, arg);
+	}
+
+	public void warn(String format, Object arg1, Object arg2) {
+		this.invokeMethod(LoggerMethodEnum.WARN_FORMAT_TWO, format, arg1, arg2);
+	}
+
+	public void warn(String format, Object... arguments) {
+		this.invokeMethod(LoggerMethodEnum.WARN_FORMAT_MANY, format, arguments);
+	}
+
+	public void warn(String msg, Throwable t) {
+		this.invokeMethod(LoggerMethodEnum.WARN_THROWABLE, msg, t);
+	}
+
+	public boolean isErrorEnabled() {
+		return (Boolean) this.invokeMethod(LoggerMethodEnum.IS_ERROR_ENABLED, ArrayUtils.EMPTY_OBJECT_ARRAY);
+	}
+
+	public void error(String msg) {
+		this.invokeMethod(LoggerMethodEnum.ERROR, msg);
+	}
+
+	public void error(String format, Object arg) {
+		this.invokeMethod(LoggerMethodEnum.ERROR_FORMAT_ONE, format, arg);
+	}
+
+	public void error(String format, Object arg1, Object arg2) {
+		this.invokeMethod(LoggerMethodEnum.ERROR_FORMAT_TWO, format, arg1, arg2);
+	}
+
+	public void error(String format, Object... arguments) {
+		this.invokeMethod(LoggerMethodEnum.ERROR_FORMAT_MANY, format, arguments);
+	}
+
+	public void error(String msg, Throwable t) {
+		this.invokeMethod(LoggerMethodEnum.ERROR_THROWABLE, msg, t);
+	}
+
+	private Object invokeMethod(LoggerMethodEnum methodEnum, Object... arguments) {
+		try {
+			return methodCache.invoke(methodEnum, this.innerlogback, arguments);
+		} catch (Exception e) {
+			e.printStackTrace();
+			StringBuilder sb = new StringBuilder("invokeMethod Error! ");
+			sb.append(" class: ").append(this.innerlogback.getClass());
+			sb.append(" method: ").append(methodEnum.getmKey());
+			sb.append(" arguments: ").append(Arrays.toString(arguments));
+			throw new RuntimeException(sb.toString(), e);
+		}
+	}
+}
@@ -0,0 +1,212 @@
+package com.alibaba.middleware.innerlog.bridge;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.slf4j.Marker;
+import org.slf4j.helpers.MessageFormatter;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.CallerData;
+import ch.qos.logback.classic.spi.EventArgUtil;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.LoggerContextVO;
+import ch.qos.logback.classic.spi.ThrowableProxy;
+
+import com.alibaba.middleware.innerlog.cache.FormatTemplateCache;
+
+/**
+ * 可以重复使用的日志事件,异步输出时代替logback的LoggingEvent,无垃圾模式下每个线程一个
+ *
+ * 格式化日志内容时使用FormatTemplateCache中预编译的格式模板。MDC使用调用方记录日志时获取的,
+ * 事件在后台线程中输出,无法获取调用方的位置信息,getCallerData返回空数组。
+ * 各个方法的返回值和LoggingEvent一致。AsyncAppender等需要保留事件的appender会调用
+ * prepareForDeferredProcessing,之后该事件不再重复使用,由调用方换一个新的事件。
+ *
+ * 注: 该类和Slf4jEventDispatcher一样在LoggerClassLoader中define。
+ *
+ * version 1.0
+ */
+public class ReusableLoggingEvent implements ILoggingEvent {
+
+	private final static Map<String, String> EMPTY_MDC = Collections.emptyMap();
+
+	private final LoggerContext loggerContext;
+	private final LoggerContextVO loggerContextVO;
+
+	private String loggerName;
+	private Level level;
+	private String message;
+	private Object[] argumentArray;
+	private Throwable throwable;
+	private long timeStamp;
+	private String threadName;
+
+	private String formattedMessage;
+	private ThrowableProxy throwableProxy;
+	private Map<String, String> mdcPropertyMap;
+
+	private boolean inUse = false;
+	private boolean deferred = false;
+
+	public ReusableLoggingEvent(LoggerContext loggerContext) {
+		this.loggerContext = loggerContext;
+		this.loggerContextVO = loggerContext.getLoggerContextRemoteView();
+	}
+
+	/**
+	 * 填充事件,和LoggingEvent一样没有指定异常时最后一个参数可以是异常
+	 *
+	 * @param mdc 调用方记录日志时的MDC,为null时表示没有MDC
+	 * @return 事件正在被使用(appender中又记录了日志)或者已经被appender保留时返回false
+	 */
+	public boolean set(Logger logger, Level level, String message, Object[] argumentArray, Throwable throwable,
+			long timeStamp, String threadName, Map<String, String> mdc) {
+		if (inUse || deferred) {
+			return false;
+		}
+		inUse = true;
+		this.loggerName = logger.getName();
+		this.level = level;
+		this.message = message;
+		this.argumentArray = argumentArray;
+		this.throwable = throwable;
+		if (null == throwable && null != argumentArray) {
+			Throwable extracted = EventArgUtil.extractThrowable(argumentArray);
+			if (EventArgUtil.successfulExtraction(extracted)) {
+				this.throwable = extracted;
+				this.argumentArray = EventArgUtil.trimmedCopy(argumentArray);
+			}
+		}
+		this.timeStamp = timeStamp;
+		this.threadName = threadName;
+		this.mdcPropertyMap = null == mdc ? EMPTY_MDC : mdc;
+		return true;
+	}
+
+	/**
+	 * appender处理完后释放引用,没有被appender保留时可以重复使用
+	 *
+	 * @return 是否可以重复使用
+	 */
+	public boolean release() {
+		inUse = false;
+		if (deferred) {
+			return false;
+		}
+		loggerName = null;
+		level = null;
+		message = null;
+		argumentArray = null;
+		throwable = null;
+		threadName = null;
+		formattedMessage = null;
+		throwableProxy = null;
+		mdcPropertyMap = null;
+		return true;
+	}
+
+	public String getThreadName() {
+		return threadName;
+	}
+
+	public Level getLevel() {
+		return level;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public Object[] getArgumentArray() {
+		return argumentArray;
+	}
+
+	public String getFormattedMessage() {
+		if (null != formattedMessage) {
+			return formattedMessage;
+		}
+		formattedMessage = formatMessage(message, argumentArray);
+		return formattedMessage;
+	}
+
+	/**
+	 * 优先使用预编译的格式模板,参数中有数组时交给MessageFormatter
+	 */
+	static String formatMessage(String message, Object[] argumentArray) {
+		if (null == argumentArray) {
+			return message;
+		}
+		String formatted = FormatTemplateCache.format(message, argumentArray);
+		if (null == formatted) {
+			formatted = MessageFormatter.arrayFormat(message, argumentArray).getMessage();
+		}
+		return formatted;
+	}
+
+	public String getLoggerName() {
+		return loggerName;
+	}
+
+	public LoggerContextVO getLoggerContextVO() {
+		return loggerContextVO;
+	}
+
+	public IThrowableProxy getThrowableProxy() {
+		if (null == throwableProxy && null != throwable) {
+			throwableProxy = new ThrowableProxy(throwable);
+			if (loggerContext.isPackagingDataEnabled()) {
+				throwableProxy.calculatePackagingData();
+			}
+		}
+		return throwableProxy;
+	}
+
+	/**
+	 * 在后台线程中获取的调用栈不是调用方的,%line和%class等输出为空
+	 */
+	public StackTraceElement[] getCallerData() {
+		return CallerData.EMPTY_CALLER_DATA_ARRAY;
+	}
+
+	public boolean hasCallerData() {
+		return true;
+	}
+
+	public Marker getMarker() {
+		return null;
+	}
+
+	public Map<String, String> getMDCPropertyMap() {
+		return mdcPropertyMap;
+	}
+
+	@SuppressWarnings("deprecation")
+	public Map<String, String> getMdc() {
+		return getMDCPropertyMap();
+	}
+
+	public long getTimeStamp() {
+		return timeStamp;
+	}
+
+	/**
+	 * appender需要保留该事件,事件不再重复使用
+	 */
+	public void prepareForDeferredProcessing() {
+		deferred = true;
+		if (null != argumentArray) {
+			// 调用方会重复使用参数数组
+			argumentArray = argumentArray.clone();
+		}
+		getFormattedMessage();
+		getThreadName();
+	}
+
+	public String toString() {
+		return "[" + level + "] " + getFormattedMessage();
+	}
+}
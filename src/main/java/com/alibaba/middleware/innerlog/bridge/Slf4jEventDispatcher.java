@@ -0,0 +1,129 @@
+package com.alibaba.middleware.innerlog.bridge;
+
+import java.util.Map;
+
+import org.slf4j.MDC;
+import org.slf4j.spi.MDCAdapter;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.EventArgUtil;
+import ch.qos.logback.classic.spi.ThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.classic.spi.TurboFilterList;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * 在内置logback中重建日志事件并直接交给appender输出
+ *
+ * 和logback的Logger.filterAndLog一样先经过TurboFilter和日志级别判断,
+ * 再把调用方的线程名称,时间和MDC设置到ReusableLoggingEvent中,不使用消费线程的。
+ * ReusableLoggingEvent格式化时使用FormatTemplateCache中预编译的格式模板。
+ *
+ * 无垃圾模式下每个线程重复使用一个ReusableLoggingEvent,否则每个事件创建一个新的。
+ *
+ * 注: 该类和Slf4jLoggerBridge一样在LoggerClassLoader中define,不能使用匿名内部类。
+ *
+ * version 1.0
+ */
+public class Slf4jEventDispatcher implements EventDispatcher {
+
+	private final LoggerContext loggerContext;
+	/**
+	 * 无垃圾模式下每个线程的可重复使用的事件,非无垃圾模式为null
+	 */
+	private final ThreadLocal<ReusableLoggingEvent> reusableEvents;
+
+	public Slf4jEventDispatcher(LoggerContext loggerContext) {
+		this(loggerContext, false);
+	}
+
+	public Slf4jEventDispatcher(LoggerContext loggerContext, boolean garbageFree) {
+		this.loggerContext = loggerContext;
+		this.reusableEvents = garbageFree ? new ThreadLocal<ReusableLoggingEvent>() : null;
+	}
+
+	public void dispatch(Object target, int levelInt, String message, Object[] arguments, Throwable throwable,
+			long timeStamp, String threadName, Map<String, String> mdc) {
+		Logger logger = (Logger) target;
+		Level level = Level.fromLocationAwareLoggerInteger(levelInt);
+		TurboFilterList turboFilters = logger.getLoggerContext().getTurboFilterList();
+		if (turboFilters.isEmpty()) {
+			if (!level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+				return;
+			}
+		} else {
+			FilterReply decision = turboFilters.getTurboFilterChainDecision(null, logger, level, message,
+					arguments, throwable);
+			if (FilterReply.DENY == decision
+					|| (FilterReply.NEUTRAL == decision && !level.isGreaterOrEqual(logger.getEffectiveLevel()))) {
+				return;
+			}
+		}
+		if (null != reusableEvents) {
+			ReusableLoggingEvent reusable = reusableEvents.get();
+			if (null == reusable) {
+				reusable = new ReusableLoggingEvent(loggerContext);
+				reusableEvents.set(reusable);
+			}
+			if (reusable.set(logger, level, message, arguments, throwable, timeStamp, threadName, mdc)) {
+				try {
+					logger.callAppenders(reusable);
+				} finally {
+					if (!reusable.release()) {
+						// 事件被appender保留
+						reusableEvents.set(new ReusableLoggingEvent(loggerContext));
+					}
+				}
+				return;
+			}
+		}
+		ReusableLoggingEvent event = new ReusableLoggingEvent(loggerContext);
+		event.set(logger, level, message, arguments, throwable, timeStamp, threadName, mdc);
+		logger.callAppenders(event);
+	}
+
+	public String format(String message, Object[] arguments, Throwable throwable) {
+		// 和LoggingEvent一样,没有指定异常时最后一个参数可以是异常
+		Throwable t = throwable;
+		Object[] argumentArray = arguments;
+		if (null == t && null != arguments) {
+			Throwable extracted = EventArgUtil.extractThrowable(arguments);
+			if (EventArgUtil.successfulExtraction(extracted)) {
+				t = extracted;
+				argumentArray = EventArgUtil.trimmedCopy(arguments);
+			}
+		}
+		String formatted = ReusableLoggingEvent.formatMessage(message, argumentArray);
+		if (null == t) {
+			return formatted;
+		}
+		return formatted + CoreConstants.LINE_SEPARATOR + ThrowableProxyUtil.asString(new ThrowableProxy(t));
+	}
+
+	/**
+	 * LogbackMDCAdapter返回的Map在之后修改MDC时会被复制,可以直接交给后台线程,不需要再复制
+	 */
+	@SuppressWarnings("unchecked")
+	public Map<String, String> getMdcPropertyMap() {
+		MDCAdapter mdcAdapter = MDC.getMDCAdapter();
+		Map<String, String> mdc;
+		if (mdcAdapter instanceof LogbackMDCAdapter) {
+			mdc = ((LogbackMDCAdapter) mdcAdapter).getPropertyMap();
+		} else {
+			mdc = mdcAdapter.getCopyOfContextMap();
+		}
+		return null == mdc || mdc.isEmpty() ? null : mdc;
+	}
+
+	public String getLoggerName(Object logger) {
+		return ((Logger) logger).getName();
+	}
+
+	public Object getLogger(String loggerName) {
+		return loggerContext.getLogger(loggerName);
+	}
+}
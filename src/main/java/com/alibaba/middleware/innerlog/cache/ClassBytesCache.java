@@ -0,0 +1,77 @@
+package com.alibaba.middleware.innerlog.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 内置LogLib中class字节码的进程级Cache
+ *
+ * 内置的LogLib在进程内不会变化,每个class只需要从jar中读取和解压一次,
+ * 所有appKey的LoggerClassLoader共享同一份字节码,各自defineClass保证隔离。
+ * 放入cache的字节码不会再被修改,defineClass时JVM会自己复制。
+ *
+ * version 1.0
+ */
+public class ClassBytesCache {
+
+	/**
+	 * LogLib中不存在的class,logback启动时会探测groovy,janino等可选依赖
+	 */
+	private final static byte[] NOT_FOUND = new byte[0];
+
+	private final ConcurrentMap<String/*className*/, byte[]/*classBytes*/> classBytes = new ConcurrentHashMap<String, byte[]>();
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong cachedBytes = new AtomicLong();
+
+	/**
+	 * @return 缓存的字节码,没有读取过返回null
+	 */
+	public byte[] get(String className) {
+		byte[] bytes = classBytes.get(className);
+		if (null == bytes) {
+			missCount.incrementAndGet();
+		} else {
+			hitCount.incrementAndGet();
+		}
+		return bytes;
+	}
+
+	/**
+	 * 放入读取的字节码,已经有其他线程放入时返回已有的字节码
+	 */
+	public byte[] putIfAbsent(String className, byte[] bytes) {
+		byte[] exist = classBytes.putIfAbsent(className, bytes);
+		if (null != exist) {
+			return exist;
+		}
+		cachedBytes.addAndGet(bytes.length);
+		return bytes;
+	}
+
+	public void putNotFound(String className) {
+		classBytes.putIfAbsent(className, NOT_FOUND);
+	}
+
+	public static boolean isNotFound(byte[] bytes) {
+		return NOT_FOUND == bytes;
+	}
+
+	public int size() {
+		return classBytes.size();
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	public long getCachedBytes() {
+		return cachedBytes.get();
+	}
+}
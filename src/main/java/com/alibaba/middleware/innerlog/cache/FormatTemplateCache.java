@@ -0,0 +1,296 @@
+package com.alibaba.middleware.innerlog.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.alibaba.middleware.innerlog.metrics.StripedCounter;
+import com.alibaba.middleware.innerlog.util.other.StrBuilder;
+
+/**
+ * 日志格式"{}"的预编译模板的进程级Cache
+ *
+ * 格式几乎都是常量,按照String对象的identity直接映射到固定大小的槽位中,
+ * 模板把格式拆成转义已经处理过的文本段和参数位置,格式化时只需要把文本段和参数依次追加到线程复用的StrBuilder中,
+ * 不再每次查找"{}"。输出结果和sl4j的MessageFormatter.arrayFormat一致。
+ *
+ * 动态拼接的格式每次都是新的对象,同一个对象第二次使用时才编译放入槽位,
+ * 只出现一次的格式不会挤掉常量格式的模板;槽位冲突时新的模板替换旧的模板,
+ * 槽位数固定,超过MAX_PATTERN_LENGTH的格式不缓存,占用的内存有上限。
+ *
+ * 注: 该类和LoggerBridge一样由LoggerClassLoader委派给业务的classLoader加载,所有appKey共享。
+ * 参数中有数组时返回null,由调用方交给MessageFormatter处理。
+ *
+ * 可以通过-Dinnerlogger.formatCacheSize 指定槽位数(取整为2的幂),为0时关闭。
+ *
+ * version 1.0
+ */
+public class FormatTemplateCache {
+
+	private final static String DELIMITER = "{}";
+	private final static char ESCAPE_CHAR = '\\';
+	private final static int DEFAULT_SIZE = 4096;
+	/**
+	 * 超过该长度的格式不缓存
+	 */
+	private final static int MAX_PATTERN_LENGTH = 1024;
+	/**
+	 * 线程复用的StrBuilder超过该容量时不再保留
+	 */
+	private final static int MAX_BUILDER_CAPACITY = 16 * 1024;
+	/**
+	 * 估算内存时对象头和引用的大小
+	 */
+	private final static int OBJECT_OVERHEAD = 16;
+	private final static int REFERENCE_SIZE = 8;
+
+	private final static FormatTemplateCache INSTANCE = new FormatTemplateCache(Integer.getInteger(
+			"innerlogger.formatCacheSize", DEFAULT_SIZE));
+
+	private final static ThreadLocal<StrBuilder> BUILDERS = new ThreadLocal<StrBuilder>();
+
+	private final int mask;
+	private final AtomicReferenceArray<Template> templates;
+	/**
+	 * 每个槽位最近一次没有命中的格式,同一个对象再次出现时才编译
+	 */
+	private final AtomicReferenceArray<String> candidates;
+
+	/**
+	 * 每次格式化都会累加,所有appKey的线程共享,分段计数避免在同一个缓存行上竞争
+	 */
+	private final StripedCounter hitCount = new StripedCounter();
+	private final StripedCounter missCount = new StripedCounter();
+	private final AtomicLong evictionCount = new AtomicLong();
+	private final AtomicLong cachedBytes = new AtomicLong();
+
+	FormatTemplateCache(int size) {
+		if (size <= 0) {
+			this.mask = -1;
+			this.templates = null;
+			this.candidates = null;
+			return;
+		}
+		int capacity = Integer.highestOneBit(Math.min(size, 1 << 20));
+		if (capacity < size) {
+			capacity <<= 1;
+		}
+		this.mask = capacity - 1;
+		this.templates = new AtomicReferenceArray<Template>(capacity);
+		this.candidates = new AtomicReferenceArray<String>(capacity);
+	}
+
+	public static FormatTemplateCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * 按照sl4j的规则格式化
+	 *
+	 * @return 格式化之后的日志内容,参数中有数组或者关闭了Cache时返回null
+	 */
+	public static String format(String pattern, Object[] arguments) {
+		return INSTANCE.doFormat(pattern, arguments);
+	}
+
+	String doFormat(String pattern, Object[] arguments) {
+		if (null == pattern || null == arguments || 0 == arguments.length) {
+			return pattern;
+		}
+		Template template = getTemplate(pattern);
+		if (null == template) {
+			return null;
+		}
+		StrBuilder builder = BUILDERS.get();
+		if (null == builder) {
+			builder = new StrBuilder(256);
+			BUILDERS.set(builder);
+		}
+		builder.clear();
+		String formatted = template.render(builder, arguments) ? builder.toString() : null;
+		if (builder.capacity() > MAX_BUILDER_CAPACITY) {
+			BUILDERS.remove();
+		}
+		return formatted;
+	}
+
+	private Template getTemplate(String pattern) {
+		if (null == templates) {
+			return null;
+		}
+		int index = System.identityHashCode(pattern) & mask;
+		Template template = templates.get(index);
+		if (null != template && template.pattern == pattern) {
+			hitCount.increment();
+			return template;
+		}
+		missCount.increment();
+		template = Template.compile(pattern);
+		if (pattern.length() > MAX_PATTERN_LENGTH) {
+			return template;
+		}
+		if (candidates.get(index) != pattern) {
+			candidates.set(index, pattern);
+			return template;
+		}
+		candidates.set(index, null);
+		Template evicted = templates.getAndSet(index, template);
+		cachedBytes.addAndGet(template.estimatedBytes);
+		if (null != evicted) {
+			evictionCount.incrementAndGet();
+			cachedBytes.addAndGet(-evicted.estimatedBytes);
+		}
+		return template;
+	}
+
+	public int size() {
+		if (null == templates) {
+			return 0;
+		}
+		int size = 0;
+		for (int i = 0; i < templates.length(); i++) {
+			if (null != templates.get(i)) {
+				size++;
+			}
+		}
+		return size;
+	}
+
+	public int capacity() {
+		return mask + 1;
+	}
+
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * @return 命中率,没有查找过时为0
+	 */
+	public double getHitRate() {
+		long hits = hitCount.sum();
+		long total = hits + missCount.sum();
+		return 0 == total ? 0 : (double) hits / total;
+	}
+
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	/**
+	 * @return 模板估算占用的内存,不包括格式字符串本身和槽位数组
+	 */
+	public long getCachedBytes() {
+		return cachedBytes.get();
+	}
+
+	/**
+	 * 预编译的格式,按照参数无限多时MessageFormatter.arrayFormat的处理过程拆分
+	 */
+	static final class Template {
+		final String pattern;
+		/**
+		 * 每个参数位置之前的文本,转义已经处理
+		 */
+		final String[] literals;
+		/**
+		 * 每个参数位置之后在pattern中的下标,参数用完时从这里原样追加剩余的pattern
+		 */
+		final int[] rawTails;
+		/**
+		 * 参数多于参数位置时追加在最后的文本
+		 */
+		final String tail;
+		final long estimatedBytes;
+
+		private Template(String pattern, String[] literals, int[] rawTails, String tail) {
+			this.pattern = pattern;
+			this.literals = literals;
+			this.rawTails = rawTails;
+			this.tail = tail;
+			long bytes = OBJECT_OVERHEAD * 4 + (long) literals.length * (REFERENCE_SIZE + 4 + OBJECT_OVERHEAD);
+			for (String literal : literals) {
+				bytes += literal.length() * 2;
+			}
+			this.estimatedBytes = bytes + tail.length() * 2;
+		}
+
+		static Template compile(String pattern) {
+			List<String> literals = new ArrayList<String>();
+			List<Integer> rawTails = new ArrayList<Integer>();
+			StringBuilder literal = new StringBuilder();
+			int i = 0;
+			int j;
+			while (-1 != (j = pattern.indexOf(DELIMITER, i))) {
+				if (j >= 1 && ESCAPE_CHAR == pattern.charAt(j - 1)) {
+					literal.append(pattern, i, j - 1);
+					if (j < 2 || ESCAPE_CHAR != pattern.charAt(j - 2)) {
+						// "\{}"输出"{}",不占用参数
+						literal.append('{');
+						i = j + 1;
+						continue;
+					}
+					// "\\{}"输出"\"和参数
+				} else {
+					literal.append(pattern, i, j);
+				}
+				i = j + 2;
+				literals.add(literal.toString());
+				rawTails.add(Integer.valueOf(i));
+				literal.setLength(0);
+			}
+			literal.append(pattern, i, pattern.length());
+			int[] tails = new int[rawTails.size()];
+			for (int k = 0; k < tails.length; k++) {
+				tails[k] = rawTails.get(k).intValue();
+			}
+			return new Template(pattern, literals.toArray(new String[literals.size()]), tails, literal.toString());
+		}
+
+		/**
+		 * @return 参数中有数组时返回false
+		 */
+		boolean render(StrBuilder builder, Object[] arguments) {
+			int count = Math.min(arguments.length, literals.length);
+			for (int k = 0; k < count; k++) {
+				builder.append(literals[k]);
+				Object argument = arguments[k];
+				if (null == argument) {
+					builder.append("null");
+				} else if (argument.getClass().isArray()) {
+					return false;
+				} else {
+					appendArgument(builder, argument);
+				}
+			}
+			if (arguments.length > literals.length) {
+				builder.append(tail);
+			} else {
+				int start = rawTails[count - 1];
+				builder.append(pattern, start, pattern.length() - start);
+			}
+			return true;
+		}
+
+		/*
+		 * 和MessageFormatter一样,toString失败时输出[FAILED toString()]
+		 */
+		private static void appendArgument(StrBuilder builder, Object argument) {
+			String value;
+			try {
+				value = argument.toString();
+			} catch (Throwable t) {
+				System.err.println("SLF4J: Failed toString() invocation on an object of type ["
+						+ argument.getClass().getName() + "]");
+				t.printStackTrace();
+				value = "[FAILED toString()]";
+			}
+			builder.append(null == value ? "null" : value);
+		}
+	}
+}
@@ -1,17 +1,15 @@
 package com.alibaba.middleware.innerlog.cache;
 
 import java.lang.reflect.Method;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
-import com.alibaba.middleware.innerlog.util.ArrayUtils;
 import com.alibaba.middleware.innerlog.util.MethodUtils;
 
 /**
  * Logger的反射调用加速的Cache
  *
- * 每个Logger的ClassLoader都对应一套Logger Method的Cache
+ * 每个Logger的ClassLoader都对应一套Logger Method的Cache,在classLoader绑定sl4j时
+ * 一次性解析好所有LoggerMethodEnum对应的Method,按照枚举的ordinal存放在数组中,
+ * 该classLoader下的所有Logger共享这份不可变的Method表,调用时只需要一次数组读取。
  *
  * User: <a href="mailto:qihao@taobao.com">qihao</a>
  * Date: 14-8-1
@@ -26,60 +24,36 @@ public class LoggerMethodCache {
 	final static Class<?>[] FORMAT_MANY_ARRAY = new Class[] { String.class, Object[].class };
 	final static Class<?>[] THROWABLE_ARRAY = new Class[] { String.class, Throwable.class };
 
-	private ConcurrentHashMap<Integer/*classLoaderId*/, Map<String, Method>/*methodCache*/> methodCache = new ConcurrentHashMap<Integer, Map<String, Method>>();
-
-	public void put(Integer classLoaderId, String cachKey, Method method) {
-		Map<String, Method> caches = getCacheWitchClassLoader(classLoaderId);
-		//关闭安全检查,加速反射调用
-		method.setAccessible(true);
-		caches.put(cachKey, method);
-	}
-
-	public void put(Integer classLoaderId, String cachKey, Class<?> clazz, String methodName,
-			Class<?>[] parameterTypes) {
-		Map<String, Method> caches = getCacheWitchClassLoader(classLoaderId);
-		Method method = MethodUtils.getMatchingAccessibleMethod(clazz, methodName, parameterTypes);
-		//关闭安全检查
-		method.setAccessible(true);
-		caches.put(cachKey, method);
-	}
-
-	public Object invoke(Integer classLoaderId, String cachKey, Object obj) {
-		return invoke(classLoaderId, cachKey, obj, ArrayUtils.EMPTY_OBJECT_ARRAY);
-	}
-
-	public Object invokeStatic(Integer classLoaderId, String cachKey) {
-		return invoke(classLoaderId, cachKey, null, ArrayUtils.EMPTY_OBJECT_ARRAY);
-	}
-
-	public Object invokeStatic(Integer classLoaderId, String cachKey, Object... args) {
-		return invoke(classLoaderId, cachKey, null, args);
-	}
-
-	public boolean containsKey(Integer classLoaderId, String cacheKey) {
-		Map<String, Method> caches = getCacheWitchClassLoader(classLoaderId);
-		return caches.containsKey(cacheKey);
+	/**
+	 * 按LoggerMethodEnum的ordinal存放的Method
+	 */
+	private final Method[] methods;
+
+	public LoggerMethodCache(Class<?> loggerClass) {
+		LoggerMethodEnum[] methodEnums = LoggerMethodEnum.values();
+		this.methods = new Method[methodEnums.length];
+		for (LoggerMethodEnum methodEnum : methodEnums) {
+			Method method = MethodUtils.getMatchingAccessibleMethod(loggerClass, methodEnum.getmName(),
+					methodEnum.getParmClassTypes());
+			if (null == method) {
+				throw new RuntimeException("not find method cacheKey: " + methodEnum.getmKey() + " class: "
+						+ loggerClass);
+			}
+			//关闭安全检查,加速反射调用
+			method.setAccessible(true);
+			methods[methodEnum.ordinal()] = method;
+		}
 	}
 
-	public Map<String, Method> getCacheWitchClassLoader(Integer classLoaderId) {
-		Map<String, Method> value = methodCache.get(classLoaderId);
-		if (null == value) {
-			value = new HashMap<String, Method>(LoggerMethodEnum.values().length);
-			methodCache.put(classLoaderId, value);
-		}
-		return value;
+	public Method getMethod(LoggerMethodEnum methodEnum) {
+		return methods[methodEnum.ordinal()];
 	}
 
-	public Object invoke(Integer classLoaderId, String cachKey, Object obj, Object... args) {
-		Map<String, Method> caches = getCacheWitchClassLoader(classLoaderId);
-		Method method = caches.get(cachKey);
-		if (null == method) {
-			throw new RuntimeException("not find method cache maybe not init put cacheKey: " + cachKey);
-		}
+	public Object invoke(LoggerMethodEnum methodEnum, Object obj, Object... args) {
 		try {
-			return method.invoke(obj, args);
+			return methods[methodEnum.ordinal()].invoke(obj, args);
 		} catch (Throwable e) {
-			throw new RuntimeException("invoke method Error ! cacheKey: " + cachKey, e);
+			throw new RuntimeException("invoke method Error ! cacheKey: " + methodEnum.getmKey(), e);
 		}
 	}
-}
\ No newline at end of file
+}
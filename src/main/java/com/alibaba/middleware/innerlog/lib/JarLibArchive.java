@@ -0,0 +1,64 @@
+package com.alibaba.middleware.innerlog.lib;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * 内置LogLib的jar文件,打开一次后一直保持打开状态,并建立entry的索引,
+ * LoggerClassLoader所有的class读取都通过该索引完成,appKey解除绑定时关闭。
+ *
+ * version 1.0
+ */
+public class JarLibArchive implements LibArchive {
+
+	private final JarFile jarFile;
+	/**
+	 * entry名称到entry的索引,打开后不再变化
+	 */
+	private final Map<String, JarEntry> entries;
+
+	public JarLibArchive(File libFile) throws IOException {
+		this.jarFile = new JarFile(libFile);
+		Map<String, JarEntry> index = new HashMap<String, JarEntry>();
+		Enumeration<JarEntry> jarEntries = jarFile.entries();
+		while (jarEntries.hasMoreElements()) {
+			JarEntry jarEntry = jarEntries.nextElement();
+			index.put(jarEntry.getName(), jarEntry);
+		}
+		this.entries = index;
+	}
+
+	public boolean contains(String entryName) {
+		return entries.containsKey(entryName);
+	}
+
+	public byte[] read(String entryName) throws IOException {
+		JarEntry jarEntry = entries.get(entryName);
+		if (null == jarEntry) {
+			return null;
+		}
+		InputStream input = jarFile.getInputStream(jarEntry);
+		try {
+			byte[] bytes = new byte[(int) jarEntry.getSize()];
+			new DataInputStream(input).readFully(bytes);
+			return bytes;
+		} finally {
+			input.close();
+		}
+	}
+
+	public void close() {
+		try {
+			jarFile.close();
+		} catch (IOException e) {
+			// skip exception
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package com.alibaba.middleware.innerlog.lib;
+
+import java.io.IOException;
+
+/**
+ * 内置LogLib的读取接口,LoggerClassLoader通过它读取LogLib中的class和资源
+ *
+ * version 1.0
+ */
+public interface LibArchive {
+
+	/**
+	 * @return LogLib中是否存在该entry
+	 */
+	boolean contains(String entryName);
+
+	/**
+	 * 读取entry的内容
+	 *
+	 * @return entry的字节,不存在时返回null
+	 */
+	byte[] read(String entryName) throws IOException;
+
+	void close();
+}
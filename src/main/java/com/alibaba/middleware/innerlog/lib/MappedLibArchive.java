@@ -0,0 +1,232 @@
+package com.alibaba.middleware.innerlog.lib;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * 通过mmap读取内置LogLib的实现
+ *
+ * 打开时将LogLib整体映射到内存,自己解析zip的central directory建立entry索引,
+ * 读取class时直接从映射的内存中拷贝或者解压,不再经过JarFile的流和native的zip实现。
+ * 映射的区域可以是外层jar中以STORED方式存放的LogLib,这时不需要导出到本地文件。
+ *
+ * 注: 只支持LogLib用到的STORED和DEFLATED两种压缩方式,不支持zip64,
+ * 不支持时打开会抛出IOException,由调用方回退到JarLibArchive。
+ *
+ * version 1.0
+ */
+public class MappedLibArchive implements LibArchive {
+
+	private final static int LOCAL_HEADER_SIG = 0x04034b50;
+	private final static int CENTRAL_HEADER_SIG = 0x02014b50;
+	private final static int END_HEADER_SIG = 0x06054b50;
+	private final static int LOCAL_HEADER_SIZE = 30;
+	private final static int CENTRAL_HEADER_SIZE = 46;
+	private final static int END_HEADER_SIZE = 22;
+	/**
+	 * end of central directory之后最多跟65535字节的注释
+	 */
+	private final static int MAX_END_COMMENT = 0xFFFF;
+
+	private final static int METHOD_STORED = 0;
+	private final static int METHOD_DEFLATED = 8;
+
+	/**
+	 * 映射的LogLib内存,只读,读取时使用duplicate避免修改共享的position
+	 */
+	private final ByteBuffer buffer;
+	/**
+	 * entry名称到entry的索引,打开后不再变化
+	 */
+	private final Map<String, Entry> entries;
+
+	public MappedLibArchive(File libFile) throws IOException {
+		this(libFile, 0, libFile.length());
+	}
+
+	/**
+	 * 映射文件中[offset, offset + length)的区域,该区域必须是一个完整的zip
+	 */
+	public MappedLibArchive(File file, long offset, long length) throws IOException {
+		this.buffer = map(file, offset, length);
+		this.entries = readCentralDirectory(buffer);
+	}
+
+	/**
+	 * 打开外层jar中以STORED方式存放的LogLib,直接映射外层jar中的对应区域
+	 *
+	 * @return LogLib不存在,不是STORED方式存放或者大小不一致时返回null
+	 */
+	public static MappedLibArchive openStoredEntry(File outerJar, String entryName, long expectLength)
+			throws IOException {
+		MappedLibArchive outer = new MappedLibArchive(outerJar);
+		Entry entry = outer.entries.get(entryName);
+		if (null == entry || METHOD_STORED != entry.method || expectLength != entry.size) {
+			return null;
+		}
+		return new MappedLibArchive(outerJar, outer.dataOffset(entry), entry.size);
+	}
+
+	public boolean contains(String entryName) {
+		return entries.containsKey(entryName);
+	}
+
+	public byte[] read(String entryName) throws IOException {
+		Entry entry = entries.get(entryName);
+		if (null == entry) {
+			return null;
+		}
+		ByteBuffer data = buffer.duplicate();
+		data.position(dataOffset(entry));
+		if (METHOD_STORED == entry.method) {
+			byte[] bytes = new byte[entry.size];
+			data.get(bytes);
+			return bytes;
+		}
+		// DEFLATED,nowrap模式下Inflater需要在数据末尾多一个字节
+		byte[] compressed = new byte[entry.compressedSize + 1];
+		data.get(compressed, 0, entry.compressedSize);
+		byte[] bytes = new byte[entry.size];
+		Inflater inflater = new Inflater(true);
+		try {
+			inflater.setInput(compressed);
+			int count = 0;
+			while (count < bytes.length) {
+				int n = inflater.inflate(bytes, count, bytes.length - count);
+				if (0 == n && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				count += n;
+			}
+			if (count != bytes.length) {
+				throw new ZipException("invalid entry size, entry: " + entryName + ", expect: " + bytes.length
+						+ ", actual: " + count);
+			}
+			return bytes;
+		} catch (DataFormatException e) {
+			ZipException ze = new ZipException("inflate entry error, entry: " + entryName);
+			ze.initCause(e);
+			throw ze;
+		} finally {
+			inflater.end();
+		}
+	}
+
+	public void close() {
+		// MappedByteBuffer没有公开的unmap方法,映射在buffer被回收时释放
+	}
+
+	/*
+	 * 计算entry数据的起始位置,local header的extra长度可能和central directory中不同,需要重新读取
+	 */
+	private int dataOffset(Entry entry) throws IOException {
+		int localOffset = entry.localHeaderOffset;
+		if (localOffset + LOCAL_HEADER_SIZE > buffer.limit() || LOCAL_HEADER_SIG != buffer.getInt(localOffset)) {
+			throw new ZipException("invalid local header, offset: " + localOffset);
+		}
+		int nameLength = buffer.getShort(localOffset + 26) & 0xFFFF;
+		int extraLength = buffer.getShort(localOffset + 28) & 0xFFFF;
+		int dataOffset = localOffset + LOCAL_HEADER_SIZE + nameLength + extraLength;
+		if (dataOffset + entry.compressedSize > buffer.limit()) {
+			throw new ZipException("invalid entry data, offset: " + localOffset);
+		}
+		return dataOffset;
+	}
+
+	private static ByteBuffer map(File file, long offset, long length) throws IOException {
+		if (length < END_HEADER_SIZE || length > Integer.MAX_VALUE) {
+			throw new ZipException("invalid lib length: " + length + ", file: " + file.getAbsolutePath());
+		}
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		try {
+			// channel关闭之后映射依然有效
+			MappedByteBuffer mapped = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, offset, length);
+			mapped.order(ByteOrder.LITTLE_ENDIAN);
+			return mapped;
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+
+	private static Map<String, Entry> readCentralDirectory(ByteBuffer buffer) throws IOException {
+		int endOffset = findEndHeader(buffer);
+		int entryCount = buffer.getShort(endOffset + 10) & 0xFFFF;
+		long centralSize = buffer.getInt(endOffset + 12) & 0xFFFFFFFFL;
+		long centralOffset = buffer.getInt(endOffset + 16) & 0xFFFFFFFFL;
+		if (centralOffset + centralSize > endOffset) {
+			throw new ZipException("invalid central directory, offset: " + centralOffset + ", size: " + centralSize);
+		}
+		Map<String, Entry> index = new HashMap<String, Entry>(entryCount * 4 / 3 + 1);
+		int offset = (int) centralOffset;
+		for (int i = 0; i < entryCount; i++) {
+			if (offset + CENTRAL_HEADER_SIZE > endOffset || CENTRAL_HEADER_SIG != buffer.getInt(offset)) {
+				throw new ZipException("invalid central header, offset: " + offset);
+			}
+			int method = buffer.getShort(offset + 10) & 0xFFFF;
+			long compressedSize = buffer.getInt(offset + 20) & 0xFFFFFFFFL;
+			long size = buffer.getInt(offset + 24) & 0xFFFFFFFFL;
+			int nameLength = buffer.getShort(offset + 28) & 0xFFFF;
+			int extraLength = buffer.getShort(offset + 30) & 0xFFFF;
+			int commentLength = buffer.getShort(offset + 32) & 0xFFFF;
+			long localHeaderOffset = buffer.getInt(offset + 42) & 0xFFFFFFFFL;
+			if (METHOD_STORED != method && METHOD_DEFLATED != method) {
+				throw new ZipException("unsupported compression method: " + method);
+			}
+			if (compressedSize >= Integer.MAX_VALUE || size >= Integer.MAX_VALUE
+					|| localHeaderOffset >= Integer.MAX_VALUE) {
+				throw new ZipException("unsupported zip64 entry, offset: " + offset);
+			}
+			String name = readName(buffer, offset + CENTRAL_HEADER_SIZE, nameLength);
+			index.put(name, new Entry(method, (int) compressedSize, (int) size, (int) localHeaderOffset));
+			offset += CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+		}
+		return index;
+	}
+
+	/*
+	 * 从末尾向前查找end of central directory
+	 */
+	private static int findEndHeader(ByteBuffer buffer) throws IOException {
+		int minOffset = Math.max(0, buffer.limit() - END_HEADER_SIZE - MAX_END_COMMENT);
+		for (int offset = buffer.limit() - END_HEADER_SIZE; offset >= minOffset; offset--) {
+			if (END_HEADER_SIG == buffer.getInt(offset)) {
+				return offset;
+			}
+		}
+		throw new ZipException("end of central directory not found");
+	}
+
+	private static String readName(ByteBuffer buffer, int offset, int length) throws UnsupportedEncodingException {
+		byte[] bytes = new byte[length];
+		ByteBuffer name = buffer.duplicate();
+		name.position(offset);
+		name.get(bytes);
+		// 和JarFile一致,entry名称按照UTF-8解码
+		return new String(bytes, "UTF-8");
+	}
+
+	private static class Entry {
+		final int method;
+		final int compressedSize;
+		final int size;
+		final int localHeaderOffset;
+
+		Entry(int method, int compressedSize, int size, int localHeaderOffset) {
+			this.method = method;
+			this.compressedSize = compressedSize;
+			this.size = size;
+			this.localHeaderOffset = localHeaderOffset;
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package com.alibaba.middleware.innerlog.metrics;
+
+/**
+ * 某个日志级别的调用耗时分布在读取时合并出的结果,数值单位为纳秒
+ *
+ * 桶的上界作为分位数的值,误差不超过1/16。开启采样时count是采样到的次数,
+ * 实际的调用次数约为count * sampleRate。
+ * 两次读取的结果相减(minus)可以得到这段时间内的分布。
+ *
+ * version 1.0
+ */
+public class HistogramSnapshot {
+
+	private final String level;
+	private final long[] counts;
+	private final long count;
+	private final long maxNanos;
+	private final int sampleRate;
+
+	HistogramSnapshot(String level, long[] counts, long maxNanos, int sampleRate) {
+		this.level = level;
+		this.counts = counts;
+		this.maxNanos = maxNanos;
+		this.sampleRate = sampleRate;
+		long total = 0;
+		for (long c : counts) {
+			total += c;
+		}
+		this.count = total;
+	}
+
+	public String getLevel() {
+		return level;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public int getSampleRate() {
+		return sampleRate;
+	}
+
+	/**
+	 * @return 记录到的最大耗时,相减得到的结果中为两次读取中较大的值
+	 */
+	public long getMaxNanos() {
+		return maxNanos;
+	}
+
+	/**
+	 * @return 按照桶的中间值估算的平均耗时
+	 */
+	public long getMeanNanos() {
+		if (0 == count) {
+			return 0;
+		}
+		double total = 0;
+		for (int i = 0; i < counts.length; i++) {
+			if (0 != counts[i]) {
+				total += counts[i] * ((double) LatencyHistogram.lowerBound(i) + LatencyHistogram.upperBound(i)) / 2;
+			}
+		}
+		return (long) (total / count);
+	}
+
+	/**
+	 * @param percentile 0到100之间,例如99.9
+	 * @return 不超过该比例的调用的耗时上界,没有记录时返回0
+	 */
+	public long getPercentileNanos(double percentile) {
+		if (0 == count) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100);
+		if (rank < 1) {
+			rank = 1;
+		}
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(LatencyHistogram.upperBound(i), maxNanos);
+			}
+		}
+		return maxNanos;
+	}
+
+	/**
+	 * @return 从previous到当前的分布
+	 */
+	public HistogramSnapshot minus(HistogramSnapshot previous) {
+		long[] delta = new long[counts.length];
+		for (int i = 0; i < counts.length; i++) {
+			delta[i] = counts[i] - previous.counts[i];
+		}
+		return new HistogramSnapshot(level, delta, maxNanos, sampleRate);
+	}
+
+	/**
+	 * @return 各个桶的计数,下标对应的耗时范围为LatencyHistogram.lowerBound(i)到upperBound(i)
+	 */
+	public long[] getCounts() {
+		return counts.clone();
+	}
+
+	public String toString() {
+		return level + " count=" + count + " sampleRate=" + sampleRate + " mean=" + getMeanNanos() + "ns p50="
+				+ getPercentileNanos(50) + "ns p90=" + getPercentileNanos(90) + "ns p99=" + getPercentileNanos(99)
+				+ "ns p99.9=" + getPercentileNanos(99.9) + "ns max=" + maxNanos + "ns";
+	}
+}
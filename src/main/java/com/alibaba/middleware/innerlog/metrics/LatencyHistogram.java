@@ -0,0 +1,290 @@
+package com.alibaba.middleware.innerlog.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * 每个appKey记录日志的线程调用内置sl4j(异步输出时为放入队列)耗时的分布,按日志级别区分
+ *
+ * 通过-Dinnerlogger.latency=true 开启,-Dinnerlogger.latency.sampleRate=N 每个线程每N次调用记录一次,
+ * 默认每次都记录,线上长期开启时可以设置为16或者更大。绑定时注册为MBean,
+ * ObjectName为com.alibaba.middleware.innerlog:type=LatencyHistogram,appKey="xxx",可以通过dump操作随时输出。
+ *
+ * 耗时按对数分桶: 16纳秒以下每纳秒一个桶,之后每个2的幂区间分成16个桶,相对误差不超过1/16,
+ * 最大记录到2^40纳秒(约18分钟),更大的计入最后一个桶。每个线程有自己的Recorder,
+ * 只有该线程写入(lazySet,没有CAS和锁),读取时合并所有线程的计数;线程结束后它的计数在新线程第一次记录
+ * 或者读取时并入retired,没有读取时也不会累积,占用的内存只和存活的记录日志的线程数有关。
+ *
+ * version 1.0
+ */
+public class LatencyHistogram implements LatencyHistogramMBean {
+
+	public final static boolean ENABLED = Boolean.getBoolean("innerlogger.latency");
+	public final static int SAMPLE_RATE = Math.max(1, Integer.getInteger("innerlogger.latency.sampleRate", 1));
+
+	private final static String OBJECT_NAME_PREFIX = "com.alibaba.middleware.innerlog:type=LatencyHistogram,appKey=";
+	private final static String[] LEVEL_NAMES = { "TRACE", "DEBUG", "INFO", "WARN", "ERROR" };
+	private final static int LEVELS = LEVEL_NAMES.length;
+	private final static int SUB_BUCKET_BITS = 4;
+	private final static int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private final static int MAX_EXPONENT = 40;
+	/**
+	 * 桶的个数,之后的一个位置存放最大耗时
+	 */
+	final static int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+	private final static int MAX_SLOT = BUCKETS;
+
+	private final String appKey;
+	private final int sampleRate;
+	private final ThreadLocal<Recorder> recorders = new ThreadLocal<Recorder>();
+	/**
+	 * 存活线程的Recorder,持有this的锁访问
+	 */
+	private final List<Recorder> liveRecorders = new ArrayList<Recorder>();
+	/**
+	 * 已经结束的线程的计数,持有this的锁写入
+	 */
+	private final long[][] retired = new long[LEVELS][BUCKETS + 1];
+	private ObjectName objectName;
+
+	public LatencyHistogram(String appKey) {
+		this(appKey, SAMPLE_RATE);
+	}
+
+	public LatencyHistogram(String appKey, int sampleRate) {
+		this.appKey = appKey;
+		this.sampleRate = Math.max(1, sampleRate);
+	}
+
+	/**
+	 * 当前线程这次调用是否需要记录
+	 *
+	 * @return 需要记录时返回当前线程的Recorder,否则返回null
+	 */
+	public Recorder sample() {
+		Recorder recorder = recorders.get();
+		if (null == recorder) {
+			recorder = new Recorder(Thread.currentThread());
+			recorders.set(recorder);
+			addRecorder(recorder);
+		}
+		if (--recorder.countdown > 0) {
+			return null;
+		}
+		recorder.countdown = sampleRate;
+		return recorder;
+	}
+
+	/**
+	 * 记录当前线程这次采样到的调用的耗时,只在sample返回了Recorder之后调用
+	 *
+	 * @param level 日志级别,取值和EventDispatcher中的一致
+	 */
+	void recordSampled(int level, long nanos) {
+		recorders.get().record(level, nanos);
+	}
+
+	/**
+	 * @param level 日志级别,只支持ERROR,WARN,INFO,DEBUG,TRACE
+	 */
+	public HistogramSnapshot snapshot(String level) {
+		int index = levelIndexOf(level);
+		long[] merged = merge(index);
+		long max = merged[MAX_SLOT];
+		long[] counts = new long[BUCKETS];
+		System.arraycopy(merged, 0, counts, 0, BUCKETS);
+		return new HistogramSnapshot(LEVEL_NAMES[index], counts, max, sampleRate);
+	}
+
+	public String getAppKey() {
+		return appKey;
+	}
+
+	public int getSampleRate() {
+		return sampleRate;
+	}
+
+	public long getPercentileNanos(String level, double percentile) {
+		return snapshot(level).getPercentileNanos(percentile);
+	}
+
+	/**
+	 * @return 各个级别的耗时分布,没有记录的级别不输出
+	 */
+	public String dump() {
+		StringBuilder dump = new StringBuilder("inner-logger latency, appKey: ").append(appKey);
+		for (String level : LEVEL_NAMES) {
+			HistogramSnapshot snapshot = snapshot(level);
+			if (snapshot.getCount() > 0) {
+				dump.append('\n').append(snapshot);
+			}
+		}
+		return dump.toString();
+	}
+
+	/*
+	 * 每个线程只调用一次,先把已经结束的线程的计数并入retired,线程频繁创建销毁时列表也不会增长
+	 */
+	private synchronized void addRecorder(Recorder recorder) {
+		retireDeadRecorders();
+		liveRecorders.add(recorder);
+	}
+
+	private void retireDeadRecorders() {
+		Iterator<Recorder> iterator = liveRecorders.iterator();
+		while (iterator.hasNext()) {
+			Recorder recorder = iterator.next();
+			Thread thread = recorder.thread.get();
+			if (null == thread || !thread.isAlive()) {
+				for (int i = 0; i < LEVELS; i++) {
+					recorder.addTo(i, retired[i]);
+				}
+				iterator.remove();
+			}
+		}
+	}
+
+	/*
+	 * 合并所有线程的计数,顺便把已经结束的线程的计数并入retired
+	 */
+	private synchronized long[] merge(int level) {
+		retireDeadRecorders();
+		long[] merged = retired[level].clone();
+		for (Recorder recorder : liveRecorders) {
+			recorder.addTo(level, merged);
+		}
+		return merged;
+	}
+
+	private static int levelIndexOf(String level) {
+		for (int i = 0; i < LEVELS; i++) {
+			if (LEVEL_NAMES[i].equalsIgnoreCase(level)) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("unsupported level: " + level);
+	}
+
+	static int bucketIndex(long nanos) {
+		if (nanos < SUB_BUCKETS) {
+			return nanos < 0 ? 0 : (int) nanos;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+		if (exponent > MAX_EXPONENT) {
+			return BUCKETS - 1;
+		}
+		int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	static long lowerBound(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+	}
+
+	static long upperBound(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		return lowerBound(index) + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+	}
+
+	/**
+	 * 注册到平台的MBeanServer,注册失败不影响日志输出
+	 */
+	public synchronized void register() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(appKey));
+			try {
+				server.registerMBean(this, name);
+			} catch (InstanceAlreadyExistsException e) {
+				server.unregisterMBean(name);
+				server.registerMBean(this, name);
+			}
+			objectName = name;
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+
+	public synchronized void unregister() {
+		if (null == objectName) {
+			return;
+		}
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if (server.isRegistered(objectName)) {
+				server.unregisterMBean(objectName);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+		} finally {
+			objectName = null;
+		}
+	}
+
+	public String toString() {
+		return dump();
+	}
+
+	/**
+	 * 一个线程的计数,只有该线程写入,每个级别的桶在第一次记录时创建
+	 */
+	public static final class Recorder {
+		private final WeakReference<Thread> thread;
+		private final AtomicReferenceArray<AtomicLongArray> levels = new AtomicReferenceArray<AtomicLongArray>(
+				LEVELS);
+		/**
+		 * 距离下一次采样的调用次数,只有该线程读写
+		 */
+		private int countdown = 1;
+
+		Recorder(Thread thread) {
+			this.thread = new WeakReference<Thread>(thread);
+		}
+
+		/**
+		 * @param level 日志级别,取值和EventDispatcher中的一致
+		 */
+		public void record(int level, long nanos) {
+			int index = level / 10;
+			index = index < 0 ? 0 : (index >= LEVELS ? LEVELS - 1 : index);
+			AtomicLongArray buckets = levels.get(index);
+			if (null == buckets) {
+				buckets = new AtomicLongArray(BUCKETS + 1);
+				levels.set(index, buckets);
+			}
+			int bucket = bucketIndex(nanos);
+			// 只有当前线程写入,不需要CAS
+			buckets.lazySet(bucket, buckets.get(bucket) + 1);
+			if (nanos > buckets.get(MAX_SLOT)) {
+				buckets.lazySet(MAX_SLOT, nanos);
+			}
+		}
+
+		void addTo(int level, long[] target) {
+			AtomicLongArray buckets = levels.get(level);
+			if (null == buckets) {
+				return;
+			}
+			for (int i = 0; i < BUCKETS; i++) {
+				target[i] += buckets.get(i);
+			}
+			target[MAX_SLOT] = Math.max(target[MAX_SLOT], buckets.get(MAX_SLOT));
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package com.alibaba.middleware.innerlog.metrics;
+
+/**
+ * 每个appKey的调用耗时分布通过JMX暴露的接口,ObjectName为
+ * com.alibaba.middleware.innerlog:type=LatencyHistogram,appKey="xxx"
+ *
+ * version 1.0
+ */
+public interface LatencyHistogramMBean {
+
+	String getAppKey();
+
+	/**
+	 * @return 每个线程每多少次调用记录一次
+	 */
+	int getSampleRate();
+
+	/**
+	 * @param level 日志级别,只支持ERROR,WARN,INFO,DEBUG,TRACE
+	 * @param percentile 0到100之间,例如99.9
+	 * @return 该级别调用耗时的分位数,纳秒
+	 */
+	long getPercentileNanos(String level, double percentile);
+
+	/**
+	 * @return 各个级别的调用次数,平均值,p50,p90,p99,p99.9和最大耗时
+	 */
+	String dump();
+}
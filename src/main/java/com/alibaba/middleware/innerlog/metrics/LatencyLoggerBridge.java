@@ -0,0 +1,36 @@
+package com.alibaba.middleware.innerlog.metrics;
+
+import com.alibaba.middleware.innerlog.bridge.DelegatingLoggerBridge;
+import com.alibaba.middleware.innerlog.bridge.LoggerBridge;
+
+/**
+ * 记录调用耗时分布的桥接实现,包装在最外层,记录的是记录日志的线程在桥接对象中花费的时间
+ *
+ * 只在开启了LatencyHistogram时由LoggerClassLoader创建,没有采样到的调用不取时间直接交给被包装的对象。
+ *
+ * version 1.0
+ */
+public class LatencyLoggerBridge extends DelegatingLoggerBridge {
+
+	/**
+	 * 没有采样到的调用beforeCall的返回值
+	 */
+	private final static long NOT_SAMPLED = Long.MIN_VALUE;
+
+	private final LatencyHistogram histogram;
+
+	public LatencyLoggerBridge(LoggerBridge delegate, LatencyHistogram histogram) {
+		super(delegate);
+		this.histogram = histogram;
+	}
+
+	protected long beforeCall(int level) {
+		return null == histogram.sample() ? NOT_SAMPLED : System.nanoTime();
+	}
+
+	protected void afterCall(int level, long start, boolean failed) {
+		if (NOT_SAMPLED != start) {
+			histogram.recordSampled(level, System.nanoTime() - start);
+		}
+	}
+}
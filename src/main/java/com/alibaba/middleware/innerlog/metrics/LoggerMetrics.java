@@ -0,0 +1,202 @@
+package com.alibaba.middleware.innerlog.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.alibaba.middleware.innerlog.async.AsyncDispatcher;
+import com.alibaba.middleware.innerlog.bridge.EventDispatcher;
+
+/**
+ * 每个appKey的运行指标: 各级别的日志数,调用内置sl4j的耗时和失败次数,异步队列的深度,写入的字节数
+ *
+ * 通过-Dinnerlogger.metrics=true 开启,绑定appKey时由LoggerFactory创建并注册为MBean,
+ * 也可以通过LoggerFactory.getMetrics获取后调用snapshot嵌入到自己的监控系统中。
+ * 计数使用StripedCounter,记录日志的线程之间不竞争同一个缓存行。
+ *
+ * 没有开启时不创建该对象,Logger使用的桥接对象也不包装,没有任何额外开销。
+ *
+ * 注: 写入的字节数只统计MappedFileAppender,并且只统计绑定之后(通过doConfigure)配置的appender
+ *
+ * version 1.0
+ */
+public class LoggerMetrics implements LoggerMetricsMBean {
+
+	public final static boolean ENABLED = Boolean.getBoolean("innerlogger.metrics");
+	/**
+	 * 写入字节数的计数器放在内置logback的LoggerContext中使用的key
+	 */
+	public final static String BYTES_WRITTEN_KEY = "innerlogger.bytesWritten";
+	private final static String OBJECT_NAME_PREFIX = "com.alibaba.middleware.innerlog:type=LoggerMetrics,appKey=";
+	private final static int LEVELS = 5;
+
+	private final String appKey;
+	/**
+	 * 按照TRACE,DEBUG,INFO,WARN,ERROR的顺序
+	 */
+	private final StripedCounter[] eventCounts = new StripedCounter[LEVELS];
+	private final StripedCounter invocationNanos = new StripedCounter();
+	private final StripedCounter invocationFailures = new StripedCounter();
+	private final StripedCounter bytesWritten = new StripedCounter();
+	private volatile AsyncDispatcher asyncDispatcher;
+	private ObjectName objectName;
+
+	public LoggerMetrics(String appKey) {
+		this.appKey = appKey;
+		for (int i = 0; i < LEVELS; i++) {
+			eventCounts[i] = new StripedCounter();
+		}
+	}
+
+	/**
+	 * 记录一次对内置sl4j的调用
+	 *
+	 * @param level 日志级别,取值和EventDispatcher中的一致
+	 * @param nanos 调用花费的时间
+	 */
+	public void recordInvocation(int level, long nanos) {
+		eventCounts[levelIndex(level)].increment();
+		invocationNanos.add(nanos);
+	}
+
+	public void recordFailure() {
+		invocationFailures.increment();
+	}
+
+	public StripedCounter getBytesWrittenCounter() {
+		return bytesWritten;
+	}
+
+	/**
+	 * 开启,调整或者关闭异步输出时设置当前的分发器
+	 */
+	public void setAsyncDispatcher(AsyncDispatcher asyncDispatcher) {
+		this.asyncDispatcher = asyncDispatcher;
+	}
+
+	public String getAppKey() {
+		return appKey;
+	}
+
+	public long getTraceCount() {
+		return eventCounts[levelIndex(EventDispatcher.TRACE_INT)].sum();
+	}
+
+	public long getDebugCount() {
+		return eventCounts[levelIndex(EventDispatcher.DEBUG_INT)].sum();
+	}
+
+	public long getInfoCount() {
+		return eventCounts[levelIndex(EventDispatcher.INFO_INT)].sum();
+	}
+
+	public long getWarnCount() {
+		return eventCounts[levelIndex(EventDispatcher.WARN_INT)].sum();
+	}
+
+	public long getErrorCount() {
+		return eventCounts[levelIndex(EventDispatcher.ERROR_INT)].sum();
+	}
+
+	public long getEventCount() {
+		long total = 0;
+		for (StripedCounter counter : eventCounts) {
+			total += counter.sum();
+		}
+		return total;
+	}
+
+	public long getInvocationTimeNanos() {
+		return invocationNanos.sum();
+	}
+
+	public long getInvocationFailureCount() {
+		return invocationFailures.sum();
+	}
+
+	public int getAsyncQueueDepth() {
+		AsyncDispatcher dispatcher = asyncDispatcher;
+		return null == dispatcher ? 0 : dispatcher.getPendingCount();
+	}
+
+	public long getAsyncSpilledCount() {
+		AsyncDispatcher dispatcher = asyncDispatcher;
+		return null == dispatcher ? 0 : dispatcher.getSpilledCount();
+	}
+
+	public long getAsyncDroppedCount() {
+		AsyncDispatcher dispatcher = asyncDispatcher;
+		return null == dispatcher ? 0 : dispatcher.getDroppedCount();
+	}
+
+	public long getBytesWritten() {
+		return bytesWritten.sum();
+	}
+
+	/**
+	 * 读取所有指标,key的名称固定,可以直接作为监控系统的指标名
+	 */
+	public Map<String, Long> snapshot() {
+		Map<String, Long> snapshot = new LinkedHashMap<String, Long>();
+		snapshot.put("events.trace", getTraceCount());
+		snapshot.put("events.debug", getDebugCount());
+		snapshot.put("events.info", getInfoCount());
+		snapshot.put("events.warn", getWarnCount());
+		snapshot.put("events.error", getErrorCount());
+		snapshot.put("invocation.timeNanos", getInvocationTimeNanos());
+		snapshot.put("invocation.failures", getInvocationFailureCount());
+		snapshot.put("async.queueDepth", (long) getAsyncQueueDepth());
+		snapshot.put("async.spilled", getAsyncSpilledCount());
+		snapshot.put("async.dropped", getAsyncDroppedCount());
+		snapshot.put("bytesWritten", getBytesWritten());
+		return snapshot;
+	}
+
+	/**
+	 * 注册到平台的MBeanServer,同一个appKey解除绑定后重新绑定时替换旧的MBean,注册失败不影响日志输出
+	 */
+	public synchronized void register() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(appKey));
+			try {
+				server.registerMBean(this, name);
+			} catch (InstanceAlreadyExistsException e) {
+				server.unregisterMBean(name);
+				server.registerMBean(this, name);
+			}
+			objectName = name;
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+
+	public synchronized void unregister() {
+		if (null == objectName) {
+			return;
+		}
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if (server.isRegistered(objectName)) {
+				server.unregisterMBean(objectName);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+		} finally {
+			objectName = null;
+		}
+	}
+
+	private static int levelIndex(int level) {
+		int index = level / 10;
+		return index < 0 ? 0 : (index >= LEVELS ? LEVELS - 1 : index);
+	}
+
+	public String toString() {
+		return "LoggerMetrics[" + appKey + "]" + snapshot();
+	}
+}
@@ -0,0 +1,57 @@
+package com.alibaba.middleware.innerlog.metrics;
+
+/**
+ * 每个appKey的运行指标通过JMX暴露的接口,ObjectName为
+ * com.alibaba.middleware.innerlog:type=LoggerMetrics,appKey="xxx"
+ *
+ * version 1.0
+ */
+public interface LoggerMetricsMBean {
+
+	String getAppKey();
+
+	/**
+	 * @return 交给内置logback的各个级别的日志数,日志级别没有打开的调用不计数
+	 */
+	long getTraceCount();
+
+	long getDebugCount();
+
+	long getInfoCount();
+
+	long getWarnCount();
+
+	long getErrorCount();
+
+	long getEventCount();
+
+	/**
+	 * @return 调用内置sl4j(异步输出时为放入队列)花费的总时间,纳秒
+	 */
+	long getInvocationTimeNanos();
+
+	/**
+	 * @return 调用内置sl4j时抛出异常的次数
+	 */
+	long getInvocationFailureCount();
+
+	/**
+	 * @return 异步队列中等待输出的事件数,没有开启异步输出时为0
+	 */
+	int getAsyncQueueDepth();
+
+	/**
+	 * @return 磁盘溢出队列中等待输出的事件数
+	 */
+	long getAsyncSpilledCount();
+
+	/**
+	 * @return 当前的异步分发器丢弃的日志数
+	 */
+	long getAsyncDroppedCount();
+
+	/**
+	 * @return MappedFileAppender写入的字节数
+	 */
+	long getBytesWritten();
+}
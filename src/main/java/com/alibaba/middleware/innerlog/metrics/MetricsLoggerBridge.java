@@ -0,0 +1,32 @@
+package com.alibaba.middleware.innerlog.metrics;
+
+import com.alibaba.middleware.innerlog.bridge.DelegatingLoggerBridge;
+import com.alibaba.middleware.innerlog.bridge.LoggerBridge;
+
+/**
+ * 统计运行指标的桥接实现,包装同步或者异步的桥接对象,记录每次调用的级别,耗时以及是否抛出异常
+ *
+ * 只在开启了LoggerMetrics时由LoggerClassLoader创建,日志级别的判断直接交给被包装的对象,不计数。
+ *
+ * version 1.0
+ */
+public class MetricsLoggerBridge extends DelegatingLoggerBridge {
+
+	private final LoggerMetrics metrics;
+
+	public MetricsLoggerBridge(LoggerBridge delegate, LoggerMetrics metrics) {
+		super(delegate);
+		this.metrics = metrics;
+	}
+
+	protected long beforeCall(int level) {
+		return System.nanoTime();
+	}
+
+	protected void afterCall(int level, long start, boolean failed) {
+		metrics.recordInvocation(level, System.nanoTime() - start);
+		if (failed) {
+			metrics.recordFailure();
+		}
+	}
+}
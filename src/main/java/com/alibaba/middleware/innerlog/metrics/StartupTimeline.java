@@ -0,0 +1,245 @@
+package com.alibaba.middleware.innerlog.metrics;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 每个appKey绑定和configure过程中各个阶段的耗时记录
+ *
+ * 阶段包括: 定位内置LogLib,导出到本地(等待FileLock),打开LogLib(解析jar或者建立映射索引),
+ * 绑定sl4j,创建桥接对象,Joran解析配置和appender启动。各阶段记录相对于创建LoggerClassLoader时的开始时间
+ * 和耗时,阶段之间可以嵌套(例如绑定sl4j的过程中打开LogLib)。define的class数,读取的字节数和耗时累计记录。
+ *
+ * 通过LoggerFactory.getStartupTimeline获取,-Dinnerlogger.startupTimeline=true 时绑定和configure完成后输出到stderr。
+ * 第一次configure完成之后不再记录阶段(例如logback重新加载配置时appender的启动),阶段数也有上限,
+ * class的累计数据一直更新。
+ *
+ * 注: 该类由LoggerClassLoader委派给业务的classLoader加载,MappedFileAppender通过它记录启动耗时。
+ *
+ * version 1.0
+ */
+public final class StartupTimeline {
+
+	public final static boolean PRINT = Boolean.getBoolean("innerlogger.startupTimeline");
+	/**
+	 * 放在内置logback的LoggerContext中使用的key
+	 */
+	public final static String CONTEXT_KEY = "innerlogger.startupTimeline";
+	private final static int MAX_PHASES = 256;
+
+	private final long origin = System.nanoTime();
+	private final long startMillis = System.currentTimeMillis();
+	private volatile String appKey;
+	private volatile boolean completed;
+	private final List<Phase> phases = new ArrayList<Phase>();
+
+	private final AtomicLong libClassCount = new AtomicLong();
+	private final AtomicLong libBytesRead = new AtomicLong();
+	private final AtomicLong libReadNanos = new AtomicLong();
+	private final AtomicLong hostClassCount = new AtomicLong();
+	private final AtomicLong hostBytesRead = new AtomicLong();
+	private final AtomicLong hostReadNanos = new AtomicLong();
+	private final AtomicLong cachedClassCount = new AtomicLong();
+	private final AtomicLong definedClassCount = new AtomicLong();
+	private final AtomicLong defineNanos = new AtomicLong();
+
+	public String getAppKey() {
+		return appKey;
+	}
+
+	public void setAppKey(String appKey) {
+		this.appKey = appKey;
+	}
+
+	/**
+	 * 启动过程结束,之后不再记录阶段
+	 */
+	public void complete() {
+		completed = true;
+	}
+
+	public boolean isCompleted() {
+		return completed;
+	}
+
+	/**
+	 * @return 阶段的开始时间,结束时传给end
+	 */
+	public long begin() {
+		return System.nanoTime();
+	}
+
+	public void end(String name, long start) {
+		end(name, start, null);
+	}
+
+	/**
+	 * @param detail 阶段的附加信息,例如文件路径,可以为null
+	 */
+	public void end(String name, long start, String detail) {
+		if (completed) {
+			return;
+		}
+		long now = System.nanoTime();
+		synchronized (phases) {
+			if (phases.size() < MAX_PHASES) {
+				phases.add(new Phase(name, start - origin, now - start, detail));
+			}
+		}
+	}
+
+	/**
+	 * 从内置LogLib中读取了一个class的字节码
+	 */
+	public void recordLibRead(int bytes, long nanos) {
+		libClassCount.incrementAndGet();
+		libBytesRead.addAndGet(bytes);
+		libReadNanos.addAndGet(nanos);
+	}
+
+	/**
+	 * 从inner-logger自身的jar中读取了一个需要在LoggerClassLoader中define的class
+	 */
+	public void recordHostRead(int bytes, long nanos) {
+		hostClassCount.incrementAndGet();
+		hostBytesRead.addAndGet(bytes);
+		hostReadNanos.addAndGet(nanos);
+	}
+
+	/**
+	 * class的字节码已经被其他LoggerClassLoader读取过,直接使用缓存
+	 */
+	public void recordCached() {
+		cachedClassCount.incrementAndGet();
+	}
+
+	public void recordDefine(long nanos) {
+		definedClassCount.incrementAndGet();
+		defineNanos.addAndGet(nanos);
+	}
+
+	/**
+	 * @return 按开始时间排序的阶段
+	 */
+	public List<Phase> getPhases() {
+		List<Phase> sorted;
+		synchronized (phases) {
+			sorted = new ArrayList<Phase>(phases);
+		}
+		Collections.sort(sorted, new Comparator<Phase>() {
+			public int compare(Phase o1, Phase o2) {
+				return o1.startNanos < o2.startNanos ? -1 : (o1.startNanos == o2.startNanos ? 0 : 1);
+			}
+		});
+		return sorted;
+	}
+
+	/**
+	 * @return 创建LoggerClassLoader的时间
+	 */
+	public long getStartMillis() {
+		return startMillis;
+	}
+
+	public long getLibClassCount() {
+		return libClassCount.get();
+	}
+
+	public long getLibBytesRead() {
+		return libBytesRead.get();
+	}
+
+	public long getLibReadNanos() {
+		return libReadNanos.get();
+	}
+
+	public long getHostClassCount() {
+		return hostClassCount.get();
+	}
+
+	public long getHostBytesRead() {
+		return hostBytesRead.get();
+	}
+
+	public long getHostReadNanos() {
+		return hostReadNanos.get();
+	}
+
+	public long getCachedClassCount() {
+		return cachedClassCount.get();
+	}
+
+	public long getDefinedClassCount() {
+		return definedClassCount.get();
+	}
+
+	public long getDefineNanos() {
+		return defineNanos.get();
+	}
+
+	public String dump() {
+		StringBuilder dump = new StringBuilder("inner-logger startup timeline, appKey: ").append(appKey)
+				.append(", start: ").append(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date(startMillis)));
+		for (Phase phase : getPhases()) {
+			dump.append('\n').append(phase);
+		}
+		dump.append("\nclasses: defined=").append(getDefinedClassCount()).append(" in ").append(millis(getDefineNanos()))
+				.append("ms, lib read=").append(getLibClassCount()).append(" (").append(getLibBytesRead())
+				.append(" bytes, ").append(millis(getLibReadNanos())).append("ms), host read=")
+				.append(getHostClassCount()).append(" (").append(getHostBytesRead()).append(" bytes, ")
+				.append(millis(getHostReadNanos())).append("ms), cached=").append(getCachedClassCount());
+		return dump.toString();
+	}
+
+	private static String millis(long nanos) {
+		return String.format("%.3f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+	}
+
+	public String toString() {
+		return dump();
+	}
+
+	/**
+	 * 一个阶段,时间单位为纳秒,开始时间相对于创建LoggerClassLoader的时间
+	 */
+	public static final class Phase {
+		private final String name;
+		private final long startNanos;
+		private final long durationNanos;
+		private final String detail;
+
+		Phase(String name, long startNanos, long durationNanos, String detail) {
+			this.name = name;
+			this.startNanos = startNanos;
+			this.durationNanos = durationNanos;
+			this.detail = detail;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getStartNanos() {
+			return startNanos;
+		}
+
+		public long getDurationNanos() {
+			return durationNanos;
+		}
+
+		public String getDetail() {
+			return detail;
+		}
+
+		public String toString() {
+			return String.format("%10sms +%10sms  %s", millis(startNanos), millis(durationNanos), name)
+					+ (null == detail ? "" : "  " + detail);
+		}
+	}
+}
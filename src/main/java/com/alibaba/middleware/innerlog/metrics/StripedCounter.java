@@ -0,0 +1,65 @@
+package com.alibaba.middleware.innerlog.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 分段累加的计数器,多个线程同时累加时分散到不同的缓存行上,读取时求和
+ *
+ * 按照线程id散列到固定的分段,分段之间填充到64字节,累加是一次getAndAdd,不需要重试。
+ * 分段数为不小于cpu数的2的幂,最多MAX_STRIPES个,每个计数器占用的内存是固定的。
+ * 读取的和不是某个时刻的快照,适合统计不适合做同步。
+ *
+ * 注: 该类由LoggerClassLoader委派给业务的classLoader加载,MappedFileAppender通过它累加写入的字节数,
+ * FormatTemplateCache通过它统计命中数。
+ *
+ * version 1.0
+ */
+public final class StripedCounter {
+
+	private final static int MAX_STRIPES = 32;
+	/**
+	 * 每个分段占用的long个数,64字节
+	 */
+	private final static int PADDING = 8;
+	private final static int STRIPES = stripes();
+
+	/**
+	 * 第一个分段前面也留出填充,不和数组头共享缓存行
+	 */
+	private final AtomicLongArray cells = new AtomicLongArray((STRIPES + 1) * PADDING);
+
+	public void increment() {
+		cells.getAndAdd(index(), 1);
+	}
+
+	public void add(long delta) {
+		cells.getAndAdd(index(), delta);
+	}
+
+	public long sum() {
+		long sum = 0;
+		for (int i = 1; i <= STRIPES; i++) {
+			sum += cells.get(i * PADDING);
+		}
+		return sum;
+	}
+
+	private static int index() {
+		long id = Thread.currentThread().getId();
+		int hash = (int) ((id * 0x9E3779B97F4A7C15L) >>> 32);
+		return ((hash & (STRIPES - 1)) + 1) * PADDING;
+	}
+
+	private static int stripes() {
+		int processors = Runtime.getRuntime().availableProcessors();
+		int stripes = 1;
+		while (stripes < processors && stripes < MAX_STRIPES) {
+			stripes <<= 1;
+		}
+		return stripes;
+	}
+
+	public String toString() {
+		return String.valueOf(sum());
+	}
+}
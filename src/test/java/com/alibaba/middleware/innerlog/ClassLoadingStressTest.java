@@ -0,0 +1,142 @@
+package com.alibaba.middleware.innerlog;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * LoggerClassLoader并发加载class的压力测试
+ *
+ * 1.多个线程同时对一个新的appKey做configure,获取Logger并输出日志,同时在后台预热
+ *
+ * 2.多个线程按照不同的顺序同时从一个新的LoggerClassLoader中加载inner-logger-warmup.list中的类,
+ * 校验每个类只define了一次,并且没有LinkageError
+ *
+ * 可以通过-Dinnerlogger.parallelCapable=false 验证不注册为可并行加载时按类名加锁的实现
+ */
+public class ClassLoadingStressTest {
+
+	private static final String WARM_UP_CLASS_LIST = "inner-logger-warmup.list";
+	private static final int THREADS = 32;
+	private static final int ROUNDS = 3;
+
+	@Test
+	public void concurrentBindAndLog() throws Exception {
+		for (int round = 0; round < ROUNDS; round++) {
+			assertEquals("failures in round " + round, 0, bindAndLog("class-loading-stress-" + round));
+		}
+	}
+
+	@Test
+	public void concurrentLoadClasses() throws Exception {
+		List<String> classNames = readClassNames();
+		for (int round = 0; round < ROUNDS; round++) {
+			assertEquals("failures in round " + round, 0, loadClasses(classNames, round));
+		}
+	}
+
+	private static int bindAndLog(final String appKey) throws InterruptedException {
+		final CountDownLatch startLatch = new CountDownLatch(1);
+		final CountDownLatch doneLatch = new CountDownLatch(THREADS);
+		final AtomicInteger failures = new AtomicInteger();
+		for (int i = 0; i < THREADS; i++) {
+			final int index = i;
+			new Thread(new Runnable() {
+				public void run() {
+					try {
+						startLatch.await();
+						LoggerFactory.doConfigure(TestConfigures.nopConfigure(), appKey);
+						if (0 == index) {
+							LoggerFactory.warmUp(appKey);
+						}
+						Logger logger = LoggerFactory.getLogger(ClassLoadingStressTest.class, appKey);
+						logger.info("stress {} {}", appKey, index);
+						logger.warn("stress {} {} {}", appKey, index, Thread.currentThread().getName());
+						logger.error("stress " + appKey, new IllegalStateException("stress"));
+					} catch (Throwable e) {
+						failures.incrementAndGet();
+						e.printStackTrace();
+					} finally {
+						doneLatch.countDown();
+					}
+				}
+			}, "stress-log-" + i).start();
+		}
+		startLatch.countDown();
+		doneLatch.await();
+		LoggerFactory.unbind(appKey);
+		return failures.get();
+	}
+
+	private static int loadClasses(final List<String> classNames, int round) throws InterruptedException {
+		final LoggerClassLoader loader = new LoggerClassLoader(Integer.valueOf(10000 + round));
+		final ConcurrentMap<String, Class<?>> loaded = new ConcurrentHashMap<String, Class<?>>();
+		final CountDownLatch startLatch = new CountDownLatch(1);
+		final CountDownLatch doneLatch = new CountDownLatch(THREADS);
+		final AtomicInteger failures = new AtomicInteger();
+		try {
+			for (int i = 0; i < THREADS; i++) {
+				final List<String> shuffled = new ArrayList<String>(classNames);
+				Collections.shuffle(shuffled, new Random(round * 1000 + i));
+				new Thread(new Runnable() {
+					public void run() {
+						try {
+							startLatch.await();
+							for (String className : shuffled) {
+								Class<?> clazz = Class.forName(className, false, loader);
+								Class<?> exist = loaded.putIfAbsent(className, clazz);
+								if (null != exist && exist != clazz) {
+									failures.incrementAndGet();
+									System.err.println("class defined twice: " + className);
+								}
+							}
+						} catch (Throwable e) {
+							failures.incrementAndGet();
+							e.printStackTrace();
+						} finally {
+							doneLatch.countDown();
+						}
+					}
+				}, "stress-load-" + i).start();
+			}
+			startLatch.countDown();
+			doneLatch.await();
+		} finally {
+			loader.close();
+		}
+		return failures.get();
+	}
+
+	private static List<String> readClassNames() throws Exception {
+		InputStream input = ClassLoadingStressTest.class.getClassLoader().getResourceAsStream(WARM_UP_CLASS_LIST);
+		if (null == input) {
+			throw new IllegalStateException("Not Found " + WARM_UP_CLASS_LIST);
+		}
+		List<String> classNames = new ArrayList<String>();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(input, "UTF-8"));
+		try {
+			String line;
+			while (null != (line = reader.readLine())) {
+				line = line.trim();
+				if (line.length() > 0 && !line.startsWith("#")) {
+					classNames.add(line);
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		return classNames;
+	}
+}
@@ -0,0 +1,127 @@
+package com.alibaba.middleware.innerlog;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alibaba.middleware.innerlog.async.AsyncConfig;
+import com.alibaba.middleware.innerlog.async.OverflowPolicy;
+
+/**
+ * 无垃圾模式下记录日志的线程不能有内存分配
+ *
+ * 使用MappedFileAppender和AsyncConfig.setGarbageFree(true),预热之后通过ThreadMXBean统计
+ * 记录日志的线程每种调用分配的字节数。每次调用只要分配一个对象就至少是16字节,所以总的分配数
+ * 不小于调用次数时失败;ThreadMXBean本身分配的少量对象不会达到这个数量。
+ * 后台线程的分配不校验(logback的layout会返回新的String)。
+ *
+ * 需要支持com.sun.management.ThreadMXBean的JVM,不支持时跳过。
+ */
+public class GarbageFreeAllocationTest {
+
+	private static final String APP_KEY = "garbage-free-allocation";
+	private static final int CALLS = 100000;
+	private static final int WARM_UP_ROUNDS = 5;
+	private static final String[] KINDS = { "info(msg)", "info(fmt, arg)", "info(fmt, arg1, arg2)",
+			"info(fmt, arg1, arg2, arg3)", "info(fmt, long)", "debug(fmt, arg) disabled",
+			"debug(fmt, arg1, arg2, arg3) disabled" };
+	private static final String ARG1 = "arg1";
+	private static final Integer ARG2 = Integer.valueOf(42);
+	private static final Long ARG3 = Long.valueOf(4096);
+
+	private File file;
+
+	@Before
+	public void setUp() throws Exception {
+		file = File.createTempFile("inner-logger-allocation", ".log");
+		LoggerFactory.doConfigure(TestConfigures.mappedFileConfigure(file.getAbsolutePath()), APP_KEY);
+		AsyncConfig asyncConfig = new AsyncConfig();
+		asyncConfig.setBufferSize(64 * 1024);
+		asyncConfig.setOverflowPolicy(OverflowPolicy.BLOCK);
+		asyncConfig.setGarbageFree(true);
+		LoggerFactory.setAsyncConfig(APP_KEY, asyncConfig);
+	}
+
+	@After
+	public void tearDown() {
+		LoggerFactory.unbind(APP_KEY);
+		file.delete();
+		// maxIndex为1,滚动之后只有一个备份文件
+		new File(file.getPath() + ".1").delete();
+	}
+
+	@Test
+	public void callerThreadDoesNotAllocate() {
+		ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+		assumeTrue(allocationMXBean.isThreadAllocatedMemorySupported());
+		allocationMXBean.setThreadAllocatedMemoryEnabled(true);
+
+		Logger logger = LoggerFactory.getLogger(GarbageFreeAllocationTest.class, APP_KEY);
+		// 预热,让JIT完成编译和逃逸分析
+		for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+			for (int kind = 0; kind < KINDS.length; kind++) {
+				log(logger, kind, CALLS);
+			}
+		}
+		long callerId = Thread.currentThread().getId();
+		StringBuilder allocating = new StringBuilder();
+		for (int kind = 0; kind < KINDS.length; kind++) {
+			long start = allocationMXBean.getThreadAllocatedBytes(callerId);
+			log(logger, kind, CALLS);
+			long allocated = allocationMXBean.getThreadAllocatedBytes(callerId) - start;
+			if (allocated >= CALLS) {
+				allocating.append(KINDS[kind]).append(": ")
+						.append(String.format("%.3f", (double) allocated / CALLS)).append(" bytes/call; ");
+			}
+		}
+		assertTrue("caller thread allocates in garbage free mode: " + allocating, 0 == allocating.length());
+	}
+
+	private static void log(Logger logger, int kind, int calls) {
+		switch (kind) {
+		case 0:
+			for (int i = 0; i < calls; i++) {
+				logger.info("allocation regression");
+			}
+			break;
+		case 1:
+			for (int i = 0; i < calls; i++) {
+				logger.info("allocation regression {}", ARG1);
+			}
+			break;
+		case 2:
+			for (int i = 0; i < calls; i++) {
+				logger.info("allocation regression {} {}", ARG1, ARG2);
+			}
+			break;
+		case 3:
+			for (int i = 0; i < calls; i++) {
+				logger.info("allocation regression {} {} {}", ARG1, ARG2, ARG3);
+			}
+			break;
+		case 4:
+			for (long i = 0; i < calls; i++) {
+				logger.info("allocation regression {}", i);
+			}
+			break;
+		case 5:
+			for (int i = 0; i < calls; i++) {
+				logger.debug("allocation regression {}", ARG1);
+			}
+			break;
+		default:
+			for (int i = 0; i < calls; i++) {
+				logger.debug("allocation regression {} {} {}", ARG1, ARG2, ARG3);
+			}
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package com.alibaba.middleware.innerlog;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 只通过innerlogger.<appKey>.logback.file 系统属性指定配置文件,doConfigure传入的LogConfigure为null
+ */
+public class SystemPropertyConfigureTest {
+
+	private static final String APP_KEY = "system-property-configure";
+	private static final String CONFIG_KEY = "innerlogger." + APP_KEY + ".logback.file";
+
+	private File configFile;
+	private File logFile;
+
+	@Before
+	public void setUp() throws IOException {
+		configFile = File.createTempFile("inner-logger-configure", ".xml");
+		logFile = File.createTempFile("inner-logger-configure", ".log");
+		String xml = "<configuration>"
+				+ "<appender name=\"file\" class=\"ch.qos.logback.core.FileAppender\">"
+				+ "<file>" + logFile.getAbsolutePath() + "</file><append>false</append>"
+				+ "<encoder><pattern>%m%n</pattern></encoder></appender>"
+				+ "<root level=\"INFO\"><appender-ref ref=\"file\"/></root>"
+				+ "</configuration>";
+		OutputStream output = new FileOutputStream(configFile);
+		try {
+			output.write(xml.getBytes("UTF-8"));
+		} finally {
+			output.close();
+		}
+	}
+
+	@After
+	public void tearDown() {
+		System.clearProperty(CONFIG_KEY);
+		LoggerFactory.unbind(APP_KEY);
+		configFile.delete();
+		logFile.delete();
+	}
+
+	@Test
+	public void configureOnBind() throws IOException {
+		System.setProperty(CONFIG_KEY, configFile.getAbsolutePath());
+		LoggerFactory.doConfigure(null, APP_KEY);
+		LoggerFactory.getLogger(SystemPropertyConfigureTest.class, APP_KEY).info("configure on bind");
+		LoggerFactory.unbind(APP_KEY);
+		assertTrue(readLog().contains("configure on bind"));
+	}
+
+	@Test
+	public void configureAfterGetLogger() throws IOException {
+		Logger logger = LoggerFactory.getLogger(SystemPropertyConfigureTest.class, APP_KEY);
+		System.setProperty(CONFIG_KEY, configFile.getAbsolutePath());
+		LoggerFactory.doConfigure(null, APP_KEY);
+		logger.info("configure after getLogger");
+		LoggerFactory.unbind(APP_KEY);
+		assertTrue(readLog().contains("configure after getLogger"));
+	}
+
+	private String readLog() throws IOException {
+		return LogConfigure.getStringFromInputStream(new FileInputStream(logFile));
+	}
+}
@@ -0,0 +1,48 @@
+package com.alibaba.middleware.innerlog;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+
+/**
+ * 测试用到的logback配置
+ */
+final class TestConfigures {
+
+	private TestConfigures() {
+	}
+
+	/**
+	 * root为INFO级别,输出到logback的NOPAppender
+	 */
+	static LogConfigure nopConfigure() {
+		return xmlConfigure("<configuration>"
+				+ "<appender name=\"nop\" class=\"ch.qos.logback.core.helpers.NOPAppender\"/>"
+				+ "<root level=\"INFO\"><appender-ref ref=\"nop\"/></root>"
+				+ "</configuration>");
+	}
+
+	/**
+	 * root为INFO级别,通过MappedFileAppender输出到file
+	 */
+	static LogConfigure mappedFileConfigure(String file) {
+		return xmlConfigure("<configuration>"
+				+ "<appender name=\"file\" class=\"com.alibaba.middleware.innerlog.appender.MappedFileAppender\">"
+				+ "<file>" + file + "</file><append>false</append><maxFileSize>64MB</maxFileSize>"
+				+ "<maxIndex>1</maxIndex><encoder><pattern>%d %p %t %c - %m%n</pattern></encoder></appender>"
+				+ "<root level=\"INFO\"><appender-ref ref=\"file\"/></root>"
+				+ "</configuration>");
+	}
+
+	static LogConfigure xmlConfigure(final String xml) {
+		return new LogConfigure() {
+			public InputStream configure() {
+				try {
+					return new ByteArrayInputStream(xml.getBytes("UTF-8"));
+				} catch (UnsupportedEncodingException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		};
+	}
+}
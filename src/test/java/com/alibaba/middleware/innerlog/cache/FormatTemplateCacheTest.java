@@ -0,0 +1,92 @@
+package com.alibaba.middleware.innerlog.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.slf4j.helpers.MessageFormatter;
+
+/**
+ * FormatTemplateCache的输出和sl4j的MessageFormatter.arrayFormat一致
+ */
+public class FormatTemplateCacheTest {
+
+	private static final IllegalStateException THROWABLE = new IllegalStateException("trailing");
+
+	@Test
+	public void placeholders() {
+		assertParity("plain", "a");
+		assertParity("", "a");
+		assertParity("a {} b", "x");
+		assertParity("{}{}{}", 1, 2, 3);
+		assertParity("{} starts and ends {}", "x", "y");
+		assertParity("{ } {", "x");
+		assertParity("}{ {}", "x");
+	}
+
+	@Test
+	public void escapes() {
+		assertParity("\\{} x {}", "a");
+		assertParity("\\{}{}", "a");
+		assertParity("{}\\{}{}", "a", "b");
+		assertParity("\\\\{} x", "a");
+		assertParity("a \\\\{} b {}", "x", "y");
+		assertParity("\\\\\\{} x {}", "a");
+		assertParity("trailing \\", "a");
+		assertParity("\\ {} \\", "a");
+	}
+
+	@Test
+	public void argumentCount() {
+		assertParity("a {} b {} c {}", "x");
+		assertParity("a {} b {} c {} tail", "x", "y");
+		assertParity("a {} b", "x", "y", "z");
+		assertParity("a {} b {}", "x", "y", "z");
+	}
+
+	@Test
+	public void nullArguments() {
+		assertParity("a {} b {}", null, "y");
+		assertParity("a {} b {}", "x", null);
+		assertParity("{}", (Object) null);
+	}
+
+	@Test
+	public void trailingThrowable() {
+		assertParity("a {} b", "x", THROWABLE);
+		assertParity("a {} b {}", "x", THROWABLE);
+		assertParity("no placeholder", THROWABLE);
+	}
+
+	@Test
+	public void longPatternIsNotCached() {
+		char[] padding = new char[2048];
+		Arrays.fill(padding, 'p');
+		assertParity(new String(padding) + " {} {}", "x", "y");
+	}
+
+	@Test
+	public void arrayArgumentFallsBack() {
+		FormatTemplateCache cache = new FormatTemplateCache(16);
+		assertNull(cache.doFormat("a {}", new Object[] { new int[] { 1, 2 } }));
+	}
+
+	@Test
+	public void disabledCacheFallsBack() {
+		FormatTemplateCache cache = new FormatTemplateCache(0);
+		assertNull(cache.doFormat("a {}", new Object[] { "x" }));
+	}
+
+	/*
+	 * 同一个格式对象依次经过未命中,编译放入槽位和命中三种情况
+	 */
+	private static void assertParity(String pattern, Object... arguments) {
+		String expected = MessageFormatter.arrayFormat(pattern, arguments).getMessage();
+		FormatTemplateCache cache = new FormatTemplateCache(16);
+		for (int i = 0; i < 3; i++) {
+			assertEquals("pattern: " + pattern + ", round: " + i, expected, cache.doFormat(pattern, arguments));
+		}
+	}
+}